@@ -0,0 +1,133 @@
+package com.reactive.blocking;
+
+import com.reactive.config.BlockingExecutionProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The one place blocking work (file I/O, blocking drivers) runs, so it never lands on a Netty event loop. Runs on a
+ * virtual-thread-per-task executor when {@code VIRTUAL_THREADS} is configured and the JVM supports it (JDK 21+),
+ * otherwise on {@link Schedulers#boundedElastic()}. The stats count the calls made from an event loop thread, i.e. the
+ * ones that would have stalled it without the hop; the thread is the caller's, checked when {@link #call} is invoked.
+ */
+@Slf4j
+@Component
+public class BlockingScheduler implements DisposableBean {
+
+    private final Scheduler scheduler;
+    private final String schedulerName;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder fromEventLoop = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final AtomicInteger active = new AtomicInteger();
+
+    public BlockingScheduler(BlockingExecutionProperties blockingExecutionProperties) {
+
+        ExecutorService virtualThreads = blockingExecutionProperties.getMode() == BlockingExecutionProperties.Mode.VIRTUAL_THREADS
+                ? newVirtualThreadPerTaskExecutor()
+                : null;
+        if (virtualThreads != null) {
+            scheduler = Schedulers.fromExecutorService(virtualThreads, "blocking-virtual");
+            schedulerName = "virtual-threads";
+        } else {
+            scheduler = Schedulers.boundedElastic();
+            schedulerName = "bounded-elastic";
+        }
+        log.info("Blocking calls run on {}", schedulerName);
+    }
+
+    public <T> Mono<T> call(Callable<T> callable) {
+        Thread caller = Thread.currentThread();
+        if (isEventLoopThread(caller)) {
+            fromEventLoop.increment();
+            log.debug("Blocking call from event loop thread {} moved to {}", caller.getName(), schedulerName);
+        }
+        return Mono.fromCallable(() -> measure(callable)).subscribeOn(scheduler);
+    }
+
+    public Mono<Void> run(Runnable runnable) {
+        return call(() -> {
+            runnable.run();
+            return null;
+        }).then();
+    }
+
+    public Scheduler scheduler() {
+        return scheduler;
+    }
+
+    public Stats stats() {
+        return new Stats(schedulerName, submitted.sum(), active.get(), completed.sum(), failed.sum(), fromEventLoop.sum(),
+                busyNanos.sum() / 1_000_000);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != Schedulers.boundedElastic()) {
+            scheduler.dispose();
+        }
+    }
+
+    /**
+     * True for Reactor's non-blocking workers and Reactor Netty's event loops.
+     */
+    public static boolean isEventLoopThread(Thread thread) {
+        return Schedulers.isNonBlockingThread(thread) || thread.getName().startsWith("reactor-http-");
+    }
+
+    private <T> T measure(Callable<T> callable) throws Exception {
+
+        submitted.increment();
+        active.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            T result = callable.call();
+            completed.increment();
+            return result;
+        } catch (Exception ex) {
+            failed.increment();
+            throw ex;
+        } finally {
+            busyNanos.add(System.nanoTime() - start);
+            active.decrementAndGet();
+        }
+    }
+
+    // Looked up reflectively: the code base targets Java 11, virtual threads need a JDK 21 runtime
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException ex) {
+            log.warn("Virtual threads are not available on this JVM, falling back to bounded-elastic");
+            return null;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Stats {
+
+        private String scheduler;
+        private long submitted;
+        private int active;
+        private long completed;
+        private long failed;
+        private long fromEventLoop;
+        private long busyMillis;
+    }
+}
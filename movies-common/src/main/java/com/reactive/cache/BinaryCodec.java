@@ -0,0 +1,147 @@
+package com.reactive.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a cached value: fields are written in a fixed order, with no names, behind a format
+ * version byte. Changing the layout means bumping {@link #version()}, so entries in the old format read as misses.
+ * A value that can't be encoded, or bytes that can't be decoded, are logged and come out as {@code null}, which the
+ * cache treats as a miss.
+ */
+@Slf4j
+public abstract class BinaryCodec<T> {
+
+    protected abstract int version();
+
+    protected abstract void write(DataOutputStream out, T value) throws IOException;
+
+    protected abstract T read(DataInputStream in) throws IOException;
+
+    public byte[] encode(T value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(version());
+            write(out, value);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not encode {} for the cache: {}", value, ex.toString());
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns {@code null} for a value written in another format version.
+     */
+    public T decode(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readByte() == version() ? read(in) : null;
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not decode a cached value of {} bytes: {}", bytes.length, ex.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the UTF-8 bytes behind their length, or -1 for {@code null}. Unlike {@link DataOutputStream#writeUTF},
+     * this has no 64KB limit.
+     */
+    protected static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    protected static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        // A corrupt length must not make us allocate more than the entry holds
+        if (length > in.available()) {
+            throw new EOFException("String of " + length + " bytes exceeds the cached entry");
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    protected static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values == null ? -1 : values.size());
+        if (values != null) {
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    protected static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    protected static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    protected static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    protected static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    protected static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    /**
+     * Codec for the id lists behind cached queries.
+     */
+    public static BinaryCodec<List<String>> ids() {
+        return new BinaryCodec<List<String>>() {
+
+            @Override
+            protected int version() {
+                return 2;
+            }
+
+            @Override
+            protected void write(DataOutputStream out, List<String> value) throws IOException {
+                writeStrings(out, value);
+            }
+
+            @Override
+            protected List<String> read(DataInputStream in) throws IOException {
+                return readStrings(in);
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.reactive.cache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A key/value store shared by every instance of the service, e.g. Redis. Values are opaque bytes so that the
+ * serialization stays under the caller's control. {@link #getAll} and {@link #putAll} must cost one round trip
+ * (MGET or a pipeline), and the publish/subscribe pair carries invalidations to the other instances.
+ */
+public interface DistributedCache {
+
+    Mono<byte[]> get(String key);
+
+    /**
+     * Keys that are not cached are left out of the returned map.
+     */
+    Mono<Map<String, byte[]>> getAll(Collection<String> keys);
+
+    Mono<Void> put(String key, byte[] value, Duration ttl);
+
+    Mono<Void> putAll(Map<String, byte[]> entries, Duration ttl);
+
+    Mono<Void> evict(Collection<String> keys);
+
+    Mono<Void> publish(String channel, String message);
+
+    Flux<String> subscribe(String channel);
+}
@@ -0,0 +1,263 @@
+package com.reactive.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of one entity type, in two tiers. The first tier is a small per-instance near cache. The second
+ * is the {@link DistributedCache} shared by all instances. Both tiers hold encoded bytes, so every hit decodes a new
+ * object that the caller may change freely. A write calls {@link #invalidate}, which evicts the keys from the shared
+ * tier and publishes them so that every instance drops its near copy. Errors from the shared tier are logged and
+ * treated as misses, and so are entries the codec can't decode. A value the codec can't encode is returned uncached.
+ * The cache can never fail a request that the database could answer.
+ * <p>
+ * A value read while any invalidation ran, local or published by another instance, is returned but not stored, and
+ * one whose shared write raced an invalidation is evicted again, so a read racing a write can't cache the old value.
+ */
+@Slf4j
+public class EntityCache<T> implements Disposable {
+
+    private final String keyPrefix;
+    private final String channel;
+    private final DistributedCache distributedCache;
+    private final BinaryCodec<T> codec;
+    private final BinaryCodec<List<String>> idsCodec = BinaryCodec.ids();
+    private final Function<T, String> idOf;
+    private final Duration ttl;
+    private final long nearTtlMillis;
+    private final Map<String, NearEntry> near;
+    private final AtomicLong generation = new AtomicLong();
+    private final Disposable invalidations;
+
+    public EntityCache(String keyPrefix, DistributedCache distributedCache, BinaryCodec<T> codec, Function<T, String> idOf,
+                       Duration ttl, int nearCacheSize, Duration nearCacheTtl) {
+        this.keyPrefix = keyPrefix;
+        this.channel = keyPrefix + "invalidations";
+        this.distributedCache = distributedCache;
+        this.codec = codec;
+        this.idOf = idOf;
+        this.ttl = ttl;
+        this.nearTtlMillis = nearCacheTtl.toMillis();
+        this.near = Collections.synchronizedMap(new LinkedHashMap<String, NearEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NearEntry> eldest) {
+                return size() > nearCacheSize;
+            }
+        });
+        this.invalidations = distributedCache.subscribe(channel)
+                .subscribe(message -> {
+                    generation.incrementAndGet();
+                    for (String key : message.split("\n")) {
+                        near.remove(key);
+                    }
+                }, ex -> log.warn("Cache invalidation subscription on {} failed: {}", channel, ex.getMessage()));
+    }
+
+    public Mono<T> get(String id, Function<String, Mono<T>> loader) {
+
+        String key = keyPrefix + id;
+        byte[] nearHit = nearGet(key);
+        T nearValue = nearHit == null ? null : codec.decode(nearHit);
+        if (nearValue != null) {
+            return Mono.just(nearValue);
+        }
+
+        long before = generation.get();
+        return distributedCache.get(key)
+                .onErrorResume(ex -> miss(key, ex))
+                .mapNotNull(bytes -> {
+                    T value = codec.decode(bytes);
+                    if (value != null && generation.get() == before) {
+                        nearPut(key, bytes);
+                    }
+                    return value;
+                })
+                .switchIfEmpty(Mono.defer(() -> loader.apply(id)
+                        .flatMap(value -> {
+                            byte[] bytes = codec.encode(value);
+                            if (bytes == null) {
+                                return Mono.just(value);
+                            }
+                            return store(Map.of(key, bytes), before).thenReturn(value);
+                        })));
+    }
+
+    /**
+     * Resolves all ids with one multi-get, loads only the misses with a single {@code loader} call, and returns the
+     * values in the order of {@code ids}. Ids that exist nowhere are skipped.
+     */
+    public Flux<T> getAll(List<String> ids, Function<Collection<String>, Flux<T>> loader) {
+
+        // Entries are decoded as they are found, so one that can't be decoded is loaded like any other miss
+        long before = generation.get();
+        Map<String, T> found = new HashMap<>();
+        List<String> missingKeys = new ArrayList<>();
+        for (String id : ids) {
+            String key = keyPrefix + id;
+            byte[] nearHit = nearGet(key);
+            T value = nearHit == null ? null : codec.decode(nearHit);
+            if (value != null) {
+                found.put(key, value);
+            } else {
+                missingKeys.add(key);
+            }
+        }
+
+        Mono<Map<String, byte[]>> shared = missingKeys.isEmpty()
+                ? Mono.just(Collections.emptyMap())
+                : distributedCache.getAll(missingKeys).onErrorResume(ex -> miss(keyPrefix + "*", ex).thenReturn(Collections.emptyMap()));
+
+        return shared
+                .flatMap(hits -> {
+                    hits.forEach((key, bytes) -> {
+                        T value = codec.decode(bytes);
+                        if (value != null) {
+                            if (generation.get() == before) {
+                                nearPut(key, bytes);
+                            }
+                            found.put(key, value);
+                        }
+                    });
+                    List<String> missingIds = missingKeys.stream()
+                            .filter(key -> !found.containsKey(key))
+                            .map(key -> key.substring(keyPrefix.length()))
+                            .collect(Collectors.toList());
+                    if (missingIds.isEmpty()) {
+                        return Mono.just(found);
+                    }
+                    return loader.apply(missingIds)
+                            .collectList()
+                            .flatMap(values -> {
+                                // A value that can't be encoded is still returned, just not cached
+                                Map<String, byte[]> loaded = new HashMap<>();
+                                for (T value : values) {
+                                    String key = keyPrefix + idOf.apply(value);
+                                    found.put(key, value);
+                                    byte[] bytes = codec.encode(value);
+                                    if (bytes != null) {
+                                        loaded.put(key, bytes);
+                                    }
+                                }
+                                return store(loaded, before).thenReturn(found);
+                            });
+                })
+                .flatMapIterable(values -> ids.stream()
+                        .map(id -> values.get(keyPrefix + id))
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Caches the ids a query returns under {@code queryKey}, so a list endpoint becomes one small read plus a
+     * {@link #getAll} multi-get.
+     */
+    public Mono<List<String>> getIds(String queryKey, Supplier<Flux<String>> loader) {
+        String key = keyPrefix + queryKey;
+        long before = generation.get();
+        return distributedCache.get(key)
+                .onErrorResume(ex -> miss(key, ex))
+                .mapNotNull(idsCodec::decode)
+                .switchIfEmpty(Mono.defer(() -> loader.get().collectList()
+                        .flatMap(ids -> {
+                            byte[] bytes = idsCodec.encode(ids);
+                            if (bytes == null || generation.get() != before) {
+                                return Mono.just(ids);
+                            }
+                            return distributedCache.put(key, bytes, ttl)
+                                    .then(Mono.defer(() -> generation.get() == before ? Mono.<Void>empty()
+                                            : distributedCache.evict(List.of(key))))
+                                    .onErrorResume(ex -> miss(key, ex))
+                                    .thenReturn(ids);
+                        })));
+    }
+
+    public Mono<Void> invalidate(Collection<String> idsAndQueryKeys) {
+
+        List<String> keys = idsAndQueryKeys.stream().map(id -> keyPrefix + id).collect(Collectors.toList());
+        generation.incrementAndGet();
+        keys.forEach(near::remove);
+        return distributedCache.evict(keys)
+                .then(distributedCache.publish(channel, String.join("\n", keys)))
+                .onErrorResume(ex -> miss(channel, ex));
+    }
+
+    @Override
+    public void dispose() {
+        invalidations.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return invalidations.isDisposed();
+    }
+
+    /**
+     * Stores loaded entries in both tiers unless an invalidation ran since the read began at {@code before}. An
+     * invalidation that lands while the shared write is in flight evicts the entries again.
+     */
+    private Mono<Void> store(Map<String, byte[]> entries, long before) {
+        if (entries.isEmpty() || generation.get() != before) {
+            return Mono.empty();
+        }
+        entries.forEach(this::nearPut);
+        return distributedCache.putAll(entries, ttl)
+                .then(Mono.defer(() -> {
+                    if (generation.get() == before) {
+                        return Mono.<Void>empty();
+                    }
+                    entries.keySet().forEach(near::remove);
+                    return distributedCache.evict(entries.keySet());
+                }))
+                .onErrorResume(ex -> miss(keyPrefix + "*", ex));
+    }
+
+    private byte[] nearGet(String key) {
+        NearEntry entry = near.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            near.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private void nearPut(String key, byte[] value) {
+        if (nearTtlMillis > 0) {
+            near.put(key, new NearEntry(value, System.currentTimeMillis() + nearTtlMillis));
+        }
+    }
+
+    private <V> Mono<V> miss(String key, Throwable ex) {
+        log.warn("Shared cache unavailable for {}: {}", key, ex.getMessage());
+        return Mono.empty();
+    }
+
+    private static class NearEntry {
+
+        final byte[] value;
+        final long expiresAt;
+
+        NearEntry(byte[] value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
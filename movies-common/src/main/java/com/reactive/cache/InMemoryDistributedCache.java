@@ -0,0 +1,142 @@
+package com.reactive.cache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Embedded stand-in for a shared cache server, used for local runs and tests. It has the same contract as a
+ * Redis-backed {@link DistributedCache}: per-key TTLs, single-call multi-get and put, and fire-and-forget pub/sub.
+ * Because it lives inside one JVM, it is only shared by the caches of that JVM. Like a Redis server with a
+ * {@code maxmemory} policy, it holds at most {@code maxEntries}: a put beyond that drops the expired entries, and then
+ * arbitrary older ones (as {@code allkeys-random} does) until a tenth of the room is free again.
+ */
+public class InMemoryDistributedCache implements DistributedCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Sinks.Many<String>> channels = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final int maxEntries;
+
+    public InMemoryDistributedCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public InMemoryDistributedCache(int maxEntries) {
+        this(Clock.systemUTC(), maxEntries);
+    }
+
+    public InMemoryDistributedCache(Clock clock, int maxEntries) {
+        this.clock = clock;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    @Override
+    public Mono<byte[]> get(String key) {
+        return Mono.fromSupplier(() -> read(key));
+    }
+
+    @Override
+    public Mono<Map<String, byte[]>> getAll(Collection<String> keys) {
+        return Mono.fromSupplier(() -> {
+            Map<String, byte[]> found = new HashMap<>();
+            for (String key : keys) {
+                byte[] value = read(key);
+                if (value != null) {
+                    found.put(key, value);
+                }
+            }
+            return found;
+        });
+    }
+
+    @Override
+    public Mono<Void> put(String key, byte[] value, Duration ttl) {
+        return Mono.fromRunnable(() -> {
+            entries.put(key, new Entry(value, clock.millis() + ttl.toMillis()));
+            trim(Set.of(key));
+        });
+    }
+
+    @Override
+    public Mono<Void> putAll(Map<String, byte[]> values, Duration ttl) {
+        return Mono.fromRunnable(() -> {
+            long expiresAt = clock.millis() + ttl.toMillis();
+            values.forEach((key, value) -> entries.put(key, new Entry(value, expiresAt)));
+            trim(values.keySet());
+        });
+    }
+
+    @Override
+    public Mono<Void> evict(Collection<String> keys) {
+        return Mono.fromRunnable(() -> keys.forEach(entries::remove));
+    }
+
+    @Override
+    public Mono<Void> publish(String channel, String message) {
+        return Mono.fromRunnable(() -> channel(channel).tryEmitNext(message));
+    }
+
+    @Override
+    public Flux<String> subscribe(String channel) {
+        return channel(channel).asFlux();
+    }
+
+    private byte[] read(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= clock.millis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // The entries just written are kept, so a put is never undone by its own trim
+    private void trim(Set<String> written) {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        long now = clock.millis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        int target = maxEntries - maxEntries / 10;
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            if (!written.contains(keys.next())) {
+                keys.remove();
+            }
+        }
+    }
+
+    private Sinks.Many<String> channel(String channel) {
+        return channels.computeIfAbsent(channel, name -> Sinks.many().multicast().directBestEffort());
+    }
+
+    private static class Entry {
+
+        final byte[] value;
+        final long expiresAt;
+
+        Entry(byte[] value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.reactive.config;
+
+import lombok.Data;
+
+@Data
+public class BlockingExecutionProperties {
+
+    public enum Mode { BOUNDED_ELASTIC, VIRTUAL_THREADS }
+
+    private Mode mode = Mode.BOUNDED_ELASTIC;
+}
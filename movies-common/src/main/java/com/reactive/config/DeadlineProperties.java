@@ -0,0 +1,12 @@
+package com.reactive.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+public class DeadlineProperties {
+
+    private boolean enabled = true;
+    private Duration maxTimeout = Duration.ofSeconds(30);
+}
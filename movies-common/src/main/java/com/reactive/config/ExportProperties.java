@@ -0,0 +1,11 @@
+package com.reactive.config;
+
+import lombok.Data;
+
+@Data
+public class ExportProperties {
+
+    private String directory = "export";
+    private int cursorBatchSize = 2000;
+    private int rowsPerChunk = 5000;
+}
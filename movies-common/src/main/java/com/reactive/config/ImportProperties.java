@@ -0,0 +1,13 @@
+package com.reactive.config;
+
+import lombok.Data;
+
+@Data
+public class ImportProperties {
+
+    private String directory = "import";
+    private int partitionBytes = 8 * 1024 * 1024;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 1000;
+    private int insertConcurrency = 4;
+}
@@ -0,0 +1,15 @@
+package com.reactive.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+
+@Configuration(proxyBeanMethods = false)
+public class OutboxConfig {
+
+    @Bean
+    public ReactiveMongoTransactionManager reactiveMongoTransactionManager(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory) {
+        return new ReactiveMongoTransactionManager(reactiveMongoDatabaseFactory);
+    }
+}
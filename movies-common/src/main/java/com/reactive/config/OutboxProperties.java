@@ -0,0 +1,35 @@
+package com.reactive.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+public class OutboxProperties {
+
+    private boolean transactional = true;
+    /**
+     * How often a transaction aborted by a transient error, such as a write conflict, is run again.
+     */
+    private int transactionRetries = 3;
+    private boolean relayEnabled = true;
+    private boolean tailEnabled = true;
+    private int batchSize = 100;
+    private Duration pollInterval = Duration.ofMillis(500);
+    /**
+     * How long relayed events stay readable for consumers resuming from a cursor.
+     */
+    private Duration retention = Duration.ofDays(7);
+    /**
+     * How long the active relay keeps the lease without renewing it before another replica takes over.
+     */
+    private Duration leaseDuration = Duration.ofSeconds(10);
+    private File file = new File();
+
+    @Data
+    public static class File {
+
+        private boolean enabled = false;
+        private String path = "outbox-events.ndjson";
+    }
+}
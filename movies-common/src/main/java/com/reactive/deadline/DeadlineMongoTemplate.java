@@ -0,0 +1,112 @@
+package com.reactive.deadline;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Sends the remaining time of the request's {@link Deadline} along with every query as {@code maxTimeMS}, so Mongo
+ * gives up on a query nobody is waiting for anymore instead of running it to the end. This covers the template's own
+ * queries as well as the repository CRUD reads, which go through the same methods. Reads without a deadline in their
+ * context, such as the background jobs, are not limited.
+ * <p>
+ * The template passes no query options to updates, upserts, removes, findAndModify, findAndRemove and
+ * findDistinct, so those only fail fast when the deadline has already passed. Once sent, they run to completion on
+ * the server, and the request's timeout merely stops waiting for them.
+ */
+public class DeadlineMongoTemplate extends ReactiveMongoTemplate {
+
+    public DeadlineMongoTemplate(ReactiveMongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter) {
+        super(mongoDatabaseFactory, mongoConverter);
+    }
+
+    @Override
+    public <T> Flux<T> find(Query query, Class<T> entityClass, String collectionName) {
+        return Flux.deferContextual(context -> {
+            Optional<Deadline> deadline = Deadline.current(context);
+            if (deadline.isEmpty()) {
+                return super.find(query, entityClass, collectionName);
+            }
+            return deadline.get().isExpired() ? Flux.error(Deadline.exceeded())
+                    : super.find(withMaxTime(query, deadline.get().remaining()), entityClass, collectionName);
+        });
+    }
+
+    @Override
+    public <T> Mono<T> findOne(Query query, Class<T> entityClass, String collectionName) {
+        return Mono.deferContextual(context -> {
+            Optional<Deadline> deadline = Deadline.current(context);
+            if (deadline.isEmpty()) {
+                return super.findOne(query, entityClass, collectionName);
+            }
+            return deadline.get().isExpired() ? Mono.error(Deadline.exceeded())
+                    : super.findOne(withMaxTime(query, deadline.get().remaining()), entityClass, collectionName);
+        });
+    }
+
+    /**
+     * {@link ReactiveMongoTemplate#findById} doesn't take query options, so with a deadline it is run as a query on
+     * {@code _id} instead.
+     */
+    @Override
+    public <T> Mono<T> findById(Object id, Class<T> entityClass, String collectionName) {
+        return Mono.deferContextual(context -> Deadline.current(context).isPresent()
+                ? findOne(Query.query(Criteria.where("_id").is(id)), entityClass, collectionName)
+                : super.findById(id, entityClass, collectionName));
+    }
+
+    @Override
+    protected Mono<UpdateResult> doUpdate(String collectionName, Query query, UpdateDefinition update, Class<?> entityClass,
+                                          boolean upsert, boolean multi) {
+        return beforeDeadline(() -> super.doUpdate(collectionName, query, update, entityClass, upsert, multi));
+    }
+
+    @Override
+    protected <T> Mono<DeleteResult> doRemove(String collectionName, Query query, Class<T> entityClass) {
+        return beforeDeadline(() -> super.doRemove(collectionName, query, entityClass));
+    }
+
+    @Override
+    protected <T> Mono<T> doFindAndModify(String collectionName, Document query, Document fields, Document sort,
+                                          Class<T> entityClass, UpdateDefinition update, FindAndModifyOptions options) {
+        return beforeDeadline(() -> super.doFindAndModify(collectionName, query, fields, sort, entityClass, update, options));
+    }
+
+    @Override
+    public <T> Mono<T> findAndRemove(Query query, Class<T> entityClass, String collectionName) {
+        return beforeDeadline(() -> super.findAndRemove(query, entityClass, collectionName));
+    }
+
+    @Override
+    public <T> Flux<T> findDistinct(Query query, String field, String collectionName, Class<?> entityClass, Class<T> resultClass) {
+        return beforeDeadline(Mono::<Void>empty)
+                .thenMany(Flux.defer(() -> super.findDistinct(query, field, collectionName, entityClass, resultClass)));
+    }
+
+    private static <T> Mono<T> beforeDeadline(Supplier<Mono<T>> operation) {
+        return Mono.deferContextual(context -> Deadline.current(context).filter(Deadline::isExpired).isPresent()
+                ? Mono.error(Deadline.exceeded())
+                : operation.get());
+    }
+
+    /**
+     * Works on a copy, since callers may reuse their query. A remaining time below one millisecond is rounded up,
+     * because a {@code maxTimeMS} of 0 means no limit.
+     */
+    private static Query withMaxTime(Query query, Duration remaining) {
+        return Query.of(query).maxTimeMsec(Math.max(1, remaining.toMillis()));
+    }
+}
@@ -0,0 +1,53 @@
+package com.reactive.deadline;
+
+import com.reactive.config.DeadlineProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Honours the caller's {@link Deadline}: a request that arrives already expired is answered with a 504 without being
+ * handled, and one that is still running when the deadline passes is cancelled, which also cancels its Mongo cursors.
+ * The deadline is put into the Reactor context so {@link DeadlineMongoTemplate} can hand the remaining time to Mongo
+ * as {@code maxTimeMS}. Requests without the header, such as the event streams, are left unbounded.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class DeadlineWebFilter implements WebFilter {
+
+    private final DeadlineProperties deadlineProperties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+        String header = exchange.getRequest().getHeaders().getFirst(Deadline.HEADER);
+        if (!deadlineProperties.isEnabled() || header == null) {
+            return chain.filter(exchange);
+        }
+
+        Deadline deadline;
+        try {
+            deadline = Deadline.parse(header).earliest(Deadline.after(deadlineProperties.getMaxTimeout()));
+        } catch (ResponseStatusException ex) {
+            return Mono.error(ex);
+        }
+        if (deadline.isExpired()) {
+            log.debug("{} {} arrived after its deadline", exchange.getRequest().getMethod(), exchange.getRequest().getPath());
+            return Mono.error(Deadline.exceeded());
+        }
+
+        return chain.filter(exchange)
+                .timeout(deadline.remaining(), Mono.error(Deadline::exceeded))
+                .contextWrite(Context.of(Deadline.class, deadline));
+    }
+}
@@ -0,0 +1,39 @@
+package com.reactive.event;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Remembers, per consumer, the sequence number of the last event it applied from another service's event log, so
+ * its stream resumes there after a reconnect or a restart. A cursor only moves forward.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventCursorStore {
+
+    private static final String COLLECTION = "event_cursors";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public Mono<Long> get(String consumer) {
+        return reactiveMongoTemplate.findById(consumer, Document.class, COLLECTION)
+                .map(cursor -> cursor.get("sequence", Number.class))
+                .map(Number::longValue);
+    }
+
+    public Mono<Void> advance(String consumer, long sequence) {
+        return reactiveMongoTemplate.upsert(Query.query(Criteria.where("_id").is(consumer)),
+                        new Update().max("sequence", sequence), COLLECTION)
+                .then();
+    }
+
+    public Mono<Void> reset(String consumer) {
+        return reactiveMongoTemplate.remove(Query.query(Criteria.where("_id").is(consumer)), COLLECTION).then();
+    }
+}
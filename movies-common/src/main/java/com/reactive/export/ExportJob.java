@@ -0,0 +1,192 @@
+package com.reactive.export;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.blocking.BlockingScheduler;
+import com.reactive.config.ExportProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a whole collection, in id order, into {@code <directory>/<name>.ndjson.gz}. The Mongo cursor is read in
+ * batches of {@code cursorBatchSize}, and at most one chunk of {@code rowsPerChunk} documents is held in memory.
+ * After every chunk, the file offset and the last exported id are saved to {@code <name>.checkpoint}. A resumed
+ * export cuts the file back to that offset and continues after that id. The checkpoint is removed once the export
+ * completes, and an export started without resuming discards any checkpoint left over from an earlier run.
+ * <p>
+ * Exports with the same name write the same file, so while one runs, another with that name is rejected with 409.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExportJob {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final BlockingScheduler blockingScheduler;
+    private final ExportProperties exportProperties;
+
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public <T> Mono<ExportResult> export(String name, Class<T> entityClass, String idProperty, Function<T, String> idOf, boolean resume) {
+        return export(name, entityClass, idProperty, idOf, Mono::just, resume);
+    }
+
+    /**
+     * Like {@link #export(String, Class, String, Function, boolean)}, passing each chunk through {@code complete}
+     * before it is written, e.g. to add fields stored elsewhere.
+     */
+    public <T> Mono<ExportResult> export(String name, Class<T> entityClass, String idProperty, Function<T, String> idOf,
+                                         Function<List<T>, Mono<List<T>>> complete, boolean resume) {
+        return Mono.defer(() -> {
+            if (!running.add(name)) {
+                return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "An export of " + name + " is already running"));
+            }
+            return run(name, entityClass, idProperty, idOf, complete, resume)
+                    .doFinally(signal -> running.remove(name));
+        });
+    }
+
+    private <T> Mono<ExportResult> run(String name, Class<T> entityClass, String idProperty, Function<T, String> idOf,
+                                       Function<List<T>, Mono<List<T>>> complete, boolean resume) {
+
+        Path directory = Path.of(exportProperties.getDirectory());
+        Path file = directory.resolve(name + ".ndjson.gz");
+        Path checkpointFile = directory.resolve(name + ".checkpoint");
+
+        return blockingScheduler.call(() -> {
+                    Files.createDirectories(directory);
+                    if (!resume) {
+                        Files.deleteIfExists(checkpointFile);
+                    }
+                    return resume && Files.exists(checkpointFile) ? Checkpoint.parse(Files.readString(checkpointFile)) : Checkpoint.START;
+                })
+                .flatMap(checkpoint -> Mono.using(
+                        () -> GzipNdjsonWriter.open(file, checkpoint.offset),
+                        writer -> export(writer, checkpoint, checkpointFile, entityClass, idProperty, idOf, complete),
+                        this::closeQuietly))
+                // The file is complete and closed, so there is nothing left to resume
+                .flatMap(result -> blockingScheduler.call(() -> {
+                    Files.deleteIfExists(checkpointFile);
+                    return result;
+                }))
+                .map(result -> {
+                    result.setFile(file.toString());
+                    log.info("Exported {} {} rows to {} in {} ms ({} rows/s)", result.getRows(), name, file,
+                            result.getDurationMillis(), result.getRowsPerSecond());
+                    return result;
+                });
+    }
+
+    private <T> Mono<ExportResult> export(GzipNdjsonWriter writer, Checkpoint checkpoint, Path checkpointFile,
+                                          Class<T> entityClass, String idProperty, Function<T, String> idOf,
+                                          Function<List<T>, Mono<List<T>>> complete) {
+
+        Query query = new Query().with(Sort.by(idProperty)).cursorBatchSize(exportProperties.getCursorBatchSize());
+        if (checkpoint.lastId != null) {
+            query.addCriteria(Criteria.where(idProperty).gt(checkpoint.lastId));
+        }
+
+        long start = System.nanoTime();
+        AtomicLong rows = new AtomicLong();
+        AtomicReference<String> lastId = new AtomicReference<>(checkpoint.lastId);
+
+        return reactiveMongoTemplate.find(query, entityClass)
+                .buffer(exportProperties.getRowsPerChunk())
+                .concatMap(complete, 1)
+                .concatMap(chunk -> {
+                    String chunkLastId = idOf.apply(chunk.get(chunk.size() - 1));
+                    return writer.writeChunk(toLines(chunk))
+                            .flatMap(offset -> saveCheckpoint(checkpointFile, new Checkpoint(offset, chunkLastId)))
+                            .doOnSuccess(unused -> {
+                                rows.addAndGet(chunk.size());
+                                lastId.set(chunkLastId);
+                            });
+                }, 1)
+                .then(Mono.fromSupplier(() -> {
+                    long durationMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+                    return ExportResult.builder()
+                            .rows(rows.get())
+                            .bytes(writer.position())
+                            .durationMillis(durationMillis)
+                            .rowsPerSecond(rows.get() * 1000 / durationMillis)
+                            .lastExportedId(lastId.get())
+                            .build();
+                }));
+    }
+
+    private <T> List<byte[]> toLines(List<T> chunk) {
+        return chunk.stream().map(entity -> {
+            try {
+                return objectMapper.writeValueAsBytes(entity);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("Failed to serialize " + entity, ex);
+            }
+        }).collect(Collectors.toList());
+    }
+
+    private Mono<Void> saveCheckpoint(Path checkpointFile, Checkpoint checkpoint) {
+        return blockingScheduler.run(() -> {
+            try {
+                Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+                Files.write(temp, checkpoint.toString().getBytes(StandardCharsets.UTF_8));
+                Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    private void closeQuietly(GzipNdjsonWriter writer) {
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            log.warn("Failed to close export file: {}", ex.getMessage());
+        }
+    }
+
+    private static class Checkpoint {
+
+        static final Checkpoint START = new Checkpoint(0, null);
+
+        final long offset;
+        final String lastId;
+
+        Checkpoint(long offset, String lastId) {
+            this.offset = offset;
+            this.lastId = lastId;
+        }
+
+        static Checkpoint parse(String value) {
+            String[] parts = value.trim().split(" ", 2);
+            return new Checkpoint(Long.parseLong(parts[0]), parts.length > 1 && !"null".equals(parts[1]) ? parts[1] : null);
+        }
+
+        @Override
+        public String toString() {
+            return offset + " " + lastId;
+        }
+    }
+}
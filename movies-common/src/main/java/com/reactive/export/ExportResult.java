@@ -0,0 +1,20 @@
+package com.reactive.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportResult {
+
+    private String file;
+    private long rows;
+    private long bytes;
+    private long durationMillis;
+    private long rowsPerSecond;
+    private String lastExportedId;
+}
@@ -0,0 +1,93 @@
+package com.reactive.export;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Appends chunks of NDJSON lines to a file through an {@link AsynchronousFileChannel}. Every chunk is written as a
+ * complete gzip member; concatenated members form a valid gzip file, so a resumed export can cut the file back to
+ * the last finished chunk and carry on appending.
+ */
+public class GzipNdjsonWriter implements AutoCloseable {
+
+    private final AsynchronousFileChannel channel;
+    private long position;
+
+    private GzipNdjsonWriter(AsynchronousFileChannel channel, long position) {
+        this.channel = channel;
+        this.position = position;
+    }
+
+    /**
+     * Opens the file and drops everything after {@code offset}: 0 starts a new export, a checkpoint offset resumes one.
+     */
+    public static GzipNdjsonWriter open(Path file, long offset) throws IOException {
+        AsynchronousFileChannel channel = AsynchronousFileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(offset);
+        return new GzipNdjsonWriter(channel, Math.min(offset, channel.size()));
+    }
+
+    /**
+     * Compresses and writes one chunk, completing with the file offset after it. Chunks must be written one at a time.
+     */
+    public Mono<Long> writeChunk(List<byte[]> lines) {
+        return Mono.defer(() -> {
+            ByteBuffer buffer = ByteBuffer.wrap(gzip(lines));
+            long start = position;
+            position += buffer.remaining();
+            return Mono.<Void>create(sink -> write(buffer, start, sink)).thenReturn(position);
+        });
+    }
+
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void write(ByteBuffer buffer, long offset, MonoSink<Void> sink) {
+        channel.write(buffer, offset, null, new CompletionHandler<Integer, Void>() {
+            @Override
+            public void completed(Integer written, Void attachment) {
+                if (buffer.hasRemaining()) {
+                    write(buffer, offset + written, sink);
+                } else {
+                    sink.success();
+                }
+            }
+
+            @Override
+            public void failed(Throwable ex, Void attachment) {
+                sink.error(ex);
+            }
+        });
+    }
+
+    private static byte[] gzip(List<byte[]> lines) {
+        int size = lines.stream().mapToInt(line -> line.length + 1).sum();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, size / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes, 8192)) {
+            for (byte[] line : lines) {
+                gzip.write(line);
+                gzip.write('\n');
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+}
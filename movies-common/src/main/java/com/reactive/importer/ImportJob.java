@@ -0,0 +1,215 @@
+package com.reactive.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import com.reactive.blocking.BlockingScheduler;
+import com.reactive.config.ImportProperties;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Loads {@code <directory>/<file>} (NDJSON, one entity per line) straight into the entity's collection, bypassing the
+ * REST layer, the outbox and the change events. The file is split into newline-aligned partitions. Up to
+ * {@code parallelism} partitions are memory-mapped, parsed and validated at the same time on the
+ * {@link BlockingScheduler}. Each row also goes through its {@link ImportTarget}, which applies the checks and side
+ * writes of the entity's create path. Rows are written with unordered {@code insertMany} batches, at most
+ * {@code insertConcurrency} per partition at a time, and a partition's lines are only parsed as those batches ask
+ * for them, so no more than {@code insertConcurrency} batches per partition are held in memory. Invalid lines are counted and logged but do not stop the import. Duplicate keys are counted as well, which
+ * makes re-running a partition harmless when the file carries ids. Completed partition indexes are appended to
+ * {@code <file>.checkpoint}, and a resumed import skips them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImportJob {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final BlockingScheduler blockingScheduler;
+    private final ImportProperties importProperties;
+
+    public <T> Mono<ImportResult> importFile(String fileName, ImportTarget<T> target, boolean resume) {
+
+        Path directory = Path.of(importProperties.getDirectory()).toAbsolutePath().normalize();
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Import file must be inside " + directory));
+        }
+        Path checkpointFile = file.resolveSibling(file.getFileName() + ".checkpoint");
+
+        long start = System.nanoTime();
+        Counters counters = new Counters();
+
+        return blockingScheduler.call(() -> {
+                    if (!Files.isRegularFile(file)) {
+                        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import file not found: " + fileName);
+                    }
+                    List<NdjsonPartition> partitions = NdjsonPartition.split(file, importProperties.getPartitionBytes());
+                    Set<Integer> completed = resume ? readCheckpoint(checkpointFile) : new HashSet<>();
+                    if (!resume) {
+                        Files.deleteIfExists(checkpointFile);
+                    }
+                    return new Plan(partitions, completed);
+                })
+                .flatMap(plan -> Flux.fromIterable(plan.partitions)
+                        .filter(partition -> !plan.completed.contains(partition.getIndex()))
+                        .flatMap(partition -> importPartition(file, partition, target, counters), importProperties.getParallelism())
+                        .concatMap(partition -> appendCheckpoint(checkpointFile, partition))
+                        .then(Mono.fromSupplier(() -> {
+                            long durationMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+                            return ImportResult.builder()
+                                    .file(file.toString())
+                                    .partitions(plan.partitions.size())
+                                    .skippedPartitions((int) plan.partitions.stream().filter(p -> plan.completed.contains(p.getIndex())).count())
+                                    .inserted(counters.inserted.get())
+                                    .duplicates(counters.duplicates.get())
+                                    .rejected(counters.rejected.get())
+                                    .durationMillis(durationMillis)
+                                    .rowsPerSecond(counters.inserted.get() * 1000 / durationMillis)
+                                    .build();
+                        })))
+                .doOnNext(result -> log.info("Imported {} rows from {} in {} ms ({} rows/s, {} duplicates, {} rejected)",
+                        result.getInserted(), file, result.getDurationMillis(), result.getRowsPerSecond(),
+                        result.getDuplicates(), result.getRejected()));
+    }
+
+    private <T> Mono<NdjsonPartition> importPartition(Path file, NdjsonPartition partition, ImportTarget<T> target, Counters counters) {
+        String collectionName = reactiveMongoTemplate.getCollectionName(target.entityClass());
+        // Lines are read and parsed on the blocking scheduler, only as far as the pending insert batches request
+        return partition.lines(file)
+                .mapNotNull(line -> parse(line, partition, target, counters))
+                .subscribeOn(blockingScheduler.scheduler())
+                .buffer(importProperties.getBatchSize())
+                .flatMap(batch -> insert(collectionName, batch, counters).flatMap(target::inserted), importProperties.getInsertConcurrency())
+                .then(Mono.just(partition));
+    }
+
+    // Null for a rejected line. Any failure rejects the line, not the partition: a movieInfoId that isn't hex fails in the converter
+    private <T> Row<T> parse(byte[] line, NdjsonPartition partition, ImportTarget<T> target, Counters counters) {
+        try {
+            T entity = objectMapper.readValue(line, target.entityClass());
+            Set<ConstraintViolation<T>> violations = validator.validate(entity);
+            if (!violations.isEmpty()) {
+                reject(partition, counters, violations.stream().map(ConstraintViolation::getMessage).sorted()
+                        .collect(Collectors.joining(", ")));
+                return null;
+            }
+            String rejection = target.prepare(entity);
+            if (rejection != null) {
+                reject(partition, counters, rejection);
+                return null;
+            }
+            Document document = new Document();
+            reactiveMongoTemplate.getConverter().write(target.stored(entity), document);
+            return new Row<>(entity, document);
+        } catch (IOException | RuntimeException ex) {
+            reject(partition, counters, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Emits the rows that were inserted, leaving out duplicates.
+     */
+    private <T> Mono<List<T>> insert(String collectionName, List<Row<T>> batch, Counters counters) {
+        List<Document> documents = batch.stream().map(row -> row.document).collect(Collectors.toList());
+        return reactiveMongoTemplate.getCollection(collectionName)
+                .flatMap(collection -> Mono.from(collection.insertMany(documents, new InsertManyOptions().ordered(false))))
+                .map(result -> {
+                    counters.inserted.addAndGet(batch.size());
+                    return batch.stream().map(row -> row.entity).collect(Collectors.toList());
+                })
+                .onErrorResume(MongoBulkWriteException.class, ex -> {
+                    List<BulkWriteError> others = ex.getWriteErrors().stream()
+                            .filter(error -> error.getCode() != DUPLICATE_KEY)
+                            .collect(Collectors.toList());
+                    if (!others.isEmpty()) {
+                        return Mono.error(ex);
+                    }
+                    counters.inserted.addAndGet(ex.getWriteResult().getInsertedCount());
+                    counters.duplicates.addAndGet(ex.getWriteErrors().size());
+                    Set<Integer> duplicates = ex.getWriteErrors().stream().map(BulkWriteError::getIndex).collect(Collectors.toSet());
+                    return Mono.just(IntStream.range(0, batch.size())
+                            .filter(i -> !duplicates.contains(i))
+                            .mapToObj(i -> batch.get(i).entity)
+                            .collect(Collectors.toList()));
+                });
+    }
+
+    private void reject(NdjsonPartition partition, Counters counters, String reason) {
+        if (counters.rejected.incrementAndGet() <= 100) {
+            log.warn("Rejected a line in partition {}: {}", partition.getIndex(), reason);
+        }
+    }
+
+    private Mono<Void> appendCheckpoint(Path checkpointFile, NdjsonPartition partition) {
+        return blockingScheduler.run(() -> {
+            try {
+                Files.write(checkpointFile, (partition.getIndex() + "\n").getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    private static Set<Integer> readCheckpoint(Path checkpointFile) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return new HashSet<>();
+        }
+        return Files.readAllLines(checkpointFile).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty())
+                .map(Integer::valueOf)
+                .collect(Collectors.toSet());
+    }
+
+    @AllArgsConstructor
+    private static class Row<T> {
+
+        final T entity;
+        final Document document;
+    }
+
+    @AllArgsConstructor
+    private static class Plan {
+
+        final List<NdjsonPartition> partitions;
+        final Set<Integer> completed;
+    }
+
+    private static class Counters {
+
+        final AtomicLong inserted = new AtomicLong();
+        final AtomicLong duplicates = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+    }
+}
@@ -0,0 +1,22 @@
+package com.reactive.importer;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResult {
+
+    private String file;
+    private int partitions;
+    private int skippedPartitions;
+    private long inserted;
+    private long duplicates;
+    private long rejected;
+    private long durationMillis;
+    private long rowsPerSecond;
+}
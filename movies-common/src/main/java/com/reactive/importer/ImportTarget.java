@@ -0,0 +1,32 @@
+package com.reactive.importer;
+
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * What an {@link ImportJob} needs to know about one entity type beyond its bean validation constraints: how a parsed
+ * row is checked and completed, what is written to the entity's collection, and what the service's own create path
+ * would do next for each inserted row.
+ */
+public interface ImportTarget<T> {
+
+    Class<T> entityClass();
+
+    /**
+     * Checks and completes a parsed row before it is written. Returns why the row is rejected, or {@code null}.
+     */
+    String prepare(T row);
+
+    /**
+     * The row as written to the entity's collection.
+     */
+    default T stored(T row) {
+        return row;
+    }
+
+    /**
+     * Runs for every batch after its insert, with the prepared rows that were actually inserted.
+     */
+    Mono<Void> inserted(List<T> rows);
+}
@@ -0,0 +1,130 @@
+package com.reactive.importer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A byte range of an NDJSON file that starts at the beginning of a line and ends right after a newline (or at the end
+ * of the file). Partitions are computed the same way on every run, so their index is enough to checkpoint progress.
+ */
+@Data
+@AllArgsConstructor
+public class NdjsonPartition {
+
+    private int index;
+    private long start;
+    private long end;
+
+    /**
+     * Splits the file into partitions of roughly {@code partitionBytes}. Each boundary is moved forward to just after
+     * the next newline, so no line is ever split between two partitions.
+     */
+    public static List<NdjsonPartition> split(Path file, long partitionBytes) throws IOException {
+        List<NdjsonPartition> partitions = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            while (start < size) {
+                long end = Math.min(start + partitionBytes, size);
+                if (end < size) {
+                    end = nextLineStart(channel, end - 1, size, buffer);
+                }
+                partitions.add(new NdjsonPartition(partitions.size(), start, end));
+                start = end;
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Memory-maps the partition and emits its non-blank lines, each read only when it is requested, so a slow
+     * consumer holds back the reading instead of letting lines pile up.
+     */
+    public Flux<byte[]> lines(Path file) {
+        return Flux.generate(() -> new LineCursor(map(file)), (cursor, sink) -> {
+            byte[] line = cursor.next();
+            if (line == null) {
+                sink.complete();
+            } else {
+                sink.next(line);
+            }
+            return cursor;
+        });
+    }
+
+    // The mapping stays valid after the channel is closed
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer buffer) throws IOException {
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static class LineCursor {
+
+        private final MappedByteBuffer buffer;
+        private int position;
+
+        LineCursor(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        // The next non-blank line without its line break, or null at the end of the partition
+        byte[] next() {
+            int limit = buffer.limit();
+            while (position < limit) {
+                int lineStart = position;
+                int i = lineStart;
+                while (i < limit && buffer.get(i) != '\n') {
+                    i++;
+                }
+                position = i + 1;
+                int lineEnd = i > lineStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+                if (lineEnd > lineStart) {
+                    byte[] line = new byte[lineEnd - lineStart];
+                    ((ByteBuffer) buffer.duplicate().position(lineStart)).get(line);
+                    if (!isBlank(line)) {
+                        return line;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private static boolean isBlank(byte[] line) {
+        for (byte b : line) {
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
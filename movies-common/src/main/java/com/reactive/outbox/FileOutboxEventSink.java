@@ -0,0 +1,43 @@
+package com.reactive.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.blocking.BlockingScheduler;
+import com.reactive.config.OutboxProperties;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Local stand-in for a message broker: appends every relayed event to a newline delimited JSON file. The services
+ * register it when their {@code outbox.file.enabled} property is set.
+ */
+@RequiredArgsConstructor
+public class FileOutboxEventSink implements OutboxEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties outboxProperties;
+    private final BlockingScheduler blockingScheduler;
+
+    @Override
+    public Mono<Void> publish(List<OutboxEvent> batch) {
+
+        return blockingScheduler.run(() -> {
+            Path path = Path.of(outboxProperties.getFile().getPath());
+            try (OutputStream outputStream = Files.newOutputStream(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+                for (OutboxEvent event : batch) {
+                    outputStream.write(objectMapper.writeValueAsBytes(event));
+                    outputStream.write('\n');
+                }
+            } catch (IOException ex) {
+                throw new IllegalStateException("Failed to append outbox events to " + path, ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package com.reactive.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@Document("outbox")
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    private String outboxEventId;
+    private String aggregateType;
+    private String aggregateId;
+    private String type;
+    private Object payload;
+    private Instant createdAt;
+    /**
+     * Position in the event log, assigned by the relay once the event was handed to the sinks.
+     */
+    private Long sequence;
+    /**
+     * False until the relay numbers the event. Only unrelayed events are in the relay's index, so its polls don't
+     * grow with the retained log.
+     */
+    private boolean relayed;
+    private Instant relayedAt;
+}
@@ -0,0 +1,8 @@
+package com.reactive.outbox;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends ReactiveMongoRepository<OutboxEvent, String> {
+}
@@ -0,0 +1,14 @@
+package com.reactive.outbox;
+
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Destination for relayed outbox events. A batch counts as delivered once the returned {@code Mono} completes;
+ * an error leaves the whole batch unrelayed, to be relayed again on the next poll.
+ */
+public interface OutboxEventSink {
+
+    Mono<Void> publish(List<OutboxEvent> batch);
+}
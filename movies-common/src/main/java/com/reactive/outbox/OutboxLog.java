@@ -0,0 +1,164 @@
+package com.reactive.outbox;
+
+import com.reactive.config.OutboxProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The outbox doubles as a durable, ordered event log. Once its sinks have accepted an event, the relay numbers it
+ * with the next {@code sequence} and stamps {@code relayedAt}. Numbered events stay in the collection for
+ * {@code retention} (a TTL index on {@code relayedAt}), and consumers read them by sequence, from wherever they left off.
+ * <p>
+ * Only the holder of the relay lease numbers events, so the sequence has no gaps and follows the outbox order. A
+ * relay that lost its lease without noticing can't reuse a number, because {@code sequence} is unique. The highest
+ * number handed out is also kept with the lease, so it survives the expiry of every event.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxLog {
+
+    private static final String LEASE_COLLECTION = "outbox_lease";
+    private static final String LEASE_ID = "relay";
+    private static final String SEQUENCE = "sequence";
+    private static final String RELAYED = "relayed";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final OutboxProperties outboxProperties;
+
+    /**
+     * Also marks events written before the {@code relayed} flag existed and not numbered yet, so the relay finds them.
+     */
+    public Mono<Void> ensureIndexes() {
+        return reactiveMongoTemplate.indexOps(OutboxEvent.class)
+                .ensureIndex(new Index().on(SEQUENCE, Sort.Direction.ASC).unique().sparse())
+                .then(reactiveMongoTemplate.indexOps(OutboxEvent.class)
+                        .ensureIndex(new Index().on("relayedAt", Sort.Direction.ASC).expire(outboxProperties.getRetention())))
+                .then(reactiveMongoTemplate.indexOps(OutboxEvent.class)
+                        .ensureIndex(new Index().on(RELAYED, Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                                .partial(PartialIndexFilter.of(Criteria.where(RELAYED).is(false)))
+                                .named("unrelayed")))
+                .then(reactiveMongoTemplate.updateMulti(
+                        Query.query(Criteria.where(RELAYED).exists(false).and(SEQUENCE).exists(false)),
+                        new Update().set(RELAYED, false), OutboxEvent.class))
+                .then();
+    }
+
+    /**
+     * Takes or renews the relay lease for {@code owner}. Emits false while another relay holds it.
+     */
+    public Mono<Boolean> acquireLease(String owner) {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(LEASE_ID)
+                .orOperator(Criteria.where("owner").is(owner), Criteria.where("until").lt(now)));
+        Update update = new Update().set("owner", owner).set("until", now.plus(outboxProperties.getLeaseDuration()));
+        return reactiveMongoTemplate.upsert(query, update, LEASE_COLLECTION)
+                .thenReturn(true)
+                // The upsert inserts a second lease document when another relay holds the lease
+                .onErrorResume(DuplicateKeyException.class, ex -> Mono.just(false));
+    }
+
+    /**
+     * The outbox events the relay hasn't numbered yet, oldest first, read from the partial {@code unrelayed} index.
+     */
+    public Flux<OutboxEvent> unrelayed(int limit) {
+        Query query = Query.query(Criteria.where(RELAYED).is(false))
+                .with(Sort.by("outboxEventId"))
+                .limit(limit);
+        return reactiveMongoTemplate.find(query, OutboxEvent.class);
+    }
+
+    /**
+     * Numbers the events in order, following the highest number handed out so far. Stops with an error when an event
+     * was numbered by another relay in the meantime, so the batch is read again on the next poll.
+     */
+    public Mono<Void> markRelayed(List<OutboxEvent> batch) {
+        Instant now = Instant.now();
+        return head().flatMap(head -> Flux.range(0, batch.size())
+                .concatMap(i -> reactiveMongoTemplate.updateFirst(
+                                Query.query(Criteria.where("outboxEventId").is(batch.get(i).getOutboxEventId()).and(RELAYED).is(false)),
+                                new Update().set(SEQUENCE, head + i + 1).set(RELAYED, true).set("relayedAt", now), OutboxEvent.class)
+                        .flatMap(result -> result.getModifiedCount() == 1 ? Mono.empty()
+                                : Mono.error(new IllegalStateException("Outbox event " + batch.get(i).getOutboxEventId()
+                                + " was relayed concurrently"))))
+                .then(reactiveMongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(LEASE_ID)),
+                        new Update().max("lastSequence", head + batch.size()), LEASE_COLLECTION))
+                .then());
+    }
+
+    /**
+     * The highest sequence number handed out, or 0 before the first one.
+     */
+    public Mono<Long> head() {
+        Query latest = new Query().with(Sort.by(Sort.Direction.DESC, SEQUENCE)).limit(1);
+        latest.addCriteria(Criteria.where(SEQUENCE).exists(true));
+        latest.fields().include(SEQUENCE);
+        Mono<Long> fromEvents = reactiveMongoTemplate.findOne(latest, OutboxEvent.class)
+                .map(OutboxEvent::getSequence)
+                .defaultIfEmpty(0L);
+        Mono<Long> fromLease = reactiveMongoTemplate.findById(LEASE_ID, Document.class, LEASE_COLLECTION)
+                .map(lease -> lease.get("lastSequence", Number.class))
+                .map(Number::longValue)
+                .defaultIfEmpty(0L);
+        return Mono.zip(fromEvents, fromLease, Math::max);
+    }
+
+    /**
+     * Whether every event after {@code after} is still in the log, i.e. a consumer can resume from there.
+     */
+    public Mono<Boolean> canResumeAfter(long after) {
+        return head().flatMap(head -> after >= head ? Mono.just(true)
+                : reactiveMongoTemplate.exists(Query.query(Criteria.where(SEQUENCE).is(after + 1)), OutboxEvent.class));
+    }
+
+    /**
+     * {@link #tail} for a consumer resuming after {@code after}. Fails with 410 when events it hasn't seen have
+     * already expired from the log; the consumer then has to rebuild its state and resume from the {@link #head}.
+     */
+    public Flux<OutboxEvent> resume(long after) {
+        return canResumeAfter(after).flatMapMany(resumable -> resumable ? tail(after)
+                : Flux.error(new ResponseStatusException(HttpStatus.GONE, "Events after " + after + " have expired from the outbox log")));
+    }
+
+    public Flux<OutboxEvent> readAfter(long after, int limit) {
+        Query query = Query.query(Criteria.where(SEQUENCE).gt(after))
+                .with(Sort.by(SEQUENCE))
+                .limit(limit);
+        return reactiveMongoTemplate.find(query, OutboxEvent.class);
+    }
+
+    /**
+     * Every event after {@code after}, then each new one as it is numbered, polling every {@code pollInterval} once
+     * caught up.
+     */
+    public Flux<OutboxEvent> tail(long after) {
+        int batchSize = outboxProperties.getBatchSize();
+        AtomicLong cursor = new AtomicLong(after);
+        return Flux.defer(() -> readAfter(cursor.get(), batchSize).collectList())
+                .repeatWhen(rounds -> rounds.delayElements(outboxProperties.getPollInterval()))
+                .concatMap(batch -> {
+                    if (!batch.isEmpty()) {
+                        cursor.set(batch.get(batch.size() - 1).getSequence());
+                    }
+                    return Flux.fromIterable(batch);
+                });
+    }
+}
@@ -0,0 +1,9 @@
+package com.reactive.outbox;
+
+/**
+ * In-process consumer of the {@link OutboxLog}, fed by the {@link OutboxTail} of the replica it runs on.
+ */
+public interface OutboxLogListener {
+
+    void onRelayed(OutboxEvent event);
+}
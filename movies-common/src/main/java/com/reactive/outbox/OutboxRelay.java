@@ -0,0 +1,88 @@
+package com.reactive.outbox;
+
+import com.reactive.config.OutboxProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Polls the outbox and hands new events to every {@link OutboxEventSink} in batches, oldest first, then numbers them
+ * in the {@link OutboxLog}, where consumers read them. Only the replica holding the relay lease relays. Events are
+ * numbered only after all sinks accepted the batch, so delivery to the sinks is at-least-once and they must tolerate
+ * duplicates. Log consumers see each event exactly once per sequence number.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private final OutboxLog outboxLog;
+    private final List<OutboxEventSink> outboxEventSinks;
+    private final OutboxProperties outboxProperties;
+
+    private final String owner = UUID.randomUUID().toString();
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+
+        if (!outboxProperties.isRelayEnabled()) {
+            return;
+        }
+
+        subscription = outboxLog.ensureIndexes()
+                .doOnError(ex -> log.warn("Could not create the outbox log indexes: {}", ex.getMessage()))
+                .onErrorResume(ex -> Mono.empty())
+                .thenMany(Flux.interval(outboxProperties.getPollInterval()))
+                .onBackpressureDrop()
+                .concatMap(tick -> drain(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Relays batches until the outbox is empty, returning the number of relayed events. Relays nothing while another
+     * replica holds the lease. The lease is renewed before every batch, so a batch must take less than
+     * {@code leaseDuration}.
+     */
+    public Mono<Long> drain() {
+
+        int batchSize = outboxProperties.getBatchSize();
+
+        return relayBatch(batchSize)
+                .expand(relayed -> relayed == batchSize ? relayBatch(batchSize) : Mono.empty())
+                .reduce(0L, Long::sum)
+                .onErrorResume(ex -> {
+                    log.error("Outbox relay failed, retrying on the next poll: {}", ex.getMessage(), ex);
+                    return Mono.just(0L);
+                });
+    }
+
+    private Mono<Integer> relayBatch(int batchSize) {
+
+        return outboxLog.acquireLease(owner)
+                .flatMap(leader -> !leader ? Mono.just(0) : outboxLog.unrelayed(batchSize)
+                        .collectList()
+                        .flatMap(batch -> batch.isEmpty()
+                                ? Mono.just(0)
+                                : Flux.fromIterable(outboxEventSinks)
+                                .concatMap(sink -> sink.publish(batch))
+                                .then(Mono.defer(() -> outboxLog.markRelayed(batch)))
+                                .thenReturn(batch.size())));
+    }
+}
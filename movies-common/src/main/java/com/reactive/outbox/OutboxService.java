@@ -0,0 +1,56 @@
+package com.reactive.outbox;
+
+import com.mongodb.MongoException;
+import com.reactive.config.OutboxProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final OutboxProperties outboxProperties;
+
+    public Mono<OutboxEvent> record(String aggregateType, String aggregateId, String type, Object payload) {
+
+        return outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .type(type)
+                .payload(payload)
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Runs an entity write and its {@link #record} calls in one Mongo transaction. Transactions need a replica set,
+     * so they can be switched off for standalone servers, at the cost of losing an event if the process dies
+     * between the two writes.
+     * <p>
+     * A transaction aborted by a transient error, e.g. a write conflict with a concurrent transaction, is run again
+     * from the start, so {@code write} must be safe to subscribe to more than once.
+     */
+    public <T> Mono<T> transactional(Mono<T> write) {
+        return outboxProperties.isTransactional()
+                ? transactionalOperator.transactional(write)
+                        .retryWhen(Retry.max(outboxProperties.getTransactionRetries()).filter(OutboxService::isTransient))
+                : write;
+    }
+
+    private static boolean isTransient(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException
+                    && ((MongoException) cause).hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
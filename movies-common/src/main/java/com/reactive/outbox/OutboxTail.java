@@ -0,0 +1,60 @@
+package com.reactive.outbox;
+
+import com.reactive.config.OutboxProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Follows the {@link OutboxLog} on every replica and hands each relayed event to the local
+ * {@link OutboxLogListener}s, whichever replica relayed it. It starts at the head of the log, so in-process state
+ * built before startup has to be loaded by its owner. After a failure it resumes after the last event it handed on.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxTail {
+
+    private final OutboxLog outboxLog;
+    private final List<OutboxLogListener> outboxLogListeners;
+    private final OutboxProperties outboxProperties;
+
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+
+        if (!outboxProperties.isTailEnabled()) {
+            return;
+        }
+
+        AtomicLong cursor = new AtomicLong(-1);
+        subscription = Mono.defer(() -> cursor.get() < 0 ? outboxLog.head() : Mono.just(cursor.get()))
+                .flatMapMany(outboxLog::tail)
+                .doOnNext(event -> {
+                    cursor.set(event.getSequence());
+                    outboxLogListeners.forEach(listener -> listener.onRelayed(event));
+                })
+                .doOnError(ex -> log.warn("Outbox tail failed, resuming after {}: {}", cursor.get(), ex.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.reactive.test.unit;
+
+import com.reactive.blocking.BlockingScheduler;
+import com.reactive.config.BlockingExecutionProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlockingSchedulerTest {
+
+    private BlockingScheduler blockingScheduler;
+
+    @AfterEach
+    void tearDown() {
+        blockingScheduler.destroy();
+    }
+
+    @ParameterizedTest
+    @EnumSource(BlockingExecutionProperties.Mode.class)
+    void blockingCallIsMovedOffNonBlockingThreads(BlockingExecutionProperties.Mode mode) {
+
+        BlockingExecutionProperties properties = new BlockingExecutionProperties();
+        properties.setMode(mode);
+        blockingScheduler = new BlockingScheduler(properties);
+
+        Mono<Thread> executingThread = Mono.just(1)
+                .publishOn(Schedulers.parallel())
+                .flatMap(i -> blockingScheduler.call(() -> {
+                    Thread.sleep(10);
+                    return Thread.currentThread();
+                }));
+
+        StepVerifier.create(executingThread)
+                .assertNext(thread -> assertThat(BlockingScheduler.isEventLoopThread(thread)).isFalse())
+                .verifyComplete();
+
+        BlockingScheduler.Stats stats = blockingScheduler.stats();
+        assertThat(stats.getSubmitted()).isEqualTo(1);
+        assertThat(stats.getCompleted()).isEqualTo(1);
+        assertThat(stats.getActive()).isZero();
+        assertThat(stats.getFromEventLoop()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(BlockingExecutionProperties.Mode.class)
+    void virtualThreadsAreUsedOnlyWhereTheJvmHasThem(BlockingExecutionProperties.Mode mode) throws Exception {
+
+        BlockingExecutionProperties properties = new BlockingExecutionProperties();
+        properties.setMode(mode);
+        blockingScheduler = new BlockingScheduler(properties);
+
+        boolean virtualThreads = mode == BlockingExecutionProperties.Mode.VIRTUAL_THREADS && Runtime.version().feature() >= 21;
+        assertThat(blockingScheduler.stats().getScheduler()).isEqualTo(virtualThreads ? "virtual-threads" : "bounded-elastic");
+        Thread thread = blockingScheduler.call(Thread::currentThread).block();
+        if (virtualThreads) {
+            assertThat(Thread.class.getMethod("isVirtual").invoke(thread)).isEqualTo(true);
+        } else {
+            assertThat(thread.getName()).startsWith("boundedElastic-");
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(BlockingExecutionProperties.Mode.class)
+    void failedCallIsCounted(BlockingExecutionProperties.Mode mode) {
+
+        BlockingExecutionProperties properties = new BlockingExecutionProperties();
+        properties.setMode(mode);
+        blockingScheduler = new BlockingScheduler(properties);
+
+        StepVerifier.create(blockingScheduler.call(() -> {
+                    throw new IllegalStateException("Legacy system unavailable");
+                }))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertThat(blockingScheduler.stats().getFailed()).isEqualTo(1);
+    }
+}
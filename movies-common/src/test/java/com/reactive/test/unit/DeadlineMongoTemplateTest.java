@@ -0,0 +1,73 @@
+package com.reactive.test.unit;
+
+import com.reactive.deadline.Deadline;
+import com.reactive.deadline.DeadlineMongoTemplate;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.test.StepVerifier;
+import reactor.test.StepVerifierOptions;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class DeadlineMongoTemplateTest {
+
+    private static final String COLLECTION = "movieInfo";
+
+    private final ReactiveMongoDatabaseFactory databaseFactory = mock(ReactiveMongoDatabaseFactory.class);
+    private final DeadlineMongoTemplate template = new DeadlineMongoTemplate(databaseFactory, converter());
+
+    private final StepVerifierOptions expired = StepVerifierOptions.create()
+            .withInitialContext(Context.of(Deadline.class, Deadline.after(Duration.ZERO)));
+
+    @Test
+    void operationsWithoutQueryOptionsAreNotSentAfterTheDeadline() {
+
+        Query byName = Query.query(Criteria.where("name").is("Batman Begins"));
+        Update update = new Update().set("year", 2005);
+
+        for (Publisher<?> operation : List.of(
+                template.upsert(byName, update, COLLECTION),
+                template.updateMulti(byName, update, COLLECTION),
+                template.remove(byName, COLLECTION),
+                template.findAndModify(byName, update, Document.class, COLLECTION),
+                template.findAndRemove(byName, Document.class, COLLECTION),
+                template.findDistinct(byName, "year", COLLECTION, Document.class, Integer.class))) {
+
+            StepVerifier.create(operation, expired)
+                    .expectErrorSatisfies(ex -> assertThat(((ResponseStatusException) ex).getStatus()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT))
+                    .verify();
+        }
+        verify(databaseFactory, never()).getMongoDatabase();
+        verify(databaseFactory, never()).getMongoDatabase(any());
+    }
+
+    private static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -0,0 +1,67 @@
+package com.reactive.test.unit;
+
+import com.reactive.config.DeadlineProperties;
+import com.reactive.deadline.Deadline;
+import com.reactive.deadline.DeadlineWebFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.handler.ResponseStatusExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlineWebFilterTest {
+
+    // Renders the status of a ResponseStatusException, as the WebFlux exception handlers do in the application
+    private static final WebFilter ERROR_STATUS = (exchange, chain) -> chain.filter(exchange)
+            .onErrorResume(ex -> new ResponseStatusExceptionHandler().handle(exchange, ex));
+
+    private final DeadlineProperties properties = new DeadlineProperties();
+    private final List<Optional<Deadline>> seen = new ArrayList<>();
+    private final WebTestClient webTestClient = WebTestClient
+            .bindToWebHandler(exchange -> Mono.deferContextual(context -> {
+                seen.add(Deadline.current(context));
+                return Mono.delay(Duration.ofMillis(500)).then();
+            }))
+            .webFilter(ERROR_STATUS, new DeadlineWebFilter(properties))
+            .build();
+
+    @Test
+    void requestsWithoutADeadlineAreNotBounded() {
+
+        webTestClient.get().uri("/v1/movieinfos").exchange().expectStatus().isOk();
+
+        assertThat(seen).containsExactly(Optional.empty());
+    }
+
+    @Test
+    void deadlineIsCappedAndPutIntoTheContext() {
+
+        properties.setMaxTimeout(Duration.ofSeconds(2));
+
+        webTestClient.get().uri("/v1/movieinfos").header(Deadline.HEADER, "60000").exchange().expectStatus().isOk();
+
+        assertThat(seen.get(0)).get().extracting(Deadline::remaining)
+                .matches(remaining -> remaining.compareTo(Duration.ofSeconds(2)) <= 0);
+    }
+
+    @Test
+    void expiredRequestsAreCancelled() {
+
+        webTestClient.get().uri("/v1/movieinfos").header(Deadline.HEADER, "100").exchange()
+                .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        webTestClient.get().uri("/v1/movieinfos").header(Deadline.HEADER, "0").exchange()
+                .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        webTestClient.get().uri("/v1/movieinfos").header(Deadline.HEADER, "-1").exchange()
+                .expectStatus().isBadRequest();
+
+        assertThat(seen).hasSize(1);
+    }
+}
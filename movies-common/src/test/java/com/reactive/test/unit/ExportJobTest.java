@@ -0,0 +1,67 @@
+package com.reactive.test.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.blocking.BlockingScheduler;
+import com.reactive.config.BlockingExecutionProperties;
+import com.reactive.config.ExportProperties;
+import com.reactive.export.ExportJob;
+import com.reactive.export.ExportResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExportJobTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void secondExportWithTheSameNameIsRejectedWhileTheFirstRuns() {
+
+        Sinks.Many<Map> rows = Sinks.many().unicast().onBackpressureBuffer();
+        ReactiveMongoTemplate reactiveMongoTemplateMock = mock(ReactiveMongoTemplate.class);
+        when(reactiveMongoTemplateMock.find(any(Query.class), eq(Map.class))).thenReturn(rows.asFlux(), Flux.empty());
+
+        ExportProperties exportProperties = new ExportProperties();
+        exportProperties.setDirectory(directory.toString());
+        ExportJob exportJob = new ExportJob(reactiveMongoTemplateMock, new ObjectMapper(),
+                new BlockingScheduler(new BlockingExecutionProperties()), exportProperties);
+
+        Sinks.One<ExportResult> first = Sinks.one();
+        Disposable running = exportJob.export("movieinfos", Map.class, "_id", row -> String.valueOf(row.get("_id")), false)
+                .subscribe(first::tryEmitValue);
+
+        StepVerifier.create(exportJob.export("movieinfos", Map.class, "_id", row -> String.valueOf(row.get("_id")), false))
+                .expectErrorSatisfies(ex -> assertThat(((ResponseStatusException) ex).getStatus()).isEqualTo(HttpStatus.CONFLICT))
+                .verify(Duration.ofSeconds(5));
+
+        rows.tryEmitNext(Map.of("_id", "1"));
+        rows.tryEmitComplete();
+        StepVerifier.create(first.asMono())
+                .assertNext(result -> assertThat(result.getRows()).isEqualTo(1))
+                .verifyComplete();
+        running.dispose();
+
+        // Once the first finished, the name is free again
+        StepVerifier.create(exportJob.export("movieinfos", Map.class, "_id", row -> String.valueOf(row.get("_id")), false))
+                .assertNext(result -> assertThat(result.getRows()).isZero())
+                .verifyComplete();
+    }
+}
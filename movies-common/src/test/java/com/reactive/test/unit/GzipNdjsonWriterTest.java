@@ -0,0 +1,64 @@
+package com.reactive.test.unit;
+
+import com.reactive.export.GzipNdjsonWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GzipNdjsonWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void chunksFormOneGzipFile() throws IOException {
+
+        Path file = directory.resolve("movieinfos.ndjson.gz");
+        try (GzipNdjsonWriter writer = GzipNdjsonWriter.open(file, 0)) {
+            writer.writeChunk(lines("{\"name\":\"Batman Begins\"}", "{\"name\":\"The Dark Knight\"}")).block();
+            writer.writeChunk(lines("{\"name\":\"Dark Knight Rises\"}")).block();
+        }
+
+        assertThat(readLines(file)).containsExactly(
+                "{\"name\":\"Batman Begins\"}", "{\"name\":\"The Dark Knight\"}", "{\"name\":\"Dark Knight Rises\"}");
+    }
+
+    @Test
+    void resumeDropsEverythingAfterTheCheckpoint() throws IOException {
+
+        Path file = directory.resolve("movieinfos.ndjson.gz");
+        long checkpoint;
+        try (GzipNdjsonWriter writer = GzipNdjsonWriter.open(file, 0)) {
+            checkpoint = writer.writeChunk(lines("{\"name\":\"Batman Begins\"}")).block();
+            writer.writeChunk(lines("{\"name\":\"Unfinished chunk\"}")).block();
+        }
+
+        try (GzipNdjsonWriter writer = GzipNdjsonWriter.open(file, checkpoint)) {
+            writer.writeChunk(lines("{\"name\":\"The Dark Knight\"}")).block();
+        }
+
+        assertThat(readLines(file)).containsExactly("{\"name\":\"Batman Begins\"}", "{\"name\":\"The Dark Knight\"}");
+    }
+
+    private static List<byte[]> lines(String... lines) {
+        return List.of(lines).stream().map(line -> line.getBytes(StandardCharsets.UTF_8)).collect(Collectors.toList());
+    }
+
+    private static List<String> readLines(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+}
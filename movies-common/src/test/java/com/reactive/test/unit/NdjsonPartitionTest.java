@@ -0,0 +1,62 @@
+package com.reactive.test.unit;
+
+import com.reactive.importer.NdjsonPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NdjsonPartitionTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void partitionsNeverSplitALine() throws IOException {
+
+        List<String> lines = IntStream.range(0, 200)
+                .mapToObj(i -> "{\"name\":\"Movie " + i + "\",\"year\":" + (2000 + i) + "}")
+                .collect(Collectors.toList());
+        Path file = directory.resolve("movieinfos.ndjson");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        List<NdjsonPartition> partitions = NdjsonPartition.split(file, 100);
+
+        assertThat(partitions).hasSizeGreaterThan(1);
+        assertThat(partitions.get(0).getStart()).isZero();
+        assertThat(partitions.get(partitions.size() - 1).getEnd()).isEqualTo(Files.size(file));
+        for (int i = 1; i < partitions.size(); i++) {
+            assertThat(partitions.get(i).getStart()).isEqualTo(partitions.get(i - 1).getEnd());
+        }
+        assertThat(readAll(file, partitions)).containsExactlyElementsOf(lines);
+    }
+
+    @Test
+    void blankLinesAndCarriageReturnsAreSkipped() throws IOException {
+
+        Path file = directory.resolve("movieinfos.ndjson");
+        Files.write(file, "{\"name\":\"Batman Begins\"}\r\n\n  \n{\"name\":\"The Dark Knight\"}".getBytes(StandardCharsets.UTF_8));
+
+        List<NdjsonPartition> partitions = NdjsonPartition.split(file, 1024);
+
+        assertThat(partitions).hasSize(1);
+        assertThat(readAll(file, partitions)).containsExactly("{\"name\":\"Batman Begins\"}", "{\"name\":\"The Dark Knight\"}");
+    }
+
+    private static List<String> readAll(Path file, List<NdjsonPartition> partitions) {
+        List<String> read = new ArrayList<>();
+        for (NdjsonPartition partition : partitions) {
+            partition.lines(file).map(line -> new String(line, StandardCharsets.UTF_8)).doOnNext(read::add).blockLast();
+        }
+        return read;
+    }
+}
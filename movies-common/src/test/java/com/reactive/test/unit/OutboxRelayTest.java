@@ -0,0 +1,103 @@
+package com.reactive.test.unit;
+
+import com.reactive.config.OutboxProperties;
+import com.reactive.outbox.OutboxEvent;
+import com.reactive.outbox.OutboxEventSink;
+import com.reactive.outbox.OutboxLog;
+import com.reactive.outbox.OutboxRelay;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private OutboxLog outboxLogMock;
+    private List<List<OutboxEvent>> publishedBatches;
+    private OutboxProperties outboxProperties;
+
+    @BeforeEach
+    void setUp() {
+        outboxLogMock = mock(OutboxLog.class);
+        when(outboxLogMock.acquireLease(anyString())).thenReturn(Mono.just(true));
+        publishedBatches = new ArrayList<>();
+        outboxProperties = new OutboxProperties();
+        outboxProperties.setBatchSize(2);
+    }
+
+    @Test
+    void drainRelaysBatchesUntilOutboxIsEmpty() {
+
+        List<OutboxEvent> events = outboxEvents(3);
+        when(outboxLogMock.unrelayed(anyInt()))
+                .thenReturn(Flux.fromIterable(events.subList(0, 2)), Flux.fromIterable(events.subList(2, 3)));
+        when(outboxLogMock.markRelayed(anyList())).thenReturn(Mono.empty());
+
+        OutboxRelay outboxRelay = new OutboxRelay(outboxLogMock, List.of(recordingSink()), outboxProperties);
+
+        StepVerifier.create(outboxRelay.drain())
+                .expectNext(3L)
+                .verifyComplete();
+
+        assertThat(publishedBatches).hasSize(2);
+        assertThat(publishedBatches.get(0)).containsExactlyElementsOf(events.subList(0, 2));
+        assertThat(publishedBatches.get(1)).containsExactlyElementsOf(events.subList(2, 3));
+        verify(outboxLogMock).markRelayed(events.subList(0, 2));
+        verify(outboxLogMock).markRelayed(events.subList(2, 3));
+    }
+
+    @Test
+    void drainKeepsEventsWhenSinkFails() {
+
+        when(outboxLogMock.unrelayed(anyInt())).thenReturn(Flux.fromIterable(outboxEvents(2)));
+        OutboxEventSink failingSink = batch -> Mono.error(new IllegalStateException("Broker unavailable"));
+
+        OutboxRelay outboxRelay = new OutboxRelay(outboxLogMock, List.of(failingSink), outboxProperties);
+
+        StepVerifier.create(outboxRelay.drain())
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(outboxLogMock, never()).markRelayed(anyList());
+    }
+
+    @Test
+    void drainRelaysNothingWithoutTheLease() {
+
+        when(outboxLogMock.acquireLease(anyString())).thenReturn(Mono.just(false));
+
+        OutboxRelay outboxRelay = new OutboxRelay(outboxLogMock, List.of(recordingSink()), outboxProperties);
+
+        StepVerifier.create(outboxRelay.drain())
+                .expectNext(0L)
+                .verifyComplete();
+
+        assertThat(publishedBatches).isEmpty();
+        verify(outboxLogMock, never()).unrelayed(anyInt());
+    }
+
+    private OutboxEventSink recordingSink() {
+        return batch -> Mono.fromRunnable(() -> publishedBatches.add(batch));
+    }
+
+    private static List<OutboxEvent> outboxEvents(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> OutboxEvent.builder().outboxEventId("event-" + i).type("CREATED").build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,123 @@
+package com.reactive.cache;
+
+import com.reactive.config.CacheProperties;
+import com.reactive.dao.model.MovieInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Caches whole movie info documents by id, and the ids of each year for the by-year listing. Without a
+ * {@link DistributedCache} bean ({@code movies-info.cache.enabled=false}) every call goes straight to the loader.
+ * Invalidations, local or from another instance, also drop the encoded response in {@link MovieInfoResponseCache}.
+ */
+@Slf4j
+@Component
+public class MovieInfoCache implements DisposableBean {
+
+    private static final String KEY_PREFIX = "movies-info:movieinfo:";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final MovieInfoResponseCache responseCache;
+    private final EntityCache<MovieInfo> entityCache;
+    private final Disposable remoteInvalidations;
+
+    public MovieInfoCache(ReactiveMongoTemplate reactiveMongoTemplate, ObjectProvider<DistributedCache> distributedCache,
+                          CacheProperties cacheProperties, MovieInfoResponseCache responseCache) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.responseCache = responseCache;
+        DistributedCache cache = distributedCache.getIfAvailable();
+        this.entityCache = cache == null ? null : new EntityCache<>(KEY_PREFIX, cache, new MovieInfoCodec(),
+                MovieInfo::getMovieInfoId, cacheProperties.getTtl(), cacheProperties.getNearCacheSize(),
+                cacheProperties.getNearCacheTtl());
+        this.remoteInvalidations = cache == null ? null : cache.subscribe(KEY_PREFIX + "invalidations")
+                .subscribe(message -> {
+                    for (String key : message.split("\n")) {
+                        responseCache.invalidate(key.substring(KEY_PREFIX.length()));
+                    }
+                }, ex -> log.warn("Response cache invalidation subscription failed: {}", ex.getMessage()));
+    }
+
+    public boolean isEnabled() {
+        return entityCache != null;
+    }
+
+    public Mono<MovieInfo> findById(String movieInfoId, Function<String, Mono<MovieInfo>> loader) {
+        return entityCache == null ? loader.apply(movieInfoId) : entityCache.get(movieInfoId, loader);
+    }
+
+    /**
+     * Looks up every id in the cache first and hands only the misses to {@code loader}, in one call. The results follow
+     * the order of {@code movieInfoIds}, and unknown ids are left out.
+     */
+    public Flux<MovieInfo> findAllById(List<String> movieInfoIds, Function<Collection<String>, Flux<MovieInfo>> loader) {
+        return entityCache == null ? loader.apply(movieInfoIds) : entityCache.getAll(movieInfoIds, loader);
+    }
+
+    public Flux<MovieInfo> findByYear(Integer year, Function<Integer, Flux<MovieInfo>> loader) {
+
+        if (entityCache == null) {
+            return loader.apply(year);
+        }
+
+        Query ids = Query.query(Criteria.where("year").is(year));
+        ids.fields().include("movieInfoId");
+
+        // A movie moved to another year is still listed under the old one until that entry expires, so filter it out
+        return entityCache.getIds(yearKey(year), () -> reactiveMongoTemplate.find(ids, MovieInfo.class).map(MovieInfo::getMovieInfoId))
+                .flatMapMany(movieInfoIds -> entityCache.getAll(movieInfoIds, this::findAllById))
+                .filter(movieInfo -> year.equals(movieInfo.getYear()));
+    }
+
+    /**
+     * Drops the movie info, and the year listing it appears in, on every instance.
+     */
+    public Mono<Void> invalidate(MovieInfo movieInfo) {
+        List<String> keys = new ArrayList<>();
+        keys.add(movieInfo.getMovieInfoId());
+        if (movieInfo.getYear() != null) {
+            keys.add(yearKey(movieInfo.getYear()));
+        }
+        return invalidate(movieInfo.getMovieInfoId(), keys);
+    }
+
+    public Mono<Void> invalidate(String movieInfoId) {
+        return invalidate(movieInfoId, List.of(movieInfoId));
+    }
+
+    @Override
+    public void destroy() {
+        if (entityCache != null) {
+            entityCache.dispose();
+            remoteInvalidations.dispose();
+        }
+    }
+
+    // Deferred, so that a caller chaining this after a write drops its cached copies only once the write is done
+    private Mono<Void> invalidate(String movieInfoId, List<String> keys) {
+        return Mono.defer(() -> {
+            responseCache.invalidate(movieInfoId);
+            return entityCache == null ? Mono.<Void>empty() : entityCache.invalidate(keys);
+        });
+    }
+
+    private Flux<MovieInfo> findAllById(Collection<String> movieInfoIds) {
+        return reactiveMongoTemplate.find(Query.query(Criteria.where("movieInfoId").in(movieInfoIds)), MovieInfo.class);
+    }
+
+    private static String yearKey(Integer year) {
+        return "year:" + year;
+    }
+}
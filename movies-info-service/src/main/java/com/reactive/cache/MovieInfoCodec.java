@@ -0,0 +1,67 @@
+package com.reactive.cache;
+
+import com.reactive.dao.model.MovieInfo;
+import com.reactive.dao.model.ReviewSnapshot;
+import com.reactive.dao.model.ReviewSummary;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MovieInfoCodec extends BinaryCodec<MovieInfo> {
+
+    @Override
+    protected int version() {
+        return 2;
+    }
+
+    @Override
+    protected void write(DataOutputStream out, MovieInfo movieInfo) throws IOException {
+        writeString(out, movieInfo.getMovieInfoId());
+        writeString(out, movieInfo.getName());
+        writeLong(out, movieInfo.getYear() == null ? null : movieInfo.getYear().longValue());
+        writeStrings(out, movieInfo.getCast());
+        writeLong(out, movieInfo.getReleaseDate() == null ? null : movieInfo.getReleaseDate().toEpochDay());
+
+        ReviewSnapshot topReviews = movieInfo.getTopReviews();
+        out.writeBoolean(topReviews != null);
+        if (topReviews != null) {
+            List<ReviewSummary> latest = topReviews.getLatest();
+            out.writeInt(latest == null ? -1 : latest.size());
+            if (latest != null) {
+                for (ReviewSummary summary : latest) {
+                    writeString(out, summary.getReviewId());
+                    writeString(out, summary.getComment());
+                    writeDouble(out, summary.getRating());
+                }
+            }
+            writeLong(out, topReviews.getCount());
+            writeDouble(out, topReviews.getRatingSum());
+        }
+    }
+
+    @Override
+    protected MovieInfo read(DataInputStream in) throws IOException {
+        MovieInfo movieInfo = new MovieInfo();
+        movieInfo.setMovieInfoId(readString(in));
+        movieInfo.setName(readString(in));
+        Long year = readLong(in);
+        movieInfo.setYear(year == null ? null : year.intValue());
+        movieInfo.setCast(readStrings(in));
+        Long releaseDate = readLong(in);
+        movieInfo.setReleaseDate(releaseDate == null ? null : LocalDate.ofEpochDay(releaseDate));
+
+        if (in.readBoolean()) {
+            int size = in.readInt();
+            List<ReviewSummary> latest = size < 0 ? null : new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                latest.add(new ReviewSummary(readString(in), readString(in), readDouble(in)));
+            }
+            movieInfo.setTopReviews(new ReviewSnapshot(latest, readLong(in), readDouble(in)));
+        }
+        return movieInfo;
+    }
+}
@@ -0,0 +1,239 @@
+package com.reactive.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.config.ResponseCacheProperties;
+import com.reactive.dao.model.MovieInfo;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the encoded JSON of single movie info responses, so a hot movie info is serialized once rather than on
+ * every request. Each entry holds the JSON, a gzipped copy for larger responses, and an ETag computed from the JSON.
+ * The bytes sit in pooled direct buffers. A response writes a retained duplicate of those buffers straight to the
+ * channel, with no copy and no re-encoding. Netty releases the duplicate once it is written.
+ * <p>
+ * The cache owns one reference per buffer and releases it on eviction. Responses still being written keep the
+ * memory alive until they finish. Entries are dropped through {@link MovieInfoCache#invalidate} on every write. An
+ * entry loaded while any invalidation ran is not stored, so a read racing a write can't cache the old document.
+ */
+@Component
+public class MovieInfoResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final ResponseCacheProperties properties;
+    private final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(allocator);
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong invalidations = new AtomicLong();
+    private long size;
+
+    public MovieInfoResponseCache(ObjectMapper objectMapper, ResponseCacheProperties properties) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Answers {@code GET /v1/movieinfos/{movieInfoId}} from the cache, loading and encoding the movie info on a miss.
+     * Completes empty if the loader does.
+     */
+    public Mono<ResponseEntity<Object>> get(String movieInfoId, ServerHttpRequest request,
+                                            Function<String, Mono<MovieInfo>> loader) {
+
+        boolean gzip = acceptsGzip(request);
+        String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        Lease cached = lease(movieInfoId, gzip, ifNoneMatch);
+        if (cached != null) {
+            return Mono.just(cached.toResponse());
+        }
+
+        long invalidationsBefore = invalidations.get();
+        return loader.apply(movieInfoId)
+                .map(movieInfo -> {
+                    Entry entry = encode(movieInfo);
+                    Lease lease = entry.lease(gzip, ifNoneMatch);
+                    store(movieInfoId, entry, invalidationsBefore);
+                    return lease.toResponse();
+                });
+    }
+
+    public void invalidate(String movieInfoId) {
+        invalidations.incrementAndGet();
+        synchronized (entries) {
+            Entry entry = entries.remove(movieInfoId);
+            if (entry != null) {
+                evicted(entry);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void clear() {
+        synchronized (entries) {
+            entries.values().forEach(this::evicted);
+            entries.clear();
+        }
+    }
+
+    private Lease lease(String movieInfoId, boolean gzip, String ifNoneMatch) {
+        // Leasing under the lock keeps an eviction from releasing the buffers between the lookup and the retain
+        synchronized (entries) {
+            Entry entry = entries.get(movieInfoId);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(movieInfoId);
+                evicted(entry);
+                return null;
+            }
+            return entry.lease(gzip, ifNoneMatch);
+        }
+    }
+
+    private void store(String movieInfoId, Entry entry, long invalidationsBefore) {
+        synchronized (entries) {
+            if (invalidations.get() != invalidationsBefore || entry.size() > properties.getMaxSize().toBytes()) {
+                entry.release();
+                return;
+            }
+            Entry previous = entries.put(movieInfoId, entry);
+            if (previous != null) {
+                evicted(previous);
+            }
+            size += entry.size();
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > properties.getMaxEntries() || size > properties.getMaxSize().toBytes()) {
+                Entry evicted = eldest.next();
+                eldest.remove();
+                evicted(evicted);
+            }
+        }
+    }
+
+    private void evicted(Entry entry) {
+        size -= entry.size();
+        entry.release();
+    }
+
+    private Entry encode(MovieInfo movieInfo) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(movieInfo);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not encode movie info " + movieInfo.getMovieInfoId(), ex);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(json);
+        String etag = "\"" + Long.toHexString(crc.getValue()) + "\"";
+        byte[] gzipped = json.length >= properties.getCompressMinSize().toBytes() ? gzip(json) : null;
+        return new Entry(etag, direct(json), gzipped == null ? null : direct(gzipped),
+                System.currentTimeMillis() + properties.getTtl().toMillis());
+    }
+
+    private ByteBuf direct(byte[] bytes) {
+        return allocator.directBuffer(bytes.length, bytes.length).writeBytes(bytes);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean acceptsGzip(ServerHttpRequest request) {
+        return request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING).stream()
+                .anyMatch(value -> value.toLowerCase().contains("gzip"));
+    }
+
+    private class Entry {
+
+        final String etag;
+        final ByteBuf json;
+        final ByteBuf gzipped;
+        final long expiresAt;
+
+        Entry(String etag, ByteBuf json, ByteBuf gzipped, long expiresAt) {
+            this.etag = etag;
+            this.json = json;
+            this.gzipped = gzipped;
+            this.expiresAt = expiresAt;
+        }
+
+        Lease lease(boolean gzip, String ifNoneMatch) {
+            if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+                return new Lease(etag, null, false);
+            }
+            boolean compressed = gzip && gzipped != null;
+            return new Lease(etag, (compressed ? gzipped : json).retainedDuplicate(), compressed);
+        }
+
+        long size() {
+            return json.capacity() + (gzipped == null ? 0 : gzipped.capacity());
+        }
+
+        void release() {
+            json.release();
+            if (gzipped != null) {
+                gzipped.release();
+            }
+        }
+    }
+
+    private class Lease {
+
+        final String etag;
+        final ByteBuf body;
+        final boolean gzipped;
+
+        Lease(String etag, ByteBuf body, boolean gzipped) {
+            this.etag = etag;
+            this.body = body;
+            this.gzipped = gzipped;
+        }
+
+        ResponseEntity<Object> toResponse() {
+            if (body == null) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(etag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .contentLength(body.readableBytes())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzipped) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(bufferFactory.wrap(body));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.reactive.config;
+
+import com.reactive.cache.InMemoryDistributedCache;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "movies-info.cache")
+public class CacheProperties {
+
+    private boolean enabled = false;
+    private Duration ttl = Duration.ofMinutes(10);
+    private int nearCacheSize = 10_000;
+    private Duration nearCacheTtl = Duration.ofSeconds(30);
+    /**
+     * Entries the embedded shared cache holds when no shared cache server is configured.
+     */
+    private int embeddedMaxEntries = InMemoryDistributedCache.DEFAULT_MAX_ENTRIES;
+}
@@ -0,0 +1,53 @@
+package com.reactive.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.blocking.BlockingScheduler;
+import com.reactive.outbox.FileOutboxEventSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the properties of the shared infrastructure in movies-common under this service's {@code movies-info} prefix.
+ */
+@Configuration(proxyBeanMethods = false)
+public class CommonConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "movies-info.outbox")
+    public OutboxProperties outboxProperties() {
+        return new OutboxProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "movies-info.blocking")
+    public BlockingExecutionProperties blockingExecutionProperties() {
+        return new BlockingExecutionProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "movies-info.deadline")
+    public DeadlineProperties deadlineProperties() {
+        return new DeadlineProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "movies-info.export")
+    public ExportProperties exportProperties() {
+        return new ExportProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "movies-info.import")
+    public ImportProperties importProperties() {
+        return new ImportProperties();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "movies-info.outbox.file", name = "enabled", havingValue = "true")
+    public FileOutboxEventSink fileOutboxEventSink(ObjectMapper objectMapper, OutboxProperties outboxProperties,
+                                                   BlockingScheduler blockingScheduler) {
+        return new FileOutboxEventSink(objectMapper, outboxProperties, blockingScheduler);
+    }
+}
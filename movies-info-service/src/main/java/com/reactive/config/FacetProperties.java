@@ -0,0 +1,18 @@
+package com.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "movies-info.facets")
+public class FacetProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Cast members reported in the cast facet of a search.
+     */
+    private int castFacetSize = 20;
+
+    private int maxPageSize = 100;
+}
@@ -0,0 +1,30 @@
+package com.reactive.config;
+
+import com.reactive.deadline.DeadlineMongoTemplate;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+@Configuration(proxyBeanMethods = false)
+public class MongoConfig {
+
+    /**
+     * Keeps the warm-up's connections in the pool rather than letting them be opened on the first real requests.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(WarmUpProperties warmUpProperties) {
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool.minSize(warmUpProperties.getMongoConnections()));
+    }
+
+    /**
+     * Replaces Boot's template, so every query made on behalf of a request with a deadline carries it to Mongo.
+     */
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory,
+                                                       MongoConverter mongoConverter) {
+        return new DeadlineMongoTemplate(reactiveMongoDatabaseFactory, mongoConverter);
+    }
+}
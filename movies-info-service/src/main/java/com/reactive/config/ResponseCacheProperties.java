@@ -0,0 +1,27 @@
+package com.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "movies-info.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+    private int maxEntries = 10_000;
+    /**
+     * Upper bound on the direct memory held by encoded responses, counting both encodings.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+    /**
+     * Bounds how long another instance's write can go unseen when there is no shared cache to carry invalidations.
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+    /**
+     * Responses at least this large are also kept gzipped, for clients that accept it.
+     */
+    private DataSize compressMinSize = DataSize.ofKilobytes(1);
+}
@@ -0,0 +1,21 @@
+package com.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "movies-info.review-snapshot")
+public class ReviewSnapshotProperties {
+
+    private boolean enabled = false;
+    private int size = 5;
+    private String reviewServiceUrl = "http://localhost:8081";
+    /**
+     * How many movies' reviews are requested at a time when the snapshots are rebuilt.
+     */
+    private int resyncBatchSize = 100;
+    /**
+     * How often a review event that failed to apply is retried before the stream is reconnected from the cursor.
+     */
+    private int applyRetries = 3;
+}
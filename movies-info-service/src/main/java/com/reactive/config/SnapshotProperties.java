@@ -0,0 +1,28 @@
+package com.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "movies-info.snapshot")
+public class SnapshotProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Tails a Mongo change stream (needs a replica set) instead of the relayed outbox events.
+     */
+    private boolean changeStream = false;
+
+    /**
+     * Full reload from the database, which also repairs any change the tail missed.
+     */
+    private Duration refreshInterval = Duration.ofMinutes(10);
+
+    /**
+     * Changes held outside the compact store before it is rebuilt with them.
+     */
+    private int compactThreshold = 1024;
+}
@@ -0,0 +1,23 @@
+package com.reactive.config;
+
+import com.reactive.sse.OverflowPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "movies-info.sse")
+public class SseProperties {
+
+    /**
+     * Events buffered per connection before the overflow policy applies.
+     */
+    private int bufferSize = 256;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.COALESCE;
+    private Duration heartbeat = Duration.ofSeconds(15);
+    /**
+     * Recent events kept for clients that reconnect with a Last-Event-ID.
+     */
+    private int replaySize = 1024;
+}
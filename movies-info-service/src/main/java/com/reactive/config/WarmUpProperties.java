@@ -0,0 +1,21 @@
+package com.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "movies-info.warm-up")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+    private int mongoConnections = 10;
+    private List<String> hotMovieInfoIds = new ArrayList<>();
+    private int hotMovieInfoCount = 100;
+    private int iterations = 200;
+    private int concurrency = 8;
+    private Duration timeout = Duration.ofSeconds(30);
+}
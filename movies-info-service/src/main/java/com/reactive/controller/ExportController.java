@@ -0,0 +1,24 @@
+package com.reactive.controller;
+
+import com.reactive.dao.model.MovieInfo;
+import com.reactive.export.ExportJob;
+import com.reactive.export.ExportResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/v1/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportJob exportJob;
+
+    @PostMapping("/movieinfos")
+    public Mono<ExportResult> exportMovieInfos(@RequestParam(value = "resume", defaultValue = "false") boolean resume) {
+        return exportJob.export("movieinfos", MovieInfo.class, "movieInfoId", MovieInfo::getMovieInfoId, resume);
+    }
+}
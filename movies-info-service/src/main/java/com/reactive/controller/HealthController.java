@@ -0,0 +1,43 @@
+package com.reactive.controller;
+
+import com.reactive.warmup.WarmUpRunner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Liveness and readiness probes. Readiness stays down until the application accepts traffic and the warm-up
+ * has finished.
+ */
+@RestController
+@RequestMapping("/health")
+@RequiredArgsConstructor
+public class HealthController {
+
+    private final ApplicationAvailability applicationAvailability;
+    private final WarmUpRunner warmUpRunner;
+
+    @GetMapping("/liveness")
+    public ResponseEntity<Map<String, String>> liveness() {
+        return probe(applicationAvailability.getLivenessState() == LivenessState.CORRECT);
+    }
+
+    @GetMapping("/readiness")
+    public ResponseEntity<Map<String, String>> readiness() {
+        return probe(applicationAvailability.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC && warmUpRunner.isComplete());
+    }
+
+    private static ResponseEntity<Map<String, String>> probe(boolean up) {
+        return up
+                ? ResponseEntity.ok(Map.of("status", "UP"))
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("status", "OUT_OF_SERVICE"));
+    }
+}
@@ -0,0 +1,26 @@
+package com.reactive.controller;
+
+import com.reactive.importer.ImportJob;
+import com.reactive.importer.ImportResult;
+import com.reactive.importer.MovieInfoImportTarget;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/v1/import")
+@RequiredArgsConstructor
+public class ImportController {
+
+    private final ImportJob importJob;
+    private final MovieInfoImportTarget movieInfoImportTarget;
+
+    @PostMapping("/movieinfos")
+    public Mono<ImportResult> importMovieInfos(@RequestParam(value = "file", defaultValue = "movieinfos.ndjson") String file,
+                                               @RequestParam(value = "resume", defaultValue = "false") boolean resume) {
+        return importJob.importFile(file, movieInfoImportTarget, resume);
+    }
+}
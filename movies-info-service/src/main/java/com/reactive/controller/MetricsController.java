@@ -0,0 +1,30 @@
+package com.reactive.controller;
+
+import com.reactive.blocking.BlockingScheduler;
+import com.reactive.event.MovieInfoSseStream;
+import com.reactive.sse.SseConnectionStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final BlockingScheduler blockingScheduler;
+    private final MovieInfoSseStream movieInfoSseStream;
+
+    @GetMapping("/blocking")
+    public Mono<BlockingScheduler.Stats> blocking() {
+        return Mono.fromSupplier(blockingScheduler::stats);
+    }
+
+    @GetMapping("/sse")
+    public Flux<SseConnectionStats> sse() {
+        return Flux.defer(() -> Flux.fromIterable(movieInfoSseStream.connections()));
+    }
+}
@@ -1,15 +1,25 @@
 package com.reactive.controller;
 
+import com.reactive.cache.MovieInfoResponseCache;
 import com.reactive.dao.model.MovieInfo;
+import com.reactive.event.MovieInfoEvent;
+import com.reactive.event.MovieInfoEventPublisher;
+import com.reactive.event.MovieInfoSseStream;
+import com.reactive.outbox.OutboxLog;
 import com.reactive.service.MovieInfoService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/v1")
@@ -17,6 +27,10 @@ import javax.validation.Valid;
 public class MovieInfoController {
 
     private final MovieInfoService movieInfoService;
+    private final MovieInfoEventPublisher movieInfoEventPublisher;
+    private final MovieInfoSseStream movieInfoSseStream;
+    private final MovieInfoResponseCache movieInfoResponseCache;
+    private final OutboxLog outboxLog;
 
     @PostMapping("/movieinfos")
     @ResponseStatus(HttpStatus.CREATED)
@@ -24,22 +38,100 @@ public class MovieInfoController {
         return movieInfoService.addMovieInfo(movieInfo);
     }
 
+    /**
+     * Batch import. The body (a JSON array or newline delimited JSON) is tokenized as it arrives,
+     * so each movie info is decoded, validated and saved without aggregating the whole payload.
+     */
+    @PostMapping(value = "/movieinfos/batch",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Flux<MovieInfo> addMovieInfos(@RequestBody @Valid Flux<MovieInfo> movieInfos) {
+        return movieInfoService.addMovieInfos(movieInfos);
+    }
+
     @GetMapping("/movieinfos")
     @ResponseStatus(HttpStatus.OK)
-    public Flux<MovieInfo> getAllMovieInfos(@RequestParam(value = "year", required = false) Integer year) {
+    public Flux<MovieInfo> getAllMovieInfos(@RequestParam(value = "ids", required = false) List<String> ids,
+                                            @RequestParam(value = "year", required = false) Integer year,
+                                            @RequestParam(value = "name", required = false) String name,
+                                            @RequestParam(value = "fields", required = false) Set<String> fields) {
 
-        Flux<MovieInfo> movieInfoFlux = null;
+        if (ids != null) {
+            return getMovieInfosByIds(ids, fields);
+        }
+        if (fields != null && !fields.isEmpty()) {
+            return movieInfoService.findMovieInfos(year, name, fields);
+        }
+        if (name != null) {
+            return movieInfoService.findMovieInfoByName(name).flux();
+        }
         if (year != null) {
             return  movieInfoService.getMovieByYear(year);
         }
         return movieInfoService.getAllMovieInfos();
     }
 
+    /**
+     * Multi-get for id lists too long for a query string, e.g. {@code ["abc", "def"]}. Same results as
+     * {@code GET /v1/movieinfos?ids=abc,def}.
+     */
+    @PostMapping("/movieinfos/lookup")
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<MovieInfo> lookupMovieInfos(@RequestBody List<String> ids,
+                                            @RequestParam(value = "fields", required = false) Set<String> fields) {
+        return getMovieInfosByIds(ids, fields);
+    }
+
+    /**
+     * Live movie info events. With {@code after}, the stream replays the outbox log from that sequence number before
+     * following it, so a consumer that stores the sequence of the last event it applied misses nothing across
+     * reconnects. It answers 410 once those events have expired from the log.
+     */
+    @GetMapping(value = "/movieinfos/events", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MovieInfoEvent> getMovieInfoEvents(@RequestParam(value = "after", required = false) Long after) {
+        if (after == null) {
+            return movieInfoEventPublisher.events();
+        }
+        return outboxLog.resume(after)
+                .concatMap(outboxEvent -> Mono.justOrEmpty(MovieInfoEvent.fromLog(outboxEvent)));
+    }
+
+    /**
+     * The sequence number of the latest event in the log, where a consumer starting from current state resumes.
+     */
+    @GetMapping("/movieinfos/events/head")
+    public Mono<Long> getMovieInfoEventsHead() {
+        return outboxLog.head();
+    }
+
+    @GetMapping(value = "/movieinfos/events/sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<MovieInfoEvent>> getMovieInfoEventStream(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return movieInfoSseStream.connect(lastEventId);
+    }
+
     @GetMapping("/movieinfos/{movieInfoId}")
     @ResponseStatus(HttpStatus.OK)
-    public Mono<ResponseEntity<MovieInfo>> getMovieInfoById(@PathVariable String movieInfoId) {
-        return movieInfoService.findMovieInfoById(movieInfoId)
-                .map(ResponseEntity::ok)
+    public Mono<ResponseEntity<Object>> getMovieInfoById(@PathVariable String movieInfoId,
+                                                         @RequestParam(value = "include", required = false) String include,
+                                                         @RequestParam(value = "fields", required = false) Set<String> fields,
+                                                         ServerHttpRequest request) {
+
+        Mono<MovieInfo> movieInfoMono;
+        if (fields != null && !fields.isEmpty()) {
+            movieInfoMono = movieInfoService.findMovieInfoById(movieInfoId, fields);
+        } else if ("reviews".equals(include)) {
+            movieInfoMono = movieInfoService.findMovieInfoWithReviewsById(movieInfoId);
+        } else if (movieInfoResponseCache.isEnabled()) {
+            // The plain lookup is the hot one: serve it from the already encoded bytes
+            return movieInfoResponseCache.get(movieInfoId, request, movieInfoService::findMovieInfoById)
+                    .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
+        } else {
+            movieInfoMono = movieInfoService.findMovieInfoById(movieInfoId);
+        }
+        return movieInfoMono
+                .<ResponseEntity<Object>>map(ResponseEntity::ok)
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
                 .log();
     }
@@ -58,4 +150,10 @@ public class MovieInfoController {
     public Mono<Void> deleteMovieInfoById(@PathVariable String movieInfoId) {
         return movieInfoService.deleteMovieById(movieInfoId);
     }
+
+    private Flux<MovieInfo> getMovieInfosByIds(List<String> ids, Set<String> fields) {
+        return fields != null && !fields.isEmpty()
+                ? movieInfoService.findMovieInfosByIds(ids, fields)
+                : movieInfoService.findMovieInfosByIds(ids);
+    }
 }
@@ -0,0 +1,28 @@
+package com.reactive.controller;
+
+import com.reactive.facet.FacetResult;
+import com.reactive.facet.MovieInfoFacets;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/v1/movieinfos/facets")
+@RequiredArgsConstructor
+public class MovieInfoFacetController {
+
+    private final MovieInfoFacets movieInfoFacets;
+
+    @GetMapping
+    public Mono<FacetResult> search(@RequestParam(value = "yearFrom", required = false) Integer yearFrom,
+                                    @RequestParam(value = "yearTo", required = false) Integer yearTo,
+                                    @RequestParam(value = "cast", required = false) String cast,
+                                    @RequestParam(value = "minRating", required = false) Double minRating,
+                                    @RequestParam(value = "offset", defaultValue = "0") int offset,
+                                    @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return movieInfoFacets.search(yearFrom, yearTo, cast, minRating, offset, limit);
+    }
+}
@@ -1,5 +1,6 @@
 package com.reactive.dao.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -34,4 +35,11 @@ public class MovieInfo {
     @NotEmpty(message = "Movie cast can't be empty")
     private List<@NotBlank(message = "Cast name can't be blank") String> cast;
     private LocalDate releaseDate;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ReviewSnapshot topReviews;
+
+    public MovieInfo(String movieInfoId, String name, Integer year, List<String> cast, LocalDate releaseDate) {
+        this(movieInfoId, name, year, cast, releaseDate, null);
+    }
 }
@@ -0,0 +1,40 @@
+package com.reactive.dao.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Denormalized copy of a movie's latest reviews and rating totals, maintained from the review service's events.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSnapshot {
+
+    private List<ReviewSummary> latest;
+    private Long count;
+    private Double ratingSum;
+    /**
+     * Sequence number of the last review event applied, which makes replayed events no-ops. Internal bookkeeping,
+     * not part of the API.
+     */
+    @JsonIgnore
+    private Long sequence;
+
+    public ReviewSnapshot(List<ReviewSummary> latest, Long count, Double ratingSum) {
+        this(latest, count, ratingSum, null);
+    }
+
+    public Double getAverageRating() {
+        if (count == null || count <= 0 || ratingSum == null) {
+            return null;
+        }
+        return ratingSum / count;
+    }
+}
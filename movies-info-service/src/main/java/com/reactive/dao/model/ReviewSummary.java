@@ -0,0 +1,17 @@
+package com.reactive.dao.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSummary {
+
+    private String reviewId;
+    private String comment;
+    private Double rating;
+}
@@ -0,0 +1,47 @@
+package com.reactive.event;
+
+import com.reactive.dao.model.MovieInfo;
+import com.reactive.outbox.OutboxEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Optional;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieInfoEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private Type type;
+    private String movieInfoId;
+    private MovieInfo movieInfo;
+    /**
+     * Position in the outbox log, set on events read back from it. Consumers resume their stream after it.
+     */
+    private Long sequence;
+
+    public static MovieInfoEvent of(Type type, MovieInfo movieInfo) {
+        return MovieInfoEvent.builder()
+                .type(type)
+                .movieInfoId(movieInfo.getMovieInfoId())
+                .movieInfo(movieInfo)
+                .build();
+    }
+
+    /**
+     * The movie info event an outbox log entry carries, with its sequence number.
+     */
+    public static Optional<MovieInfoEvent> fromLog(OutboxEvent outboxEvent) {
+        if (!(outboxEvent.getPayload() instanceof MovieInfoEvent)) {
+            return Optional.empty();
+        }
+        MovieInfoEvent event = (MovieInfoEvent) outboxEvent.getPayload();
+        event.setSequence(outboxEvent.getSequence());
+        return Optional.of(event);
+    }
+}
@@ -0,0 +1,46 @@
+package com.reactive.event;
+
+import com.reactive.config.SseProperties;
+import com.reactive.sse.SseBroadcaster;
+import com.reactive.sse.SseConnectionStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+
+/**
+ * Movie info events as a server-sent event stream. Events are coalesced by movie info id, so a slow client skips
+ * intermediate updates of the same movie but still ends up with its latest state.
+ */
+@Slf4j
+@Component
+public class MovieInfoSseStream {
+
+    private final SseBroadcaster<MovieInfoEvent> broadcaster;
+    private final Disposable subscription;
+
+    public MovieInfoSseStream(MovieInfoEventPublisher movieInfoEventPublisher, SseProperties properties) {
+        this.broadcaster = new SseBroadcaster<>("movieinfo", MovieInfoEvent::getMovieInfoId,
+                properties.getBufferSize(), properties.getOverflowPolicy(), properties.getHeartbeat(),
+                properties.getReplaySize());
+        this.subscription = movieInfoEventPublisher.events()
+                .subscribe(broadcaster::publish, ex -> log.error("Movie info SSE stream stopped", ex));
+    }
+
+    public Flux<ServerSentEvent<MovieInfoEvent>> connect(String lastEventId) {
+        return broadcaster.connect(lastEventId);
+    }
+
+    public List<SseConnectionStats> connections() {
+        return broadcaster.connections();
+    }
+
+    @PreDestroy
+    public void close() {
+        subscription.dispose();
+    }
+}
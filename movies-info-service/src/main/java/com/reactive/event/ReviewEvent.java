@@ -0,0 +1,29 @@
+package com.reactive.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A review change as published by movies-review-service.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private Type type;
+    private String reviewId;
+    private String movieInfoId;
+    private String comment;
+    private Double rating;
+    private Double previousRating;
+    /**
+     * Position in the review service's outbox log.
+     */
+    private Long sequence;
+}
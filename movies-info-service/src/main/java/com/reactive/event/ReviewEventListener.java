@@ -0,0 +1,106 @@
+package com.reactive.event;
+
+import com.reactive.config.ReviewSnapshotProperties;
+import com.reactive.service.ReviewSnapshotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Tails the review service's event stream and keeps the {@code topReviews} snapshots up to date. Events are
+ * applied one at a time so that changes to the same movie land in order. The stream is read from the review service's
+ * outbox log after a persisted cursor, which moves past each applied event, so reconnects and restarts miss nothing.
+ * An event that still fails after {@code applyRetries} attempts stops the stream without moving the cursor, and the
+ * reconnect reads it again (updates are idempotent).
+ * Without a usable cursor (first start, or a 410 once missed events expired from the log) the snapshots may have
+ * missed events, so every movie's snapshot is rebuilt from the review service as of the head of the log, and the
+ * stream resumes there.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReviewEventListener {
+
+    private static final String CURSOR = "review-snapshots";
+
+    private final WebClient.Builder webClientBuilder;
+    private final ReviewSnapshotService reviewSnapshotService;
+    private final ReviewSnapshotProperties reviewSnapshotProperties;
+    private final EventCursorStore eventCursorStore;
+
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+
+        if (!reviewSnapshotProperties.isEnabled()) {
+            return;
+        }
+
+        WebClient webClient = webClientBuilder.baseUrl(reviewSnapshotProperties.getReviewServiceUrl()).build();
+        subscription = Mono.defer(() -> eventCursorStore.get(CURSOR).switchIfEmpty(Mono.defer(() -> startFromHead(webClient))))
+                .flatMapMany(after -> webClient.get()
+                        .uri(uriBuilder -> uriBuilder.path("/v1/reviews/events").queryParam("after", after).build())
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .retrieve()
+                        .bodyToFlux(ReviewEvent.class))
+                .concatMap(event -> reviewSnapshotService.apply(event)
+                        .retryWhen(Retry.backoff(reviewSnapshotProperties.getApplyRetries(), Duration.ofMillis(200))
+                                .doBeforeRetry(signal -> log.warn("Failed to apply review event {}, retrying: {}", event,
+                                        signal.failure().getMessage())))
+                        .then(event.getSequence() == null ? Mono.empty() : eventCursorStore.advance(CURSOR, event.getSequence())))
+                .onErrorResume(WebClientResponseException.Gone.class, ex -> eventCursorStore.reset(CURSOR).then(Mono.error(ex)))
+                .doOnError(ex -> log.warn("Review event stream failed, reconnecting: {}", ex.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .repeatWhen(completed -> completed.delayElements(Duration.ofSeconds(1)))
+                .subscribe();
+    }
+
+    private Mono<Long> startFromHead(WebClient webClient) {
+        return webClient.get()
+                .uri("/v1/reviews/events/head")
+                .retrieve()
+                .bodyToMono(Long.class)
+                .doOnNext(head -> log.warn("No review event cursor, rebuilding the review snapshots as of event {}", head))
+                .flatMap(head -> reviewSnapshotService.rebuildAll(head, movieInfoIds -> reviews(webClient, movieInfoIds))
+                        .then(eventCursorStore.advance(CURSOR, head))
+                        .thenReturn(head));
+    }
+
+    // The review service only accepts reviews for ObjectId movie ids, so other ids can't have any
+    private static Flux<ReviewRecord> reviews(WebClient webClient, List<String> movieInfoIds) {
+        Object[] reviewable = movieInfoIds.stream().filter(ObjectId::isValid).toArray();
+        if (reviewable.length == 0) {
+            return Flux.empty();
+        }
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/v1/reviews")
+                        .queryParam("movieInfoId", reviewable)
+                        .queryParam("fields", "comment,rating,createdAt")
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToFlux(ReviewRecord.class);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.reactive.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A review as listed by movies-review-service, read when the {@code topReviews} snapshots are rebuilt.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewRecord {
+
+    private String reviewId;
+    private String movieInfoId;
+    private String comment;
+    private Double rating;
+    private Instant createdAt;
+}
@@ -0,0 +1,245 @@
+package com.reactive.facet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the filterable movie info fields. Every movie info gets a dense document number, and
+ * each year, cast member and whole-star rating bucket has a bitmap of the documents carrying it. A search combines
+ * bitmaps: an OR across the years of the range, then ANDs with the cast member's and the rating buckets' bitmaps.
+ * It then walks the matching documents once to count the facets from per-document values. The collection is never
+ * scanned.
+ * <p>
+ * Document numbers of removed movie infos are reused, so the bitmaps stay as dense as the catalogue. Writes take a
+ * write lock and searches a read lock.
+ */
+public class FacetIndex {
+
+    static final int RATING_BUCKETS = 11;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> documents = new HashMap<>();
+    private final Deque<Integer> freeDocuments = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final TreeMap<Integer, BitSet> years = new TreeMap<>();
+    private final Map<String, BitSet> cast = new HashMap<>();
+    private final BitSet[] ratings = new BitSet[RATING_BUCKETS];
+
+    // Per-document values, for facet counting and for clearing the postings of a replaced movie info
+    private String[] idOf = new String[64];
+    private Integer[] yearOf = new Integer[64];
+    private String[][] castOf = new String[64][];
+    private double[] ratingOf = new double[64];
+
+    public FacetIndex() {
+        Arrays.setAll(ratings, bucket -> new BitSet());
+    }
+
+    /**
+     * Adds or replaces a movie info; {@code averageRating} is null for a movie without reviews.
+     */
+    public void put(String movieInfoId, Integer year, Collection<String> castMembers, Double averageRating) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = documents.get(movieInfoId);
+            int document = existing != null ? existing : allocate(movieInfoId);
+            if (existing != null) {
+                clearPostings(document);
+            }
+            yearOf[document] = year;
+            castOf[document] = castMembers == null ? new String[0] : castMembers.stream().distinct().toArray(String[]::new);
+            ratingOf[document] = averageRating == null ? Double.NaN : averageRating;
+            if (year != null) {
+                years.computeIfAbsent(year, key -> new BitSet()).set(document);
+            }
+            for (String member : castOf[document]) {
+                cast.computeIfAbsent(member, key -> new BitSet()).set(document);
+            }
+            if (averageRating != null) {
+                ratings[bucket(averageRating)].set(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Changes only the rating of an indexed movie info; unknown ids are ignored.
+     */
+    public void updateRating(String movieInfoId, Double averageRating) {
+        lock.writeLock().lock();
+        try {
+            Integer document = documents.get(movieInfoId);
+            if (document == null) {
+                return;
+            }
+            if (!Double.isNaN(ratingOf[document])) {
+                ratings[bucket(ratingOf[document])].clear(document);
+            }
+            ratingOf[document] = averageRating == null ? Double.NaN : averageRating;
+            if (averageRating != null) {
+                ratings[bucket(averageRating)].set(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String movieInfoId) {
+        lock.writeLock().lock();
+        try {
+            Integer document = documents.remove(movieInfoId);
+            if (document == null) {
+                return;
+            }
+            clearPostings(document);
+            live.clear(document);
+            idOf[document] = null;
+            castOf[document] = null;
+            freeDocuments.push(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Movie infos matching every given filter (null filters match everything), with the page of ids
+     * {@code [offset, offset + limit)} in document order and facet counts over all matches.
+     */
+    public FacetResult search(Integer yearFrom, Integer yearTo, String castMember, Double minRating,
+                              int offset, int limit, int castFacetSize) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) live.clone();
+            if (yearFrom != null || yearTo != null) {
+                BitSet inRange = new BitSet();
+                years.subMap(yearFrom == null ? Integer.MIN_VALUE : yearFrom, true,
+                                yearTo == null ? Integer.MAX_VALUE : yearTo, true)
+                        .values().forEach(inRange::or);
+                matches.and(inRange);
+            }
+            if (castMember != null) {
+                matches.and(cast.getOrDefault(castMember, new BitSet()));
+            }
+            if (minRating != null) {
+                matches.and(ratedAtLeast(minRating));
+            }
+
+            List<String> ids = new ArrayList<>(Math.min(limit, 1024));
+            Map<Integer, Long> yearCounts = new TreeMap<>();
+            Map<Integer, Long> ratingCounts = new TreeMap<>();
+            Map<String, Long> castCounts = new HashMap<>();
+            int position = 0;
+            for (int document = matches.nextSetBit(0); document >= 0; document = matches.nextSetBit(document + 1)) {
+                if (position >= offset && ids.size() < limit) {
+                    ids.add(idOf[document]);
+                }
+                position++;
+                if (yearOf[document] != null) {
+                    yearCounts.merge(yearOf[document], 1L, Long::sum);
+                }
+                if (!Double.isNaN(ratingOf[document])) {
+                    ratingCounts.merge(bucket(ratingOf[document]), 1L, Long::sum);
+                }
+                for (String member : castOf[document]) {
+                    castCounts.merge(member, 1L, Long::sum);
+                }
+            }
+
+            Map<String, Long> topCast = new LinkedHashMap<>();
+            castCounts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(castFacetSize)
+                    .forEach(entry -> topCast.put(entry.getKey(), entry.getValue()));
+            return FacetResult.builder()
+                    .total(position)
+                    .movieInfoIds(ids)
+                    .years(yearCounts)
+                    .ratings(ratingCounts)
+                    .cast(topCast)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Whole buckets above the threshold, plus the documents of the threshold's own bucket that reach it
+    private BitSet ratedAtLeast(double minRating) {
+        BitSet rated = new BitSet();
+        int first = bucket(Math.max(0, minRating));
+        if (minRating > RATING_BUCKETS - 1) {
+            return rated;
+        }
+        for (int bucket = first + 1; bucket < RATING_BUCKETS; bucket++) {
+            rated.or(ratings[bucket]);
+        }
+        BitSet boundary = ratings[first];
+        for (int document = boundary.nextSetBit(0); document >= 0; document = boundary.nextSetBit(document + 1)) {
+            if (ratingOf[document] >= minRating) {
+                rated.set(document);
+            }
+        }
+        return rated;
+    }
+
+    private int allocate(String movieInfoId) {
+        int document = freeDocuments.isEmpty() ? documents.size() : freeDocuments.pop();
+        if (document >= idOf.length) {
+            int capacity = idOf.length * 2;
+            idOf = Arrays.copyOf(idOf, capacity);
+            yearOf = Arrays.copyOf(yearOf, capacity);
+            castOf = Arrays.copyOf(castOf, capacity);
+            ratingOf = Arrays.copyOf(ratingOf, capacity);
+        }
+        documents.put(movieInfoId, document);
+        idOf[document] = movieInfoId;
+        live.set(document);
+        return document;
+    }
+
+    private void clearPostings(int document) {
+        if (yearOf[document] != null) {
+            clear(years, yearOf[document], document);
+        }
+        for (String member : castOf[document]) {
+            clear(cast, member, document);
+        }
+        if (!Double.isNaN(ratingOf[document])) {
+            ratings[bucket(ratingOf[document])].clear(document);
+        }
+        yearOf[document] = null;
+        ratingOf[document] = Double.NaN;
+    }
+
+    private static <K> void clear(Map<K, BitSet> postings, K key, int document) {
+        BitSet bitmap = postings.get(key);
+        bitmap.clear(document);
+        if (bitmap.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    static int bucket(double rating) {
+        return Math.max(0, Math.min(RATING_BUCKETS - 1, (int) Math.floor(rating)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.reactive.facet;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.reactive.dao.model.MovieInfo;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FacetResult {
+
+    private long total;
+    /**
+     * The requested page of matches; the search itself fills in only their ids.
+     */
+    private List<MovieInfo> movieInfos;
+    private List<String> movieInfoIds;
+    private Map<Integer, Long> years;
+    /**
+     * Matches per whole-star average rating, e.g. 7 counts averages from 7.0 up to (not including) 8.0.
+     */
+    private Map<Integer, Long> ratings;
+    /**
+     * The most frequent cast members among the matches.
+     */
+    private Map<String, Long> cast;
+}
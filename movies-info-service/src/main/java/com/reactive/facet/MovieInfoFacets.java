@@ -0,0 +1,144 @@
+package com.reactive.facet;
+
+import com.reactive.config.FacetProperties;
+import com.reactive.dao.model.MovieInfo;
+import com.reactive.event.MovieInfoEvent;
+import com.reactive.event.MovieInfoEventPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Optional ({@code movies-info.facets.enabled}) combined filtering of movie infos by year range, cast member and
+ * minimum average rating, backed by a {@link FacetIndex}. The index holds only the filterable fields: year, cast
+ * and the review count and rating sum of {@code topReviews}. Once the application is ready it is loaded from a
+ * projection of the collection. Afterwards each relayed movie info event and each applied review event re-reads the
+ * projection of that one movie. Movies changed while the initial load is running are skipped by the load, because
+ * their own re-read is newer. A search resolves its page of ids with a single {@code movieInfoId $in} query.
+ */
+@Slf4j
+@Component
+public class MovieInfoFacets implements DisposableBean {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final MovieInfoEventPublisher movieInfoEventPublisher;
+    private final FacetProperties properties;
+    private final FacetIndex index = new FacetIndex();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    private volatile boolean ready;
+    // Ids refreshed while the initial load runs; null once it has finished
+    private volatile Set<String> refreshedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    public MovieInfoFacets(ReactiveMongoTemplate reactiveMongoTemplate, MovieInfoEventPublisher movieInfoEventPublisher,
+                           FacetProperties properties) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.movieInfoEventPublisher = movieInfoEventPublisher;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+
+        if (!properties.isEnabled()) {
+            return;
+        }
+        // Follow changes first, so that nothing written while the collection loads is missed
+        subscriptions.add(movieInfoEventPublisher.events()
+                .map(MovieInfoEvent::getMovieInfoId)
+                .concatMap(this::refresh)
+                .subscribe(null, ex -> log.error("Movie info facets stopped following changes", ex)));
+        subscriptions.add(reactiveMongoTemplate.find(projection(new Query()), MovieInfo.class)
+                .filter(movieInfo -> !refreshedDuringLoad.contains(movieInfo.getMovieInfoId()))
+                .doOnNext(this::index)
+                .then()
+                .subscribe(null,
+                        ex -> log.error("Loading the movie info facets failed", ex),
+                        () -> {
+                            ready = true;
+                            refreshedDuringLoad = null;
+                            log.info("Indexed {} movie infos for faceted search", index.size());
+                        }));
+    }
+
+    /**
+     * Re-reads the filterable fields of one movie info, e.g. after its reviews changed. A no-op while facets are off.
+     */
+    public Mono<Void> refresh(String movieInfoId) {
+        if (!properties.isEnabled() || movieInfoId == null) {
+            return Mono.empty();
+        }
+        Set<String> loading = refreshedDuringLoad;
+        if (loading != null) {
+            loading.add(movieInfoId);
+        }
+        Query query = projection(Query.query(Criteria.where("movieInfoId").is(movieInfoId)));
+        return reactiveMongoTemplate.findOne(query, MovieInfo.class)
+                .doOnNext(this::index)
+                .switchIfEmpty(Mono.fromRunnable(() -> index.remove(movieInfoId)))
+                .onErrorResume(ex -> {
+                    log.warn("Could not refresh the facets of movie info {}: {}", movieInfoId, ex.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    public Mono<FacetResult> search(Integer yearFrom, Integer yearTo, String cast, Double minRating, int offset, int limit) {
+
+        if (!ready) {
+            return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    properties.isEnabled() ? "Facet index is still loading" : "Faceted search is disabled"));
+        }
+        if (offset < 0 || limit < 1 || limit > properties.getMaxPageSize()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "offset must be >= 0 and limit between 1 and " + properties.getMaxPageSize()));
+        }
+        FacetResult result = index.search(yearFrom, yearTo, cast, minRating, offset, limit, properties.getCastFacetSize());
+        if (result.getMovieInfoIds().isEmpty()) {
+            result.setMovieInfos(List.of());
+            return Mono.just(result);
+        }
+        return reactiveMongoTemplate.find(Query.query(Criteria.where("movieInfoId").in(result.getMovieInfoIds())), MovieInfo.class)
+                .collectMap(MovieInfo::getMovieInfoId, Function.identity())
+                .map(byId -> {
+                    result.setMovieInfos(result.getMovieInfoIds().stream()
+                            .map(byId::get)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList()));
+                    result.setMovieInfoIds(null);
+                    return result;
+                });
+    }
+
+    @Override
+    public void destroy() {
+        subscriptions.dispose();
+    }
+
+    private void index(MovieInfo movieInfo) {
+        Double averageRating = movieInfo.getTopReviews() == null ? null : movieInfo.getTopReviews().getAverageRating();
+        index.put(movieInfo.getMovieInfoId(), movieInfo.getYear(), movieInfo.getCast(), averageRating);
+    }
+
+    private static Query projection(Query query) {
+        query.fields().include("movieInfoId", "year", "cast", "topReviews.count", "topReviews.ratingSum");
+        return query;
+    }
+}
@@ -0,0 +1,41 @@
+package com.reactive.importer;
+
+import com.reactive.cache.MovieInfoCache;
+import com.reactive.dao.model.MovieInfo;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Imported movie infos without an id get one before they are written, so the cache knows their keys. After each
+ * batch the cached queries they now belong to are dropped, as {@code POST /v1/movieinfos} does. Unlike the REST path,
+ * imports record no outbox events: the in-memory snapshot and the facets see imported movies at their next reload.
+ */
+@Component
+@RequiredArgsConstructor
+public class MovieInfoImportTarget implements ImportTarget<MovieInfo> {
+
+    private final MovieInfoCache movieInfoCache;
+
+    @Override
+    public Class<MovieInfo> entityClass() {
+        return MovieInfo.class;
+    }
+
+    @Override
+    public String prepare(MovieInfo movieInfo) {
+        if (movieInfo.getMovieInfoId() == null) {
+            movieInfo.setMovieInfoId(new ObjectId().toHexString());
+        }
+        return null;
+    }
+
+    @Override
+    public Mono<Void> inserted(List<MovieInfo> movieInfos) {
+        return Flux.fromIterable(movieInfos).concatMap(movieInfoCache::invalidate).then();
+    }
+}
@@ -0,0 +1,109 @@
+package com.reactive.schema;
+
+import com.reactive.dao.model.MovieInfo;
+import com.reactive.dao.model.ReviewSnapshot;
+import com.reactive.dao.model.ReviewSummary;
+import com.reactive.event.MovieInfoEvent;
+import com.reactive.outbox.OutboxEvent;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * The short field names of the compact document layout (version 2), and the rewriting of stored documents between
+ * it and the full layout (version 1), whose field names are the property names. Never reassign a short name that
+ * has been persisted; only append.
+ */
+public final class CompactFieldNames {
+
+    public static final int FULL = 1;
+    public static final int COMPACT = 2;
+
+    private static final String CLASS_KEY = "_class";
+
+    private static final Map<Class<?>, Map<String, String>> NAMES = Map.of(
+            MovieInfo.class, Map.of("name", "n", "year", "y", "cast", "c", "releaseDate", "d", "topReviews", "r"),
+            ReviewSnapshot.class, Map.of("latest", "l", "count", "n", "ratingSum", "s"),
+            ReviewSummary.class, Map.of("reviewId", "i", "comment", "c", "rating", "r"));
+
+    // Embedded documents to rewrite as well; Object.class means the type is read from the stored _class
+    private static final Map<Class<?>, Map<String, Class<?>>> NESTED = Map.of(
+            MovieInfo.class, Map.of("topReviews", ReviewSnapshot.class),
+            ReviewSnapshot.class, Map.of("latest", ReviewSummary.class),
+            MovieInfoEvent.class, Map.of("movieInfo", MovieInfo.class),
+            OutboxEvent.class, Map.of("payload", Object.class));
+
+    private CompactFieldNames() {
+    }
+
+    /**
+     * The stored name of a property in the compact layout.
+     */
+    public static String fieldName(Class<?> type, String property) {
+        return NAMES.getOrDefault(type, Map.of()).getOrDefault(property, property);
+    }
+
+    public static boolean covers(Class<?> type) {
+        return NESTED.containsKey(type) || NAMES.containsKey(type);
+    }
+
+    /**
+     * The top-level field names that only a document in the other layout than {@code version} has.
+     */
+    public static List<String> otherLayoutKeys(Class<?> type, int version) {
+        List<String> keys = new ArrayList<>();
+        NAMES.getOrDefault(type, Map.of()).forEach((property, shortName) -> keys.add(version == COMPACT ? property : shortName));
+        return keys;
+    }
+
+    /**
+     * Renames the fields of a stored document, and of its embedded documents, into the layout {@code version}. A
+     * field already present under its new name wins over the old one, since it was written later. Returns whether
+     * anything changed.
+     */
+    public static boolean rewrite(Document document, Class<?> type, int version) {
+
+        boolean changed = false;
+        for (Map.Entry<String, String> name : NAMES.getOrDefault(type, Map.of()).entrySet()) {
+            String from = version == COMPACT ? name.getKey() : name.getValue();
+            String to = version == COMPACT ? name.getValue() : name.getKey();
+            if (document.containsKey(from)) {
+                Object value = document.remove(from);
+                document.putIfAbsent(to, value);
+                changed = true;
+            }
+        }
+        for (Map.Entry<String, Class<?>> nested : NESTED.getOrDefault(type, Map.of()).entrySet()) {
+            String key = version == COMPACT ? fieldName(type, nested.getKey()) : nested.getKey();
+            changed |= rewriteNested(document.get(key), nested.getValue(), version);
+        }
+        return changed;
+    }
+
+    private static boolean rewriteNested(Object value, Class<?> type, int version) {
+        if (value instanceof List) {
+            boolean changed = false;
+            for (Object element : (List<?>) value) {
+                changed |= rewriteNested(element, type, version);
+            }
+            return changed;
+        }
+        if (!(value instanceof Document)) {
+            return false;
+        }
+        Document document = (Document) value;
+        Class<?> actualType = type == Object.class ? storedType(document) : type;
+        return actualType != null && rewrite(document, actualType, version);
+    }
+
+    private static Class<?> storedType(Document document) {
+        Object className = document.get(CLASS_KEY);
+        return Stream.concat(NAMES.keySet().stream(), NESTED.keySet().stream())
+                .filter(type -> type.getName().equals(className))
+                .findFirst()
+                .orElse(null);
+    }
+}
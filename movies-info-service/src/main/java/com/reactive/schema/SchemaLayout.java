@@ -0,0 +1,24 @@
+package com.reactive.schema;
+
+import com.reactive.dao.model.MovieInfo;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * The document layout the mapping writes, as configured through the field naming strategy.
+ */
+@Component
+public class SchemaLayout {
+
+    private final int version;
+
+    public SchemaLayout(MongoMappingContext mappingContext) {
+        String yearField = mappingContext.getRequiredPersistentEntity(MovieInfo.class).getRequiredPersistentProperty("year").getFieldName();
+        this.version = yearField.equals(CompactFieldNames.fieldName(MovieInfo.class, "year"))
+                ? CompactFieldNames.COMPACT : CompactFieldNames.FULL;
+    }
+
+    public int version() {
+        return version;
+    }
+}
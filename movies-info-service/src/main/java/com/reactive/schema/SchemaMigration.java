@@ -0,0 +1,126 @@
+package com.reactive.schema;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.reactive.config.SchemaProperties;
+import com.reactive.dao.model.MovieInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Brings the stored movie infos to the active document layout ({@link SchemaLayout}), in either direction, so
+ * switching to compact field names and back are both a restart. The layout of each collection is recorded in
+ * {@code schema_versions}, and a collection already at the target version is left alone.
+ * <p>
+ * Each document is rewritten with a replace that matches the whole document as read. A document changed
+ * concurrently is skipped and picked up by the next pass. Queries on renamed fields (by year, by name) can only
+ * name the active layout and would miss the documents not migrated yet, so the migration runs once every bean is
+ * created and before the web server starts, i.e. before any request and before the review snapshot updates, which
+ * update fields in place. Documents written in the old layout afterwards (pending outbox events) are still read
+ * through {@link FieldNameNormalizer}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SchemaMigration implements SmartInitializingSingleton {
+
+    static final String VERSIONS_COLLECTION = "schema_versions";
+    private static final int MAX_PASSES = 5;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final SchemaLayout schemaLayout;
+    private final SchemaProperties schemaProperties;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+
+        if (!schemaProperties.isMigrate()) {
+            return;
+        }
+        Long rewritten = migrate(MovieInfo.class).block();
+        log.info("Movie infos are in document layout v{} ({} rewritten)", schemaLayout.version(), rewritten);
+    }
+
+    public Mono<Long> migrate(Class<?> entityClass) {
+
+        String collectionName = reactiveMongoTemplate.getCollectionName(entityClass);
+        int target = schemaLayout.version();
+
+        return storedVersion(collectionName)
+                .flatMap(stored -> stored == target
+                        ? Mono.just(0L)
+                        : reactiveMongoTemplate.getCollection(collectionName)
+                                .flatMap(collection -> rewriteAll(collection, entityClass, target, 1))
+                                .flatMap(rewritten -> saveVersion(collectionName, target).thenReturn(rewritten)));
+    }
+
+    private Mono<Long> rewriteAll(MongoCollection<Document> collection, Class<?> entityClass, int target, int pass) {
+
+        List<Bson> otherLayout = CompactFieldNames.otherLayoutKeys(entityClass, target).stream()
+                .map(Filters::exists)
+                .collect(Collectors.toList());
+        Counts counts = new Counts();
+
+        return Flux.from(collection.find(Filters.or(otherLayout)).batchSize(schemaProperties.getBatchSize()))
+                .flatMap(document -> {
+                    Bson asRead = new RawBsonDocument(document, new DocumentCodec());
+                    CompactFieldNames.rewrite(document, entityClass, target);
+                    return Mono.from(collection.replaceOne(asRead, document, new ReplaceOptions()));
+                }, schemaProperties.getConcurrency())
+                .doOnNext(result -> {
+                    if (result.getMatchedCount() > 0) {
+                        counts.rewritten++;
+                    } else {
+                        counts.skipped++;
+                    }
+                })
+                .then(Mono.defer(() -> {
+                    if (counts.skipped == 0) {
+                        return Mono.just(counts.rewritten);
+                    }
+                    if (pass == MAX_PASSES) {
+                        return Mono.error(new IllegalStateException(counts.skipped + " documents of "
+                                + collection.getNamespace() + " kept changing during the layout migration; run it again"));
+                    }
+                    return rewriteAll(collection, entityClass, target, pass + 1).map(more -> counts.rewritten + more);
+                }));
+    }
+
+    private Mono<Integer> storedVersion(String collectionName) {
+        return reactiveMongoTemplate.getCollection(VERSIONS_COLLECTION)
+                .flatMap(versions -> Mono.from(versions.find(Filters.eq("_id", collectionName)).first()))
+                .map(version -> version.getInteger("version", CompactFieldNames.FULL))
+                .defaultIfEmpty(CompactFieldNames.FULL);
+    }
+
+    private Mono<Void> saveVersion(String collectionName, int version) {
+        return reactiveMongoTemplate.getCollection(VERSIONS_COLLECTION)
+                .flatMap(versions -> Mono.from(versions.updateOne(Filters.eq("_id", collectionName),
+                        Updates.combine(Updates.set("version", version), Updates.set("migratedAt", Instant.now())),
+                        new UpdateOptions().upsert(true))))
+                .then();
+    }
+
+    // Updated from a single flatMap's onNext, which Reactor serializes
+    private static class Counts {
+
+        long rewritten;
+        long skipped;
+    }
+}
@@ -4,12 +4,22 @@ import com.reactive.dao.model.MovieInfo;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Set;
+
 public interface MovieInfoService {
 
     Mono<MovieInfo> addMovieInfo(MovieInfo movieInfo);
+    Flux<MovieInfo> addMovieInfos(Flux<MovieInfo> movieInfos);
     Flux<MovieInfo> getAllMovieInfos();
     Mono<MovieInfo> findMovieInfoById(String movieInfoId);
+    Mono<MovieInfo> findMovieInfoWithReviewsById(String movieInfoId);
     Mono<MovieInfo> updateMovieInfoById(String movieInfoId, MovieInfo movieInfo);
     Mono<Void> deleteMovieById(String movieInfoId);
     Flux<MovieInfo> getMovieByYear(Integer year);
+    Flux<MovieInfo> findMovieInfosByIds(List<String> movieInfoIds);
+    Mono<MovieInfo> findMovieInfoByName(String name);
+    Flux<MovieInfo> findMovieInfos(Integer year, String name, Set<String> fields);
+    Mono<MovieInfo> findMovieInfoById(String movieInfoId, Set<String> fields);
+    Flux<MovieInfo> findMovieInfosByIds(List<String> movieInfoIds, Set<String> fields);
 }
@@ -1,21 +1,60 @@
 package com.reactive.service;
 
+import com.reactive.cache.MovieInfoCache;
+import com.reactive.config.ReviewSnapshotProperties;
 import com.reactive.dao.model.MovieInfo;
+import com.reactive.dao.model.ReviewSnapshot;
 import com.reactive.dao.repository.MovieInfoRepository;
+import com.reactive.event.MovieInfoEvent;
+import com.reactive.outbox.OutboxService;
+import com.reactive.snapshot.MovieInfoSnapshot;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class MovieInfoServiceImpl implements MovieInfoService {
 
+    private static final int BATCH_WRITE_CONCURRENCY = 16;
+    private static final int MAX_MULTI_GET_IDS = 500;
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of("name", "year", "cast", "releaseDate", "topReviews");
+
     private final MovieInfoRepository movieInfoRepository;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final OutboxService outboxService;
+    private final MovieInfoCache movieInfoCache;
+    private final MovieInfoSnapshot movieInfoSnapshot;
+    private final ReviewSnapshotProperties reviewSnapshotProperties;
 
     @Override
     public Mono<MovieInfo> addMovieInfo(MovieInfo movieInfo) {
-        return movieInfoRepository.save(movieInfo);
+        return outboxService.transactional(movieInfoRepository.save(movieInfo)
+                        .flatMap(savedMovieInfo -> recordEvent(MovieInfoEvent.Type.CREATED, savedMovieInfo)))
+                .flatMap(savedMovieInfo -> movieInfoCache.invalidate(savedMovieInfo).thenReturn(savedMovieInfo));
+    }
+
+    @Override
+    public Flux<MovieInfo> addMovieInfos(Flux<MovieInfo> movieInfos) {
+        return movieInfos.flatMapSequential(this::addMovieInfo, BATCH_WRITE_CONCURRENCY);
     }
 
     @Override
@@ -25,28 +64,172 @@ public class MovieInfoServiceImpl implements MovieInfoService {
 
     @Override
     public Mono<MovieInfo> findMovieInfoById(String movieInfoId) {
-        return movieInfoRepository.findById(movieInfoId);
+
+        if (movieInfoSnapshot.isReady()) {
+            return movieInfoSnapshot.findById(movieInfoId);
+        }
+        if (!movieInfoCache.isEnabled()) {
+            Query query = byId(movieInfoId);
+            query.fields().exclude("topReviews");
+            return reactiveMongoTemplate.findOne(query, MovieInfo.class);
+        }
+        // The cache holds whole documents, so the reviews are dropped from the cached copy instead
+        return movieInfoCache.findById(movieInfoId, movieInfoRepository::findById)
+                .map(movieInfo -> {
+                    movieInfo.setTopReviews(null);
+                    return movieInfo;
+                });
+    }
+
+    @Override
+    public Mono<MovieInfo> findMovieInfoWithReviewsById(String movieInfoId) {
+        return movieInfoCache.findById(movieInfoId, movieInfoRepository::findById);
     }
 
     @Override
     public Mono<MovieInfo> updateMovieInfoById(String movieInfoId, MovieInfo updatedMovieInfo) {
-         return movieInfoRepository.findById(movieInfoId)
-                 .flatMap(movieInfo -> {
-                     movieInfo.setName(updatedMovieInfo.getName());
-                     movieInfo.setYear(updatedMovieInfo.getYear());
-                     movieInfo.setReleaseDate(updatedMovieInfo.getReleaseDate());
-                     movieInfo.setCast(updatedMovieInfo.getCast());
-                     return movieInfoRepository.save(movieInfo);
-                 });
+
+        // Only the editable fields are set, so a concurrent topReviews update isn't overwritten by a stale copy
+        Update update = new Update()
+                .set("name", updatedMovieInfo.getName())
+                .set("year", updatedMovieInfo.getYear())
+                .set("releaseDate", updatedMovieInfo.getReleaseDate())
+                .set("cast", updatedMovieInfo.getCast());
+
+        return outboxService.transactional(reactiveMongoTemplate.findAndModify(byId(movieInfoId), update,
+                        FindAndModifyOptions.options().returnNew(true), MovieInfo.class)
+                .flatMap(movieInfo -> recordEvent(MovieInfoEvent.Type.UPDATED, movieInfo)))
+                .flatMap(movieInfo -> movieInfoCache.invalidate(movieInfo).thenReturn(movieInfo));
     }
 
     @Override
     public Mono<Void> deleteMovieById(String movieInfoId) {
-        return movieInfoRepository.deleteById(movieInfoId);
+        return outboxService.transactional(reactiveMongoTemplate.findAndRemove(byId(movieInfoId), MovieInfo.class)
+                        .flatMap(movieInfo -> recordEvent(MovieInfoEvent.Type.DELETED, movieInfo)))
+                .flatMap(movieInfoCache::invalidate);
     }
 
     @Override
     public Flux<MovieInfo> getMovieByYear(Integer year) {
-        return movieInfoRepository.findByYear(year);
+        if (movieInfoSnapshot.isReady()) {
+            return withTopReviews(movieInfoSnapshot.findByYear(year));
+        }
+        return movieInfoCache.findByYear(year, this::findByYear);
+    }
+
+    /**
+     * Multi-get: the cached movie infos plus a single {@code $in} query for the misses, in the order of the ids asked
+     * for. Repeated ids are returned once and unknown ids are left out.
+     */
+    @Override
+    public Flux<MovieInfo> findMovieInfosByIds(List<String> movieInfoIds) {
+        return distinct(movieInfoIds).flatMapMany(ids -> {
+            if (movieInfoSnapshot.isReady()) {
+                return withTopReviews(Flux.fromIterable(ids).concatMap(movieInfoSnapshot::findById));
+            }
+            if (!movieInfoCache.isEnabled()) {
+                return inOrder(ids, movieInfoRepository.findAllById(ids));
+            }
+            return movieInfoCache.findAllById(ids, movieInfoRepository::findAllById);
+        });
+    }
+
+    @Override
+    public Mono<MovieInfo> findMovieInfoByName(String name) {
+        return movieInfoSnapshot.isReady() ? withTopReviews(movieInfoSnapshot.findByName(name).flux()).next()
+                : reactiveMongoTemplate.findOne(Query.query(Criteria.where("name").is(name)), MovieInfo.class);
+    }
+
+    /**
+     * Reads only the requested fields, so callers that render a few fields don't pay for the rest (e.g. the cast).
+     * Unknown field names are ignored. Projected reads bypass the cache. Either filter may be left out.
+     */
+    @Override
+    public Flux<MovieInfo> findMovieInfos(Integer year, String name, Set<String> fields) {
+        Query query = new Query();
+        if (year != null) {
+            query.addCriteria(Criteria.where("year").is(year));
+        }
+        if (name != null) {
+            query.addCriteria(Criteria.where("name").is(name));
+        }
+        return reactiveMongoTemplate.find(project(query, fields), MovieInfo.class);
+    }
+
+    @Override
+    public Mono<MovieInfo> findMovieInfoById(String movieInfoId, Set<String> fields) {
+        return reactiveMongoTemplate.findOne(project(byId(movieInfoId), fields), MovieInfo.class);
+    }
+
+    @Override
+    public Flux<MovieInfo> findMovieInfosByIds(List<String> movieInfoIds, Set<String> fields) {
+        return distinct(movieInfoIds).flatMapMany(ids -> inOrder(ids,
+                reactiveMongoTemplate.find(project(Query.query(Criteria.where("movieInfoId").in(ids)), fields), MovieInfo.class)));
+    }
+
+    private static Mono<List<String>> distinct(List<String> movieInfoIds) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(movieInfoIds));
+        if (ids.size() > MAX_MULTI_GET_IDS) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_MULTI_GET_IDS + " movie info ids can be fetched at once"));
+        }
+        return Mono.just(ids);
+    }
+
+    /**
+     * The catalogue snapshot holds no review snapshots, so when they are kept, the listings it serves read them for
+     * the movies returned with one {@code $in} query on the review snapshot field alone.
+     */
+    private Flux<MovieInfo> withTopReviews(Flux<MovieInfo> movieInfos) {
+        if (!reviewSnapshotProperties.isEnabled()) {
+            return movieInfos;
+        }
+        return movieInfos.collectList().flatMapMany(found -> {
+            if (found.isEmpty()) {
+                return Flux.empty();
+            }
+            Query query = Query.query(Criteria.where("movieInfoId")
+                    .in(found.stream().map(MovieInfo::getMovieInfoId).collect(Collectors.toList())));
+            query.fields().include("movieInfoId", "topReviews");
+            return reactiveMongoTemplate.find(query, MovieInfo.class)
+                    .collect(HashMap<String, ReviewSnapshot>::new,
+                            (byId, movieInfo) -> byId.put(movieInfo.getMovieInfoId(), movieInfo.getTopReviews()))
+                    .flatMapIterable(topReviews -> {
+                        found.forEach(movieInfo -> movieInfo.setTopReviews(topReviews.get(movieInfo.getMovieInfoId())));
+                        return found;
+                    });
+        });
+    }
+
+    private static Flux<MovieInfo> inOrder(List<String> movieInfoIds, Flux<MovieInfo> movieInfos) {
+        return movieInfos.collectMap(MovieInfo::getMovieInfoId, Function.identity())
+                .flatMapIterable(byId -> movieInfoIds.stream()
+                        .map(byId::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()));
+    }
+
+    private static Query project(Query query, Set<String> fields) {
+        query.fields().include("movieInfoId");
+        fields.stream().filter(PROJECTABLE_FIELDS::contains).forEach(query.fields()::include);
+        return query;
+    }
+
+    /**
+     * Derived repository queries don't go through the template methods that apply the request deadline, so the
+     * request path queries the template directly.
+     */
+    private Flux<MovieInfo> findByYear(Integer year) {
+        return reactiveMongoTemplate.find(Query.query(Criteria.where("year").is(year)), MovieInfo.class);
+    }
+
+    private Mono<MovieInfo> recordEvent(MovieInfoEvent.Type type, MovieInfo movieInfo) {
+        return outboxService.record(MovieInfo.class.getSimpleName(), movieInfo.getMovieInfoId(), type.name(),
+                        MovieInfoEvent.of(type, movieInfo))
+                .thenReturn(movieInfo);
+    }
+
+    private static Query byId(String movieInfoId) {
+        return Query.query(Criteria.where("movieInfoId").is(movieInfoId));
     }
 }
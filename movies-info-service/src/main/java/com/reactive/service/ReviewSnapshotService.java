@@ -0,0 +1,199 @@
+package com.reactive.service;
+
+import com.reactive.cache.MovieInfoCache;
+import com.reactive.config.ReviewSnapshotProperties;
+import com.reactive.dao.model.MovieInfo;
+import com.reactive.dao.model.ReviewSnapshot;
+import com.reactive.dao.model.ReviewSummary;
+import com.reactive.event.ReviewEvent;
+import com.reactive.event.ReviewRecord;
+import com.reactive.facet.MovieInfoFacets;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies review events to the {@code topReviews} snapshot of the reviewed movie. Every event is a single atomic
+ * update of one document, so the snapshot is never read back or rewritten as a whole. Each update also records the
+ * event's sequence number in the snapshot and only matches snapshots that haven't seen it yet, so an event delivered
+ * twice (a replay after a reconnect, or another replica applying the same stream) is counted once.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReviewSnapshotService {
+
+    private static final String LATEST = "topReviews.latest";
+    private static final String COUNT = "topReviews.count";
+    private static final String RATING_SUM = "topReviews.ratingSum";
+    private static final String SEQUENCE = "topReviews.sequence";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ReviewSnapshotProperties reviewSnapshotProperties;
+    private final MovieInfoCache movieInfoCache;
+    private final MovieInfoFacets movieInfoFacets;
+
+    public Mono<Void> apply(ReviewEvent event) {
+
+        if (event.getMovieInfoId() == null || event.getType() == null) {
+            return Mono.empty();
+        }
+        String movieInfoId = event.getMovieInfoId();
+
+        return snapshotUpdate(movieInfoId, event)
+                .then(movieInfoCache.invalidate(movieInfoId))
+                .then(Mono.defer(() -> movieInfoFacets.refresh(movieInfoId)));
+    }
+
+    private Mono<Void> snapshotUpdate(String movieInfoId, ReviewEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+                return created(movieInfoId, event);
+            case UPDATED:
+                return updated(movieInfoId, event);
+            case DELETED:
+                return deleted(movieInfoId, event);
+            default:
+                return Mono.empty();
+        }
+    }
+
+    private Mono<Void> created(String movieInfoId, ReviewEvent event) {
+
+        Update update = new Update()
+                .inc(COUNT, 1)
+                .inc(RATING_SUM, rating(event.getRating()));
+        update.push(LATEST)
+                .atPosition(0)
+                .slice(reviewSnapshotProperties.getSize())
+                .each(toSummary(event));
+
+        return reactiveMongoTemplate.updateFirst(notApplied(byId(movieInfoId), event), applied(update, event), MovieInfo.class).then();
+    }
+
+    /**
+     * A rating change moves the totals; the review's entry in {@code latest} is rewritten too, if it is still there.
+     * The two cases are separate updates with disjoint filters, so the event is applied by exactly one of them.
+     */
+    private Mono<Void> updated(String movieInfoId, ReviewEvent event) {
+
+        Update totals = new Update().inc(RATING_SUM, rating(event.getRating()) - rating(event.getPreviousRating()));
+        Update totalsAndLatestEntry = new Update()
+                .inc(RATING_SUM, rating(event.getRating()) - rating(event.getPreviousRating()))
+                .set(LATEST + ".$.comment", event.getComment())
+                .set(LATEST + ".$.rating", event.getRating());
+
+        return reactiveMongoTemplate.updateFirst(notApplied(withSnapshot(movieInfoId), event)
+                        .addCriteria(Criteria.where(LATEST + ".reviewId").is(event.getReviewId())), applied(totalsAndLatestEntry, event), MovieInfo.class)
+                .then(reactiveMongoTemplate.updateFirst(notApplied(withSnapshot(movieInfoId), event)
+                        .addCriteria(Criteria.where(LATEST + ".reviewId").ne(event.getReviewId())), applied(totals, event), MovieInfo.class))
+                .then();
+    }
+
+    private Mono<Void> deleted(String movieInfoId, ReviewEvent event) {
+
+        Update update = new Update()
+                .inc(COUNT, -1)
+                .inc(RATING_SUM, -rating(event.getRating()))
+                .pull(LATEST, Query.query(Criteria.where("reviewId").is(event.getReviewId())).getQueryObject());
+
+        return reactiveMongoTemplate.updateFirst(notApplied(withSnapshot(movieInfoId), event), applied(update, event), MovieInfo.class).then();
+    }
+
+    /**
+     * Replaces the movie's snapshot with one computed from all its current reviews, as of the review event
+     * {@code sequence}: events up to it are skipped from then on, later ones are applied on top. A snapshot that has
+     * already seen a later event is left alone. Used when the event stream can't be resumed. An event that lands
+     * between reading {@code sequence} and listing the reviews is both in the listing and applied afterwards; the
+     * snapshot is off by that event until the movie is rebuilt again.
+     */
+    public Mono<Void> rebuild(String movieInfoId, List<ReviewRecord> reviews, long sequence) {
+
+        Update update;
+        if (reviews.isEmpty()) {
+            update = new Update().unset("topReviews");
+        } else {
+            List<ReviewSummary> latest = reviews.stream()
+                    .sorted(Comparator.comparing(ReviewRecord::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
+                    .limit(reviewSnapshotProperties.getSize())
+                    .map(review -> ReviewSummary.builder()
+                            .reviewId(review.getReviewId())
+                            .comment(review.getComment())
+                            .rating(review.getRating())
+                            .build())
+                    .collect(Collectors.toList());
+            update = new Update().set("topReviews", ReviewSnapshot.builder()
+                    .latest(latest)
+                    .count((long) reviews.size())
+                    .ratingSum(reviews.stream().mapToDouble(review -> rating(review.getRating())).sum())
+                    .sequence(sequence)
+                    .build());
+        }
+
+        return reactiveMongoTemplate.updateFirst(byId(movieInfoId).addCriteria(Criteria.where(SEQUENCE).not().gt(sequence)),
+                        update, MovieInfo.class)
+                .then(movieInfoCache.invalidate(movieInfoId))
+                .then(Mono.defer(() -> movieInfoFacets.refresh(movieInfoId)));
+    }
+
+    /**
+     * Rebuilds the snapshot of every movie as of {@code sequence}, {@code resyncBatchSize} movies at a time, with the
+     * reviews {@code reviewsOf} lists for each batch.
+     */
+    public Mono<Void> rebuildAll(long sequence, Function<List<String>, Flux<ReviewRecord>> reviewsOf) {
+
+        Query movieInfoIds = new Query();
+        movieInfoIds.fields().include("movieInfoId");
+
+        return reactiveMongoTemplate.find(movieInfoIds, MovieInfo.class)
+                .map(MovieInfo::getMovieInfoId)
+                .buffer(reviewSnapshotProperties.getResyncBatchSize())
+                .concatMap(batch -> reviewsOf.apply(batch)
+                        .collectMultimap(ReviewRecord::getMovieInfoId)
+                        .flatMapMany(reviews -> Flux.fromIterable(batch)
+                                .concatMap(movieInfoId -> rebuild(movieInfoId,
+                                        List.copyOf(reviews.getOrDefault(movieInfoId, List.of())), sequence))))
+                .then();
+    }
+
+    private static Query byId(String movieInfoId) {
+        return Query.query(Criteria.where("movieInfoId").is(movieInfoId));
+    }
+
+    // Updates and deletes only touch snapshots that exist, so reviews written before the snapshot can't drive totals negative
+    private static Query withSnapshot(String movieInfoId) {
+        return Query.query(Criteria.where("movieInfoId").is(movieInfoId).and("topReviews").exists(true));
+    }
+
+    // Events without a sequence number (from a producer that predates the log) can't be deduplicated and always apply
+    private static Query notApplied(Query query, ReviewEvent event) {
+        return event.getSequence() == null ? query : query.addCriteria(Criteria.where(SEQUENCE).not().gte(event.getSequence()));
+    }
+
+    private static Update applied(Update update, ReviewEvent event) {
+        return event.getSequence() == null ? update : update.set(SEQUENCE, event.getSequence());
+    }
+
+    private static ReviewSummary toSummary(ReviewEvent event) {
+        return ReviewSummary.builder()
+                .reviewId(event.getReviewId())
+                .comment(event.getComment())
+                .rating(event.getRating())
+                .build();
+    }
+
+    private static double rating(Double rating) {
+        return rating == null ? 0.0 : rating;
+    }
+}
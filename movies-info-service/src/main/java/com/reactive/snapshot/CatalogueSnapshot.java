@@ -0,0 +1,228 @@
+package com.reactive.snapshot;
+
+import com.reactive.dao.model.MovieInfo;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * An immutable, compact copy of the movie info catalogue, without the review snapshots.
+ * <p>
+ * Every distinct string (ids, names, cast members) is stored once in a string table. Each movie is a fixed row of
+ * ints in off-heap memory: references into the table, the year, and the release date as an epoch day. The cast
+ * lists sit in one shared off-heap int column. Rows are sorted by id, and two off-heap index columns order them by
+ * year and by name. All three lookups are binary searches.
+ * <p>
+ * The only heap objects are the string table and the buffer headers. The garbage collector never traces one
+ * object per movie, and a lookup allocates only the {@link MovieInfo} it returns.
+ */
+public final class CatalogueSnapshot {
+
+    public static final CatalogueSnapshot EMPTY = of(List.of());
+
+    private static final int NULL = Integer.MIN_VALUE;
+    private static final int ROW_INTS = 6;
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int YEAR = 2;
+    private static final int RELEASE_DATE = 3;
+    private static final int CAST_START = 4;
+    private static final int CAST_COUNT = 5;
+
+    private final String[] strings;
+    private final int size;
+    private final IntBuffer rows;
+    private final IntBuffer cast;
+    private final IntBuffer rowsByYear;
+    private final IntBuffer rowsByName;
+
+    private CatalogueSnapshot(String[] strings, int size, IntBuffer rows, IntBuffer cast, IntBuffer rowsByYear,
+                              IntBuffer rowsByName) {
+        this.strings = strings;
+        this.size = size;
+        this.rows = rows;
+        this.cast = cast;
+        this.rowsByYear = rowsByYear;
+        this.rowsByName = rowsByName;
+    }
+
+    /**
+     * Builds a snapshot; for duplicate ids the last movie info wins, and movie infos without an id are skipped.
+     */
+    public static CatalogueSnapshot of(Collection<MovieInfo> movieInfos) {
+
+        TreeMap<String, MovieInfo> byId = new TreeMap<>();
+        movieInfos.stream().filter(movieInfo -> movieInfo.getMovieInfoId() != null)
+                .forEach(movieInfo -> byId.put(movieInfo.getMovieInfoId(), movieInfo));
+        int size = byId.size();
+
+        Map<String, Integer> interned = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int castSize = byId.values().stream().mapToInt(movieInfo -> movieInfo.getCast() == null ? 0 : movieInfo.getCast().size()).sum();
+        IntBuffer rows = allocate(size * ROW_INTS);
+        IntBuffer cast = allocate(castSize);
+
+        int row = 0;
+        for (MovieInfo movieInfo : byId.values()) {
+            int base = row * ROW_INTS;
+            rows.put(base + ID, intern(movieInfo.getMovieInfoId(), interned, strings));
+            rows.put(base + NAME, intern(movieInfo.getName(), interned, strings));
+            rows.put(base + YEAR, movieInfo.getYear() == null ? NULL : movieInfo.getYear());
+            rows.put(base + RELEASE_DATE, movieInfo.getReleaseDate() == null ? NULL : Math.toIntExact(movieInfo.getReleaseDate().toEpochDay()));
+            rows.put(base + CAST_START, cast.position());
+            if (movieInfo.getCast() == null) {
+                rows.put(base + CAST_COUNT, NULL);
+            } else {
+                rows.put(base + CAST_COUNT, movieInfo.getCast().size());
+                movieInfo.getCast().forEach(member -> cast.put(intern(member, interned, strings)));
+            }
+            row++;
+        }
+
+        String[] table = strings.toArray(new String[0]);
+        IntUnaryOperator yearOf = r -> rows.get(r * ROW_INTS + YEAR);
+        IntUnaryOperator nameOf = r -> rows.get(r * ROW_INTS + NAME);
+        IntBuffer rowsByYear = index(size, Comparator.comparingInt(yearOf::applyAsInt));
+        IntBuffer rowsByName = index(size, Comparator.comparing(r -> string(table, nameOf.applyAsInt(r)),
+                Comparator.nullsFirst(Comparator.<String>naturalOrder())));
+        return new CatalogueSnapshot(table, size, rows, cast, rowsByYear, rowsByName);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Off-heap bytes held by the rows, the cast column and the two indexes.
+     */
+    public long offHeapBytes() {
+        return 4L * (rows.capacity() + cast.capacity() + rowsByYear.capacity() + rowsByName.capacity());
+    }
+
+    public MovieInfo findById(String movieInfoId) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int compared = strings[rows.get(mid * ROW_INTS + ID)].compareTo(movieInfoId);
+            if (compared < 0) {
+                low = mid + 1;
+            } else if (compared > 0) {
+                high = mid - 1;
+            } else {
+                return read(mid);
+            }
+        }
+        return null;
+    }
+
+    public List<MovieInfo> findByYear(int year) {
+        List<MovieInfo> found = new ArrayList<>();
+        for (int i = lowerBound(rowsByYear, r -> Integer.compare(rows.get(r * ROW_INTS + YEAR), year)); i < size; i++) {
+            int row = rowsByYear.get(i);
+            if (rows.get(row * ROW_INTS + YEAR) != year) {
+                break;
+            }
+            found.add(read(row));
+        }
+        return found;
+    }
+
+    public List<MovieInfo> findByName(String name) {
+        List<MovieInfo> found = new ArrayList<>();
+        for (int i = lowerBound(rowsByName, r -> compareName(r, name)); i < size; i++) {
+            int row = rowsByName.get(i);
+            if (compareName(row, name) != 0) {
+                break;
+            }
+            found.add(read(row));
+        }
+        return found;
+    }
+
+    public List<MovieInfo> findAll() {
+        List<MovieInfo> all = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            all.add(read(row));
+        }
+        return all;
+    }
+
+    private MovieInfo read(int row) {
+        int base = row * ROW_INTS;
+        int releaseDate = rows.get(base + RELEASE_DATE);
+        int year = rows.get(base + YEAR);
+        int castCount = rows.get(base + CAST_COUNT);
+        List<String> members = null;
+        if (castCount != NULL) {
+            String[] values = new String[castCount];
+            int castStart = rows.get(base + CAST_START);
+            for (int i = 0; i < castCount; i++) {
+                values[i] = strings[cast.get(castStart + i)];
+            }
+            members = new ArrayList<>(Arrays.asList(values));
+        }
+        return new MovieInfo(strings[rows.get(base + ID)], string(strings, rows.get(base + NAME)),
+                year == NULL ? null : year, members, releaseDate == NULL ? null : LocalDate.ofEpochDay(releaseDate));
+    }
+
+    private int compareName(int row, String name) {
+        String rowName = string(strings, rows.get(row * ROW_INTS + NAME));
+        return rowName == null ? -1 : rowName.compareTo(name);
+    }
+
+    // First index position whose row compares >= 0
+    private int lowerBound(IntBuffer index, IntUnaryOperator compareRow) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareRow.applyAsInt(index.get(mid)) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static IntBuffer index(int size, Comparator<Integer> order) {
+        Integer[] sorted = new Integer[size];
+        Arrays.setAll(sorted, i -> i);
+        Arrays.sort(sorted, order);
+        IntBuffer index = allocate(size);
+        for (Integer row : sorted) {
+            index.put(row);
+        }
+        return index;
+    }
+
+    private static IntBuffer allocate(int ints) {
+        return ByteBuffer.allocateDirect(ints * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private static int intern(String value, Map<String, Integer> interned, List<String> strings) {
+        if (value == null) {
+            return NULL;
+        }
+        return interned.computeIfAbsent(value, key -> {
+            strings.add(key);
+            return strings.size() - 1;
+        });
+    }
+
+    private static String string(String[] strings, int ref) {
+        return ref == NULL ? null : strings[ref];
+    }
+}
@@ -0,0 +1,269 @@
+package com.reactive.snapshot;
+
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.reactive.cache.MovieInfoResponseCache;
+import com.reactive.config.SnapshotProperties;
+import com.reactive.dao.model.MovieInfo;
+import com.reactive.event.MovieInfoEvent;
+import com.reactive.event.MovieInfoEventPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Optional read path ({@code movies-info.snapshot.enabled}) that answers the by-id, by-year and by-name lookups from
+ * memory. The catalogue fields of the whole collection, without review snapshots, are loaded into a
+ * {@link CatalogueSnapshot} once the application is ready. Until then the service keeps reading from the database.
+ * The listings that used to carry {@code topReviews} get them from the database on top of the snapshot.
+ * <p>
+ * The snapshot follows the changes the outbox relays, or a Mongo change stream when configured. Changes go into a
+ * small overlay that is consulted before the compact store. Once the overlay grows past {@code compactThreshold},
+ * the store is rebuilt with the overlay folded in. A periodic full reload repairs anything the tail missed. Changes
+ * arriving during a rebuild are also collected for the next overlay, so a swap never loses them.
+ * <p>
+ * The snapshot lags writes by the relay's poll interval. Each change it applies also drops the movie's encoded
+ * response, so the response cache can't hold on to a version the snapshot has already replaced.
+ */
+@Slf4j
+@Component
+public class MovieInfoSnapshot implements DisposableBean {
+
+    // Overlay marker for a deleted movie info
+    private static final MovieInfo DELETED = new MovieInfo();
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final MovieInfoEventPublisher movieInfoEventPublisher;
+    private final MovieInfoResponseCache responseCache;
+    private final SnapshotProperties properties;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    private volatile State state;
+    // Guarded by this: the overlay of the rebuild in progress, if any
+    private Map<String, MovieInfo> nextOverlay;
+
+    public MovieInfoSnapshot(ReactiveMongoTemplate reactiveMongoTemplate, MovieInfoEventPublisher movieInfoEventPublisher,
+                             MovieInfoResponseCache responseCache, SnapshotProperties properties) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.movieInfoEventPublisher = movieInfoEventPublisher;
+        this.responseCache = responseCache;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+
+        if (!properties.isEnabled()) {
+            return;
+        }
+        // Tail first, so that nothing written while the collection loads is missed
+        subscriptions.add(changes().subscribe(this::apply, ex -> log.error("Movie info snapshot stopped following changes", ex)));
+        subscriptions.add(Flux.interval(Duration.ZERO, properties.getRefreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> reload())
+                .subscribe());
+    }
+
+    public boolean isReady() {
+        return state != null;
+    }
+
+    public Mono<MovieInfo> findById(String movieInfoId) {
+        State current = state;
+        MovieInfo changed = current.overlay.get(movieInfoId);
+        if (changed != null) {
+            return changed == DELETED ? Mono.empty() : Mono.just(copy(changed));
+        }
+        return Mono.justOrEmpty(current.base.findById(movieInfoId));
+    }
+
+    public Flux<MovieInfo> findByYear(Integer year) {
+        State current = state;
+        return Flux.fromIterable(merge(current, current.base.findByYear(year), movieInfo -> year.equals(movieInfo.getYear())));
+    }
+
+    public Mono<MovieInfo> findByName(String name) {
+        State current = state;
+        return Mono.justOrEmpty(merge(current, current.base.findByName(name), movieInfo -> name.equals(movieInfo.getName()))
+                .stream().findFirst());
+    }
+
+    /**
+     * Reloads the whole collection from the database.
+     */
+    public Mono<Void> reload() {
+        Query query = new Query();
+        query.fields().exclude("topReviews");
+        return rebuild(() -> reactiveMongoTemplate.find(query, MovieInfo.class).collectList())
+                .doOnSuccess(snapshot -> {
+                    if (snapshot != null) {
+                        // Rows may have changed without an event, so no encoded response can be trusted
+                        responseCache.clear();
+                        log.info("Loaded {} movie infos into the snapshot ({} KB off-heap)", snapshot.size(), snapshot.offHeapBytes() / 1024);
+                    }
+                })
+                .onErrorResume(ex -> {
+                    log.error("Movie info snapshot reload failed: {}", ex.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    synchronized void apply(MovieInfoEvent event) {
+
+        String movieInfoId = event.getMovieInfoId();
+        if (movieInfoId == null || event.getType() == null) {
+            return;
+        }
+        MovieInfo value = event.getType() == MovieInfoEvent.Type.DELETED || event.getMovieInfo() == null
+                ? DELETED : copy(event.getMovieInfo());
+        if (state != null) {
+            state.overlay.put(movieInfoId, value);
+        }
+        if (nextOverlay != null) {
+            nextOverlay.put(movieInfoId, value);
+        }
+        responseCache.invalidate(movieInfoId);
+
+        if (state != null && state.overlay.size() > properties.getCompactThreshold()) {
+            rebuild(this::compacted).subscribe(null, ex -> log.error("Movie info snapshot compaction failed", ex));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        subscriptions.dispose();
+    }
+
+    private Flux<MovieInfoEvent> changes() {
+        if (!properties.isChangeStream()) {
+            return movieInfoEventPublisher.events();
+        }
+        return reactiveMongoTemplate.changeStream(MovieInfo.class)
+                .withOptions(options -> options.fullDocumentLookup(FullDocument.UPDATE_LOOKUP))
+                .listen()
+                .mapNotNull(MovieInfoSnapshot::toEvent)
+                .doOnError(ex -> log.warn("Movie info change stream failed, resuming: {}", ex.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofMinutes(1)));
+    }
+
+    private Mono<CatalogueSnapshot> rebuild(Supplier<Mono<List<MovieInfo>>> source) {
+        return Mono.defer(() -> {
+            if (!rebuilding.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            Map<String, MovieInfo> collecting = new ConcurrentHashMap<>();
+            synchronized (this) {
+                nextOverlay = collecting;
+            }
+            return source.get()
+                    .publishOn(Schedulers.parallel())
+                    .map(CatalogueSnapshot::of)
+                    .doOnNext(base -> {
+                        synchronized (this) {
+                            state = new State(base, collecting);
+                            nextOverlay = null;
+                        }
+                    })
+                    .doFinally(signal -> {
+                        synchronized (this) {
+                            if (nextOverlay == collecting) {
+                                nextOverlay = null;
+                            }
+                        }
+                        rebuilding.set(false);
+                    });
+        });
+    }
+
+    private Mono<List<MovieInfo>> compacted() {
+        return Mono.fromCallable(() -> {
+            State current = state;
+            Map<String, MovieInfo> merged = current.base.findAll().stream()
+                    .collect(Collectors.toMap(MovieInfo::getMovieInfoId, movieInfo -> movieInfo));
+            current.overlay.forEach((id, value) -> {
+                if (value == DELETED) {
+                    merged.remove(id);
+                } else {
+                    merged.put(id, value);
+                }
+            });
+            return new ArrayList<>(merged.values());
+        });
+    }
+
+    private static List<MovieInfo> merge(State state, List<MovieInfo> fromBase, Predicate<MovieInfo> matches) {
+        if (state.overlay.isEmpty()) {
+            return fromBase;
+        }
+        return Stream.concat(
+                        fromBase.stream().filter(movieInfo -> !state.overlay.containsKey(movieInfo.getMovieInfoId())),
+                        state.overlay.values().stream().filter(value -> value != DELETED && matches.test(value)).map(MovieInfoSnapshot::copy))
+                .collect(Collectors.toList());
+    }
+
+    private static MovieInfoEvent toEvent(ChangeStreamEvent<MovieInfo> change) {
+        OperationType operation = change.getOperationType();
+        if (operation == OperationType.DELETE) {
+            String movieInfoId = idOf(change);
+            return movieInfoId == null ? null : MovieInfoEvent.builder()
+                    .type(MovieInfoEvent.Type.DELETED).movieInfoId(movieInfoId).build();
+        }
+        MovieInfo movieInfo = change.getBody();
+        if (movieInfo == null) {
+            return null;
+        }
+        return MovieInfoEvent.of(MovieInfoEvent.Type.UPDATED, movieInfo);
+    }
+
+    private static String idOf(ChangeStreamEvent<MovieInfo> change) {
+        if (change.getRaw() == null || change.getRaw().getDocumentKey() == null) {
+            return null;
+        }
+        BsonValue id = change.getRaw().getDocumentKey().get("_id");
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : null;
+    }
+
+    private static MovieInfo copy(MovieInfo movieInfo) {
+        return new MovieInfo(movieInfo.getMovieInfoId(), movieInfo.getName(), movieInfo.getYear(),
+                movieInfo.getCast() == null ? null : new ArrayList<>(movieInfo.getCast()), movieInfo.getReleaseDate());
+    }
+
+    private static class State {
+
+        final CatalogueSnapshot base;
+        final Map<String, MovieInfo> overlay;
+
+        State(CatalogueSnapshot base, Map<String, MovieInfo> overlay) {
+            this.base = base;
+            this.overlay = overlay;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.reactive.sse;
+
+/**
+ * What a connection does with a new event once its buffer is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Keep what is buffered and drop the new event.
+     */
+    DROP,
+
+    /**
+     * Drop the oldest buffered event, so the client always ends up with the most recent ones.
+     */
+    LATEST,
+
+    /**
+     * Replace a buffered event that has the same key, so a slow client only sees the last state of each key. If no
+     * buffered event has that key, the oldest one is dropped, as with {@link #LATEST}.
+     */
+    COALESCE
+}
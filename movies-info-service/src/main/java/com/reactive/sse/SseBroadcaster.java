@@ -0,0 +1,213 @@
+package com.reactive.sse;
+
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fans events from one source out to many SSE clients, and no client can slow down the source or any other client.
+ * {@link #publish} never blocks. It appends the event to a replay ring and to each connection's own buffer. Each
+ * buffer is bounded and applies the {@link OverflowPolicy} when full. A connection sends events only as fast as its
+ * client reads them, so memory per connection is at most {@code bufferSize} events.
+ * <p>
+ * Every event id is a sequence number. A reconnecting client that sends {@code Last-Event-ID} gets the events it
+ * missed from the replay ring. If they have already left the ring, it first gets a {@code reset} event and should
+ * reload its state. Idle connections receive a comment-only heartbeat, which keeps proxies from closing them.
+ */
+public class SseBroadcaster<T> {
+
+    public static final String RESET_EVENT = "reset";
+
+    private final String eventName;
+    private final Function<T, ?> keyOf;
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration heartbeat;
+    private final int replaySize;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong connectionIds = new AtomicLong();
+    private final Deque<Event<T>> replay = new ArrayDeque<>();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+
+    public SseBroadcaster(String eventName, Function<T, ?> keyOf, int bufferSize, OverflowPolicy overflowPolicy,
+                          Duration heartbeat, int replaySize) {
+        this.eventName = eventName;
+        this.keyOf = keyOf;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+        this.heartbeat = heartbeat;
+        this.replaySize = replaySize;
+    }
+
+    public void publish(T value) {
+        Object key = keyOf == null ? null : keyOf.apply(value);
+        List<Connection> targets;
+        // The lock orders events the same way in the ring and in every buffer, and lets connect() join without a gap
+        synchronized (replay) {
+            Event<T> event = new Event<>(sequence.incrementAndGet(), key, value, System.nanoTime());
+            replay.addLast(event);
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            targets = new ArrayList<>(connections);
+            targets.forEach(connection -> connection.offer(event));
+        }
+        targets.forEach(Connection::drain);
+    }
+
+    public Flux<ServerSentEvent<T>> connect(String lastEventId) {
+
+        Flux<ServerSentEvent<T>> events = Flux.create(sink -> {
+            Connection connection = new Connection(connectionIds.incrementAndGet(), sink);
+            Long lastSeen = parse(lastEventId);
+            synchronized (replay) {
+                connections.add(connection);
+                connection.lastSentSequence = lastSeen == null ? sequence.get() : Math.max(0, lastSeen);
+                if (lastSeen != null) {
+                    long oldest = replay.isEmpty() ? sequence.get() + 1 : replay.peekFirst().sequence;
+                    connection.resetPending = lastSeen + 1 < oldest || lastSeen > sequence.get();
+                    replay.stream().filter(event -> event.sequence > lastSeen).forEach(connection::offer);
+                }
+            }
+            sink.onRequest(requested -> connection.drain());
+            sink.onDispose(() -> connections.remove(connection));
+        }, FluxSink.OverflowStrategy.ERROR);
+
+        if (heartbeat.isZero() || heartbeat.isNegative()) {
+            return events;
+        }
+        Flux<ServerSentEvent<T>> heartbeats = Flux.interval(heartbeat)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<T>builder().comment("heartbeat").build());
+        // A prefetch of 1 passes the client's demand through, so events stay in the bounded buffer until they can be sent
+        return Flux.merge(1, events, heartbeats);
+    }
+
+    public List<SseConnectionStats> connections() {
+        long latest = sequence.get();
+        return connections.stream().map(connection -> connection.stats(latest)).collect(Collectors.toList());
+    }
+
+    private static Long parse(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(lastEventId.trim());
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
+
+    private static class Event<T> {
+
+        final long sequence;
+        final Object key;
+        final T value;
+        final long publishedAtNanos;
+
+        Event(long sequence, Object key, T value, long publishedAtNanos) {
+            this.sequence = sequence;
+            this.key = key;
+            this.value = value;
+            this.publishedAtNanos = publishedAtNanos;
+        }
+    }
+
+    private class Connection {
+
+        final long id;
+        final FluxSink<ServerSentEvent<T>> sink;
+        // Keyed by the event key when coalescing, by sequence otherwise; iteration order is oldest first
+        final Map<Object, Event<T>> buffer = new LinkedHashMap<>();
+        final AtomicInteger wip = new AtomicInteger();
+
+        boolean resetPending;
+        long sent;
+        long dropped;
+        long coalesced;
+        long lastSentSequence;
+
+        Connection(long id, FluxSink<ServerSentEvent<T>> sink) {
+            this.id = id;
+            this.sink = sink;
+        }
+
+        synchronized void offer(Event<T> event) {
+            Object slot = overflowPolicy == OverflowPolicy.COALESCE && event.key != null ? event.key : event.sequence;
+            if (buffer.remove(slot) != null) {
+                coalesced++;
+            } else if (buffer.size() >= bufferSize) {
+                if (overflowPolicy == OverflowPolicy.DROP) {
+                    dropped++;
+                    return;
+                }
+                Iterator<Object> oldest = buffer.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+                dropped++;
+            }
+            buffer.put(slot, event);
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+                    ServerSentEvent<T> next = poll();
+                    if (next == null) {
+                        break;
+                    }
+                    sink.next(next);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private synchronized ServerSentEvent<T> poll() {
+            if (resetPending) {
+                resetPending = false;
+                return ServerSentEvent.<T>builder().event(RESET_EVENT).build();
+            }
+            Iterator<Event<T>> oldest = buffer.values().iterator();
+            if (!oldest.hasNext()) {
+                return null;
+            }
+            Event<T> event = oldest.next();
+            oldest.remove();
+            sent++;
+            lastSentSequence = event.sequence;
+            return ServerSentEvent.<T>builder()
+                    .id(String.valueOf(event.sequence))
+                    .event(eventName)
+                    .data(event.value)
+                    .build();
+        }
+
+        synchronized SseConnectionStats stats(long latest) {
+            Iterator<Event<T>> oldest = buffer.values().iterator();
+            long lagMillis = oldest.hasNext() ? (System.nanoTime() - oldest.next().publishedAtNanos) / 1_000_000 : 0;
+            return new SseConnectionStats(id, buffer.size(), sent, dropped, coalesced,
+                    Math.max(0, latest - lastSentSequence), lagMillis);
+        }
+    }
+}
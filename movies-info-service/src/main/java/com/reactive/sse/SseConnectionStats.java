@@ -0,0 +1,23 @@
+package com.reactive.sse;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SseConnectionStats {
+
+    private long connectionId;
+    private int buffered;
+    private long sent;
+    private long dropped;
+    private long coalesced;
+    /**
+     * Events published but not yet sent to this client.
+     */
+    private long lagEvents;
+    /**
+     * Age of the oldest buffered event.
+     */
+    private long lagMillis;
+}
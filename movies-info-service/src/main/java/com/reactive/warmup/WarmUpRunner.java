@@ -0,0 +1,103 @@
+package com.reactive.warmup;
+
+import com.reactive.config.WarmUpProperties;
+import com.reactive.dao.model.MovieInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Warms a fresh instance up before it reports ready: opens the Mongo pool, pulls the hottest movie infos (the
+ * configured ids, or else the most recently created ones) and their review snapshots into Mongo's cache, and calls
+ * the main routes over loopback so the JIT has compiled them before real traffic arrives.
+ * A failed or timed out warm-up still marks the instance warm, so it can't keep an instance out of rotation.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WarmUpRunner {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final WebClient.Builder webClientBuilder;
+    private final Environment environment;
+    private final WarmUpProperties warmUpProperties;
+
+    private volatile boolean complete;
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+
+        if (!warmUpProperties.isEnabled()) {
+            complete = true;
+            return;
+        }
+
+        long start = System.nanoTime();
+        openConnections()
+                .then(hotMovieInfos())
+                .flatMap(this::exerciseRoutes)
+                .timeout(warmUpProperties.getTimeout())
+                .doOnError(ex -> log.warn("Warm-up did not finish, accepting traffic anyway: {}", ex.getMessage()))
+                .onErrorResume(ex -> Mono.empty())
+                .doFinally(signalType -> {
+                    complete = true;
+                    log.info("Warm-up finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+                })
+                .subscribe();
+    }
+
+    private Mono<Void> openConnections() {
+
+        return Flux.range(0, warmUpProperties.getMongoConnections())
+                .flatMap(i -> reactiveMongoTemplate.executeCommand(new Document("ping", 1)), warmUpProperties.getMongoConnections())
+                .then();
+    }
+
+    private Mono<List<MovieInfo>> hotMovieInfos() {
+
+        Query query = warmUpProperties.getHotMovieInfoIds().isEmpty()
+                ? new Query().with(Sort.by(Sort.Direction.DESC, "movieInfoId")).limit(warmUpProperties.getHotMovieInfoCount())
+                : Query.query(Criteria.where("movieInfoId").in(warmUpProperties.getHotMovieInfoIds()));
+
+        return reactiveMongoTemplate.find(query, MovieInfo.class).collectList();
+    }
+
+    private Mono<Void> exerciseRoutes(List<MovieInfo> movieInfos) {
+
+        if (movieInfos.isEmpty()) {
+            return Mono.empty();
+        }
+
+        WebClient webClient = webClientBuilder.baseUrl("http://localhost:" + environment.getProperty("local.server.port", "8080")).build();
+        List<String> uris = movieInfos.stream()
+                .flatMap(movieInfo -> List.of(
+                        "/v1/movieinfos/" + movieInfo.getMovieInfoId(),
+                        "/v1/movieinfos/" + movieInfo.getMovieInfoId() + "?include=reviews",
+                        "/v1/movieinfos?year=" + movieInfo.getYear()).stream())
+                .collect(Collectors.toList());
+
+        return Flux.range(0, warmUpProperties.getIterations())
+                .map(i -> uris.get(i % uris.size()))
+                .flatMap(uri -> webClient.get().uri(uri).retrieve().toBodilessEntity()
+                        .onErrorResume(ex -> Mono.empty()), warmUpProperties.getConcurrency())
+                .then();
+    }
+}
@@ -233,4 +233,19 @@ class MovieInfoControllerIntegrationTest {
                     assertThat(movieInfoList.size()).isEqualTo(2);
                 });
     }
-}
\ No newline at end of file
+
+    @Test
+    void findMovieInfoByName() {
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(MOVIE_INFOS_URI).queryParam("name", "Dark Knight Rises").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(MovieInfo.class)
+                .consumeWith(listEntityExchangeResult -> {
+                    List<MovieInfo> movieInfoList = listEntityExchangeResult.getResponseBody();
+                    assertThat(movieInfoList.size()).isEqualTo(1);
+                    assertThat(movieInfoList.get(0).getMovieInfoId()).isEqualTo("abc");
+                });
+    }
+}
@@ -159,37 +159,4 @@ class MovieInfoRepositoryIntegrationTest {
                 .expectNextCount(3)
                 .verifyComplete();
     }
-
-    @Test
-    void findAllByYear() {
-
-        Flux<MovieInfo> movieInfoFlux = movieInfoRepository.findByYear(2005).log();
-
-        StepVerifier.create(movieInfoFlux)
-                .consumeNextWith(movieInfo -> {
-                    assertThat(movieInfo).isNotNull();
-                    assertThat(movieInfo.getYear()).isEqualTo(2005);
-                }).expectNextCount(1)
-                .verifyComplete();
-    }
-
-    @Test
-    void findByName() throws InterruptedException {
-
-        CountDownLatch countDownLatch = new CountDownLatch(1);
-        String movieName = "Dark Knight Rises";
-        Mono<MovieInfo> movieInfoMono = movieInfoRepository.findByName(movieName);
-
-        StepVerifier.create(movieInfoMono)
-                .consumeNextWith(movieInfo -> {
-                    assertThat(movieInfo).isNotNull();
-                    assertThat(movieInfo.getName()).isEqualTo(movieName);
-                    countDownLatch.countDown();
-                }).verifyComplete();
-
-        countDownLatch.await(1000, TimeUnit.MILLISECONDS);
-        assertThat(countDownLatch.getCount()).isEqualTo(0);
-
-    }
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.reactive.test.unit;
+
+import com.reactive.dao.model.MovieInfo;
+import com.reactive.dao.model.ReviewSnapshot;
+import com.reactive.dao.model.ReviewSummary;
+import com.reactive.event.MovieInfoEvent;
+import com.reactive.outbox.OutboxEvent;
+import com.reactive.schema.CompactFieldNames;
+import com.reactive.schema.CompactFieldNamingStrategy;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactFieldNamesTest {
+
+    private final MappingMongoConverter full = converter(false);
+    private final MappingMongoConverter compact = converter(true);
+
+    @Test
+    void compactStrategyWritesShortNamesAndMapsQueries() {
+
+        Document document = write(compact, movieInfo());
+
+        assertThat(document).containsKeys("_id", "n", "y", "c", "d", "r").doesNotContainKeys("name", "year", "topReviews");
+        assertThat(document.get("r", Document.class)).containsKeys("l", "n", "s");
+        assertThat(document.get("r", Document.class).getList("l", Document.class).get(0)).containsKeys("i", "c", "r");
+        assertThat(compact.read(MovieInfo.class, document)).isEqualTo(movieInfo());
+
+        Query byYear = Query.query(Criteria.where("year").is(2005));
+        assertThat(new QueryMapper(compact).getMappedObject(byYear.getQueryObject(),
+                compact.getMappingContext().getPersistentEntity(MovieInfo.class))).containsKey("y");
+    }
+
+    @Test
+    void rewriteConvertsStoredDocumentsBothWays() {
+
+        Document document = write(full, movieInfo());
+
+        assertThat(CompactFieldNames.rewrite(document, MovieInfo.class, CompactFieldNames.COMPACT)).isTrue();
+        assertThat(document).isEqualTo(write(compact, movieInfo()));
+        assertThat(CompactFieldNames.rewrite(document, MovieInfo.class, CompactFieldNames.COMPACT)).isFalse();
+
+        assertThat(CompactFieldNames.rewrite(document, MovieInfo.class, CompactFieldNames.FULL)).isTrue();
+        assertThat(full.read(MovieInfo.class, document)).isEqualTo(movieInfo());
+    }
+
+    @Test
+    void rewriteReachesMovieInfosInsideOutboxEvents() {
+
+        OutboxEvent outboxEvent = OutboxEvent.builder().aggregateType("MovieInfo").type("CREATED")
+                .payload(MovieInfoEvent.of(MovieInfoEvent.Type.CREATED, movieInfo())).build();
+        Document document = write(full, outboxEvent);
+
+        CompactFieldNames.rewrite(document, OutboxEvent.class, CompactFieldNames.COMPACT);
+
+        MovieInfoEvent payload = (MovieInfoEvent) compact.read(OutboxEvent.class, document).getPayload();
+        assertThat(payload.getMovieInfo()).isEqualTo(movieInfo());
+    }
+
+    @Test
+    void compactLayoutIsSmaller() {
+
+        assertThat(size(write(compact, movieInfo()))).isLessThan(size(write(full, movieInfo())));
+    }
+
+    private static Document write(MappingMongoConverter converter, Object entity) {
+        Document document = new Document();
+        converter.write(entity, document);
+        return document;
+    }
+
+    private static int size(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().remaining();
+    }
+
+    private static MovieInfo movieInfo() {
+        MovieInfo movieInfo = new MovieInfo("631b19fd61b52a21d88c3b01", "Batman Begins", 2005,
+                List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
+        movieInfo.setTopReviews(new ReviewSnapshot(List.of(new ReviewSummary("r1", "Great", 9.0)), 1L, 9.0));
+        return movieInfo;
+    }
+
+    private static MappingMongoConverter converter(boolean compactNames) {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        if (compactNames) {
+            mappingContext.setFieldNamingStrategy(new CompactFieldNamingStrategy());
+        }
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
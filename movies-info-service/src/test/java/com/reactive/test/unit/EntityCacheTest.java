@@ -0,0 +1,147 @@
+package com.reactive.test.unit;
+
+import com.reactive.cache.EntityCache;
+import com.reactive.cache.InMemoryDistributedCache;
+import com.reactive.cache.MovieInfoCodec;
+import com.reactive.dao.model.MovieInfo;
+import com.reactive.dao.model.ReviewSnapshot;
+import com.reactive.dao.model.ReviewSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityCacheTest {
+
+    private final InMemoryDistributedCache distributedCache = new InMemoryDistributedCache();
+    private final EntityCache<MovieInfo> instanceA = newCache();
+    private final EntityCache<MovieInfo> instanceB = newCache();
+
+    @AfterEach
+    void tearDown() {
+        instanceA.dispose();
+        instanceB.dispose();
+    }
+
+    @Test
+    void codecRoundTrip() {
+
+        MovieInfo movieInfo = movieInfo("abc", "Batman Begins");
+        movieInfo.setTopReviews(new ReviewSnapshot(List.of(new ReviewSummary("r1", "Great", 9.0)), 1L, 9.0));
+
+        MovieInfoCodec codec = new MovieInfoCodec();
+
+        assertThat(codec.decode(codec.encode(movieInfo))).isEqualTo(movieInfo);
+        assertThat(codec.decode(codec.encode(new MovieInfo()))).isEqualTo(new MovieInfo());
+    }
+
+    @Test
+    void codecRoundTripsStringsBeyond64KB() {
+
+        MovieInfo movieInfo = movieInfo("abc", "Batman Begins");
+        movieInfo.setTopReviews(new ReviewSnapshot(List.of(new ReviewSummary("r1", "é".repeat(40_000), 9.0)), 1L, 9.0));
+
+        MovieInfoCodec codec = new MovieInfoCodec();
+
+        assertThat(codec.decode(codec.encode(movieInfo))).isEqualTo(movieInfo);
+    }
+
+    @Test
+    void undecodableEntryIsAMiss() {
+
+        distributedCache.put("test:movieinfo:abc", new byte[]{2, 0, 0, 0}, Duration.ofMinutes(1)).block();
+        MovieInfo movieInfo = movieInfo("abc", "Batman Begins");
+
+        assertThat(instanceA.get("abc", id -> Mono.just(movieInfo)).block()).isEqualTo(movieInfo);
+        assertThat(instanceB.getAll(List.of("abc"), ids -> Flux.just(movieInfo)).collectList().block()).containsExactly(movieInfo);
+    }
+
+    @Test
+    void readThroughIsSharedBetweenInstances() {
+
+        AtomicInteger loads = new AtomicInteger();
+        MovieInfo movieInfo = movieInfo("abc", "Batman Begins");
+
+        assertThat(instanceA.get("abc", id -> {
+            loads.incrementAndGet();
+            return Mono.just(movieInfo);
+        }).block()).isEqualTo(movieInfo);
+        assertThat(instanceB.get("abc", id -> {
+            loads.incrementAndGet();
+            return Mono.empty();
+        }).block()).isEqualTo(movieInfo);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void getAllLoadsOnlyTheMissesInOneCall() {
+
+        instanceA.get("abc", id -> Mono.just(movieInfo("abc", "Batman Begins"))).block();
+        List<Collection<String>> loaderCalls = new ArrayList<>();
+
+        List<MovieInfo> movieInfos = instanceB.getAll(List.of("def", "abc", "missing"), ids -> {
+            loaderCalls.add(ids);
+            return Flux.just(movieInfo("def", "The Dark Knight"));
+        }).collectList().block();
+
+        assertThat(movieInfos).extracting(MovieInfo::getMovieInfoId).containsExactly("def", "abc");
+        assertThat(loaderCalls).hasSize(1);
+        assertThat(loaderCalls.get(0)).containsExactlyInAnyOrder("def", "missing");
+    }
+
+    @Test
+    void invalidationReachesEveryInstance() {
+
+        instanceA.get("abc", id -> Mono.just(movieInfo("abc", "Batman Begins"))).block();
+        instanceB.get("abc", id -> Mono.empty()).block();
+
+        instanceA.invalidate(List.of("abc")).block();
+
+        assertThat(instanceB.get("abc", id -> Mono.just(movieInfo("abc", "Batman Begins (2005)"))).block())
+                .extracting(MovieInfo::getName)
+                .isEqualTo("Batman Begins (2005)");
+    }
+
+    @Test
+    void valueLoadedDuringAnInvalidationIsNotCached() {
+
+        MovieInfo stale = movieInfo("abc", "Batman Begins");
+
+        assertThat(instanceA.get("abc", id -> instanceB.invalidate(List.of("abc")).thenReturn(stale)).block()).isEqualTo(stale);
+
+        assertThat(instanceA.get("abc", id -> Mono.just(movieInfo("abc", "Batman Begins (2005)"))).block())
+                .extracting(MovieInfo::getName)
+                .isEqualTo("Batman Begins (2005)");
+    }
+
+    @Test
+    void embeddedSharedCacheIsBounded() {
+
+        InMemoryDistributedCache bounded = new InMemoryDistributedCache(10);
+        for (int i = 0; i < 25; i++) {
+            bounded.put("key" + i, new byte[]{1}, Duration.ofMinutes(1)).block();
+        }
+
+        assertThat(bounded.size()).isLessThanOrEqualTo(10);
+        assertThat(bounded.get("key24").block()).isNotNull();
+    }
+
+    private EntityCache<MovieInfo> newCache() {
+        return new EntityCache<>("test:movieinfo:", distributedCache, new MovieInfoCodec(), MovieInfo::getMovieInfoId,
+                Duration.ofMinutes(1), 100, Duration.ofMinutes(1));
+    }
+
+    private static MovieInfo movieInfo(String movieInfoId, String name) {
+        return new MovieInfo(movieInfoId, name, 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.reactive.test.unit;
+
+import com.reactive.facet.FacetIndex;
+import com.reactive.facet.FacetResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacetIndexTest {
+
+    private final FacetIndex index = new FacetIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.put("a", 2005, List.of("Christian Bale", "Michael Cane"), 8.5);
+        index.put("b", 2008, List.of("Christian Bale", "HeathLedger"), 9.0);
+        index.put("c", 2012, List.of("Christian Bale", "Tom Hardy"), 7.9);
+        index.put("d", 2006, List.of("Hugh Jackman", "Christian Bale", "Michael Cane"), null);
+    }
+
+    @Test
+    void combinesYearRangeCastAndRating() {
+
+        FacetResult result = index.search(2005, 2010, "Michael Cane", 8.0, 0, 10, 10);
+
+        assertThat(result.getTotal()).isEqualTo(1);
+        assertThat(result.getMovieInfoIds()).containsExactly("a");
+        assertThat(result.getYears()).containsExactly(Map.entry(2005, 1L));
+        assertThat(result.getRatings()).containsExactly(Map.entry(8, 1L));
+    }
+
+    @Test
+    void minRatingChecksTheBoundaryBucketExactly() {
+
+        assertThat(index.search(null, null, null, 8.6, 0, 10, 10).getMovieInfoIds()).containsExactly("b");
+        assertThat(index.search(null, null, null, 7.9, 0, 10, 10).getMovieInfoIds()).containsExactly("a", "b", "c");
+        assertThat(index.search(null, null, null, 10.5, 0, 10, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void countsFacetsOverAllMatchesAndPages() {
+
+        FacetResult result = index.search(null, null, "Christian Bale", null, 1, 2, 2);
+
+        assertThat(result.getTotal()).isEqualTo(4);
+        assertThat(result.getMovieInfoIds()).containsExactly("b", "c");
+        assertThat(result.getYears()).containsOnlyKeys(2005, 2006, 2008, 2012);
+        assertThat(result.getCast()).containsExactly(Map.entry("Christian Bale", 4L), Map.entry("Michael Cane", 2L));
+    }
+
+    @Test
+    void updatesAndRemovalsAreIncremental() {
+
+        index.put("a", 2020, List.of("Tom Hardy"), 8.5);
+        index.updateRating("c", 9.5);
+        index.remove("b");
+        index.put("e", 2008, List.of("Christian Bale"), null);
+
+        assertThat(index.search(2005, 2005, null, null, 0, 10, 10).getTotal()).isZero();
+        assertThat(index.search(null, null, "Tom Hardy", 9.0, 0, 10, 10).getMovieInfoIds()).containsExactly("c");
+        assertThat(index.search(2008, 2008, null, null, 0, 10, 10).getMovieInfoIds()).containsExactly("e");
+        assertThat(index.search(null, null, "HeathLedger", null, 0, 10, 10).getTotal()).isZero();
+        assertThat(index.size()).isEqualTo(4);
+    }
+}
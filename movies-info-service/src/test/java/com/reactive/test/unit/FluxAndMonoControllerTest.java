@@ -1,10 +1,12 @@
 package com.reactive.test.unit;
 
+import com.reactive.config.CommonConfig;
 import com.reactive.controller.FluxAndMonoController;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
@@ -16,6 +18,7 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
 @AutoConfigureWebTestClient
 @WebFluxTest(FluxAndMonoController.class)
+@Import(CommonConfig.class)
 class FluxAndMonoControllerTest {
 
     @Autowired
@@ -0,0 +1,73 @@
+package com.reactive.test.unit;
+
+import com.reactive.config.CommonConfig;
+import com.reactive.controller.HealthController;
+import com.reactive.warmup.WarmUpRunner;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.mockito.Mockito.when;
+
+@AutoConfigureWebTestClient
+@WebFluxTest(HealthController.class)
+@Import(CommonConfig.class)
+class HealthControllerUnitTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ApplicationAvailability applicationAvailabilityMock;
+
+    @MockBean
+    private WarmUpRunner warmUpRunnerMock;
+
+    @Test
+    void liveness() {
+
+        when(applicationAvailabilityMock.getLivenessState()).thenReturn(LivenessState.CORRECT);
+
+        webTestClient.get()
+                .uri("/health/liveness")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("UP");
+    }
+
+    @Test
+    void readinessDuringWarmUp() {
+
+        when(applicationAvailabilityMock.getReadinessState()).thenReturn(ReadinessState.ACCEPTING_TRAFFIC);
+        when(warmUpRunnerMock.isComplete()).thenReturn(false);
+
+        webTestClient.get()
+                .uri("/health/readiness")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("OUT_OF_SERVICE");
+    }
+
+    @Test
+    void readinessAfterWarmUp() {
+
+        when(applicationAvailabilityMock.getReadinessState()).thenReturn(ReadinessState.ACCEPTING_TRAFFIC);
+        when(warmUpRunnerMock.isComplete()).thenReturn(true);
+
+        webTestClient.get()
+                .uri("/health/readiness")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("UP");
+    }
+}
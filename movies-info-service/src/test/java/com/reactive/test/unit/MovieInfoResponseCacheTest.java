@@ -0,0 +1,147 @@
+package com.reactive.test.unit;
+
+import com.reactive.cache.MovieInfoResponseCache;
+import com.reactive.config.ResponseCacheProperties;
+import com.reactive.dao.model.MovieInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovieInfoResponseCacheTest {
+
+    private final ResponseCacheProperties properties = new ResponseCacheProperties();
+    private final MovieInfoResponseCache cache = new MovieInfoResponseCache(Jackson2ObjectMapperBuilder.json().build(), properties);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        cache.clear();
+    }
+
+    @Test
+    void servesEncodedBytesWithoutReloading() {
+
+        ResponseEntity<Object> first = get("abc", MockServerHttpRequest.get("/").build());
+        ResponseEntity<Object> second = get("abc", MockServerHttpRequest.get("/").build());
+
+        assertThat(loads).hasValue(1);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+        assertThat(body(first)).isEqualTo(body(second)).contains("\"name\":\"Batman Begins\"");
+        assertThat(second.getHeaders().getContentLength()).isEqualTo(body(first).getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void answersMatchingEtagWithNotModified() {
+
+        String etag = get("abc", MockServerHttpRequest.get("/").build()).getHeaders().getETag();
+
+        ResponseEntity<Object> response = get("abc", MockServerHttpRequest.get("/").ifNoneMatch(etag).build());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void servesPrecompressedBytesToGzipClients() throws IOException {
+
+        properties.setCompressMinSize(DataSize.ofBytes(0));
+        get("abc", MockServerHttpRequest.get("/").build());
+
+        ResponseEntity<Object> response = get("abc", MockServerHttpRequest.get("/").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br").build());
+
+        assertThat(loads).hasValue(1);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        DataBuffer buffer = (DataBuffer) response.getBody();
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes(buffer)))) {
+            assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).contains("Batman Begins");
+        }
+    }
+
+    @Test
+    void invalidateDropsTheEncodedResponse() {
+
+        get("abc", MockServerHttpRequest.get("/").build());
+        cache.invalidate("abc");
+        get("abc", MockServerHttpRequest.get("/").build());
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidationDuringLoadSkipsCaching() {
+
+        cache.get("abc", MockServerHttpRequest.get("/").build(), id -> {
+            cache.invalidate(id);
+            return load(id);
+        }).map(MovieInfoResponseCacheTest::release).block();
+        get("abc", MockServerHttpRequest.get("/").build());
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evictsBeyondMaxEntries() {
+
+        properties.setMaxEntries(1);
+        get("abc", MockServerHttpRequest.get("/").build());
+        get("def", MockServerHttpRequest.get("/").build());
+        get("abc", MockServerHttpRequest.get("/").build());
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void emptyWhenNotFound() {
+
+        assertThat(cache.get("missing", MockServerHttpRequest.get("/").build(), id -> Mono.empty()).block()).isNull();
+    }
+
+    private ResponseEntity<Object> get(String movieInfoId, MockServerHttpRequest request) {
+        ResponseEntity<Object> response = cache.get(movieInfoId, request, this::load).block();
+        assertThat(response).isNotNull();
+        return response;
+    }
+
+    private Mono<MovieInfo> load(String movieInfoId) {
+        loads.incrementAndGet();
+        return Mono.just(new MovieInfo(movieInfoId, "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"),
+                LocalDate.parse("2005-06-15")));
+    }
+
+    // Reads the body without consuming it, so that the same response can be read twice
+    private static String body(ResponseEntity<Object> response) {
+        return new String(bytes((DataBuffer) response.getBody()), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.asByteBuffer().get(bytes);
+        return bytes;
+    }
+
+    private static ResponseEntity<Object> release(ResponseEntity<Object> response) {
+        if (response.getBody() instanceof DataBuffer) {
+            DataBufferUtils.release((DataBuffer) response.getBody());
+        }
+        return response;
+    }
+}
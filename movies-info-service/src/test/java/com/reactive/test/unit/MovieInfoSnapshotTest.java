@@ -0,0 +1,123 @@
+package com.reactive.test.unit;
+
+import com.reactive.cache.MovieInfoResponseCache;
+import com.reactive.config.SnapshotProperties;
+import com.reactive.dao.model.MovieInfo;
+import com.reactive.event.MovieInfoEvent;
+import com.reactive.event.MovieInfoEventPublisher;
+import com.reactive.snapshot.CatalogueSnapshot;
+import com.reactive.snapshot.MovieInfoSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MovieInfoSnapshotTest {
+
+    private final List<MovieInfo> catalogue = List.of(
+            new MovieInfo("b", "The Dark Knight", 2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18")),
+            new MovieInfo("a", "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")),
+            new MovieInfo("c", "Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), null),
+            new MovieInfo("d", "The Prestige", 2006, null, LocalDate.parse("2006-10-20")));
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate = mock(ReactiveMongoTemplate.class);
+    private final MovieInfoEventPublisher movieInfoEventPublisher = new MovieInfoEventPublisher();
+    private final MovieInfoResponseCache responseCache = mock(MovieInfoResponseCache.class);
+    private final SnapshotProperties properties = new SnapshotProperties();
+    private final MovieInfoSnapshot snapshot = new MovieInfoSnapshot(reactiveMongoTemplate, movieInfoEventPublisher,
+            responseCache, properties);
+
+    @AfterEach
+    void tearDown() {
+        snapshot.destroy();
+    }
+
+    @Test
+    void compactStoreAnswersAllLookups() {
+
+        CatalogueSnapshot store = CatalogueSnapshot.of(catalogue);
+
+        assertThat(store.size()).isEqualTo(4);
+        assertThat(store.findById("b")).isEqualTo(catalogue.get(0));
+        assertThat(store.findById("c").getReleaseDate()).isNull();
+        assertThat(store.findById("d").getCast()).isNull();
+        assertThat(store.findById("x")).isNull();
+        assertThat(store.findByYear(2005)).containsExactly(catalogue.get(1));
+        assertThat(store.findByYear(1999)).isEmpty();
+        assertThat(store.findByName("Dark Knight Rises")).containsExactly(catalogue.get(2));
+        assertThat(store.findAll()).hasSize(4);
+        // Rows, cast members and both indexes: 4 * 6 + 6 + 4 + 4 ints
+        assertThat(store.offHeapBytes()).isEqualTo(4L * (24 + 6 + 4 + 4));
+    }
+
+    @Test
+    void servesLoadedCatalogueAndFollowsChanges() {
+
+        start();
+        assertThat(snapshot.isReady()).isTrue();
+        assertThat(snapshot.findById("a").block().getName()).isEqualTo("Batman Begins");
+
+        MovieInfo renamed = new MovieInfo("a", "Batman Begins (Director's Cut)", 2005, List.of("Christian Bale"), null);
+        movieInfoEventPublisher.publish(MovieInfoEvent.of(MovieInfoEvent.Type.UPDATED, renamed));
+        movieInfoEventPublisher.publish(MovieInfoEvent.of(MovieInfoEvent.Type.DELETED, catalogue.get(0)));
+        movieInfoEventPublisher.publish(MovieInfoEvent.of(MovieInfoEvent.Type.CREATED,
+                new MovieInfo("e", "Tenet", 2005, List.of("John David Washington"), null)));
+
+        assertThat(snapshot.findById("a").block()).isEqualTo(renamed);
+        assertThat(snapshot.findById("b").block()).isNull();
+        assertThat(snapshot.findByYear(2005).map(MovieInfo::getMovieInfoId).collectList().block()).containsExactlyInAnyOrder("a", "e");
+        assertThat(snapshot.findByName("Batman Begins").block()).isNull();
+        assertThat(snapshot.findByName("Tenet").block().getMovieInfoId()).isEqualTo("e");
+        verify(responseCache).invalidate("a");
+    }
+
+    @Test
+    void compactsTheOverlay() {
+
+        properties.setCompactThreshold(1);
+        start();
+
+        movieInfoEventPublisher.publish(MovieInfoEvent.of(MovieInfoEvent.Type.DELETED, catalogue.get(0)));
+        movieInfoEventPublisher.publish(MovieInfoEvent.of(MovieInfoEvent.Type.CREATED,
+                new MovieInfo("e", "Tenet", 2020, List.of("John David Washington"), null)));
+
+        // Compaction runs in the background; the answers stay the same before and after it
+        assertThat(snapshot.findById("b").block()).isNull();
+        assertThat(snapshot.findByYear(2020).collectList().block()).extracting(MovieInfo::getName).containsExactly("Tenet");
+    }
+
+    @Test
+    void returnedMovieInfosAreCopies() {
+
+        start();
+        movieInfoEventPublisher.publish(MovieInfoEvent.of(MovieInfoEvent.Type.CREATED,
+                new MovieInfo("e", "Tenet", 2020, List.of("John David Washington"), null)));
+
+        snapshot.findById("e").block().setName("changed");
+        snapshot.findById("a").block().getCast().clear();
+
+        assertThat(snapshot.findById("e").block().getName()).isEqualTo("Tenet");
+        assertThat(snapshot.findById("a").block().getCast()).hasSize(2);
+    }
+
+    private void start() {
+        when(reactiveMongoTemplate.find(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(MovieInfo.class)))
+                .thenReturn(Flux.fromIterable(catalogue));
+        properties.setEnabled(true);
+        snapshot.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!snapshot.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
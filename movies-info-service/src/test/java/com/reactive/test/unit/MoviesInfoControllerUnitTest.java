@@ -1,7 +1,14 @@
 package com.reactive.test.unit;
 
+import com.reactive.cache.MovieInfoResponseCache;
+import com.reactive.config.CommonConfig;
 import com.reactive.controller.MovieInfoController;
 import com.reactive.dao.model.MovieInfo;
+import com.reactive.dao.model.ReviewSnapshot;
+import com.reactive.dao.model.ReviewSummary;
+import com.reactive.event.MovieInfoEventPublisher;
+import com.reactive.event.MovieInfoSseStream;
+import com.reactive.outbox.OutboxLog;
 import com.reactive.service.MovieInfoServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +17,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -18,6 +27,7 @@ import java.net.URI;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.isA;
@@ -25,6 +35,7 @@ import static org.mockito.Mockito.when;
 
 @AutoConfigureWebTestClient
 @WebFluxTest(MovieInfoController.class)
+@Import(CommonConfig.class)
 public class MoviesInfoControllerUnitTest {
 
     @Autowired
@@ -33,6 +44,18 @@ public class MoviesInfoControllerUnitTest {
     @MockBean
     private MovieInfoServiceImpl movieInfoServiceMock;
 
+    @MockBean
+    private MovieInfoEventPublisher movieInfoEventPublisherMock;
+
+    @MockBean
+    private MovieInfoSseStream movieInfoSseStreamMock;
+
+    @MockBean
+    private MovieInfoResponseCache movieInfoResponseCacheMock;
+
+    @MockBean
+    private OutboxLog outboxLogMock;
+
     private List<MovieInfo> movieInfoList;
 
     static final String MOVIE_INFOS_URI = "/v1/movieinfos";
@@ -60,6 +83,53 @@ public class MoviesInfoControllerUnitTest {
                 .hasSize(3);
     }
 
+    @Test
+    void getMovieInfoByName(){
+
+        when(movieInfoServiceMock.findMovieInfoByName("Dark Knight Rises")).thenReturn(Mono.just(movieInfoList.get(2)));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(MOVIE_INFOS_URI).queryParam("name", "Dark Knight Rises").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void getMovieInfosByIds(){
+
+        when(movieInfoServiceMock.findMovieInfosByIds(List.of("abc", "def"))).thenReturn(Flux.just(movieInfoList.get(2)));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(MOVIE_INFOS_URI).queryParam("ids", "abc,def").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(1);
+
+        webTestClient.post()
+                .uri(MOVIE_INFOS_URI + "/lookup")
+                .bodyValue(List.of("abc", "def"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void getMovieInfosByNameWithFields(){
+
+        when(movieInfoServiceMock.findMovieInfos(null, "Batman Begins", Set.of("name"))).thenReturn(Flux.just(movieInfoList.get(1)));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(MOVIE_INFOS_URI).queryParam("name", "Batman Begins").queryParam("fields", "name").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(1);
+    }
+
     @Test
     void getMovieInfoById(){
 
@@ -78,6 +148,46 @@ public class MoviesInfoControllerUnitTest {
                 });
     }
 
+    @Test
+    void getMovieInfoByIdWithFields(){
+
+        when(movieInfoServiceMock.findMovieInfoById("abc", Set.of("name", "year")))
+                .thenReturn(Mono.just(MovieInfo.builder().movieInfoId("abc").name("Dark Knight Rises").year(2012).build()));
+
+        webTestClient.get()
+                .uri(MOVIE_INFOS_URI + "/{id}?fields=name,year", "abc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(MovieInfo.class)
+                .consumeWith(movieInfoEntityExchangeResult -> {
+                    MovieInfo movieInfo = movieInfoEntityExchangeResult.getResponseBody();
+                    assertThat(movieInfo).isNotNull();
+                    assertThat(movieInfo.getName()).isEqualTo("Dark Knight Rises");
+                    assertThat(movieInfo.getCast()).isNull();
+                });
+    }
+
+    @Test
+    void getMovieInfoByIdWithReviews(){
+
+        MovieInfo movieInfo = movieInfoList.get(2);
+        movieInfo.setTopReviews(ReviewSnapshot.builder()
+                .latest(List.of(ReviewSummary.builder().reviewId("r1").comment("Great").rating(9.0).build()))
+                .count(2L)
+                .ratingSum(17.0)
+                .build());
+        when(movieInfoServiceMock.findMovieInfoWithReviewsById("abc")).thenReturn(Mono.just(movieInfo));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(MOVIE_INFOS_URI + "/{id}").queryParam("include", "reviews").build("abc"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Dark Knight Rises")
+                .jsonPath("$.topReviews.latest[0].comment").isEqualTo("Great")
+                .jsonPath("$.topReviews.averageRating").isEqualTo(8.5);
+    }
+
     @Test
     void addMovieInfo() {
 
@@ -108,6 +218,33 @@ public class MoviesInfoControllerUnitTest {
                 });
     }
 
+    @Test
+    void addMovieInfos() {
+
+        when(movieInfoServiceMock.addMovieInfos(isA(Flux.class))).thenAnswer(invocation -> {
+            Flux<MovieInfo> movieInfos = invocation.getArgument(0);
+            return movieInfos.map(movieInfo -> {
+                movieInfo.setMovieInfoId("MockId-" + movieInfo.getYear());
+                return movieInfo;
+            });
+        });
+
+        webTestClient.post()
+                .uri(MOVIE_INFOS_URI + "/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(Flux.fromIterable(movieInfoList), MovieInfo.class)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(3)
+                .consumeWith(listEntityExchangeResult -> {
+                    var createdMovieInfos = listEntityExchangeResult.getResponseBody();
+                    assertThat(createdMovieInfos).isNotNull();
+                    assertThat(createdMovieInfos.get(0).getMovieInfoId()).isEqualTo("MockId-2005");
+                    assertThat(createdMovieInfos.get(2).getName()).isEqualTo("Dark Knight Rises");
+                });
+    }
+
     @Test
     void updateMovieInfo() {
 
@@ -0,0 +1,92 @@
+package com.reactive.test.unit;
+
+import com.mongodb.client.result.UpdateResult;
+import com.reactive.cache.MovieInfoCache;
+import com.reactive.config.ReviewSnapshotProperties;
+import com.reactive.dao.model.MovieInfo;
+import com.reactive.dao.model.ReviewSnapshot;
+import com.reactive.event.ReviewEvent;
+import com.reactive.event.ReviewRecord;
+import com.reactive.facet.MovieInfoFacets;
+import com.reactive.service.ReviewSnapshotService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReviewSnapshotServiceTest {
+
+    private static final String MOVIE_INFO_ID = "5f9b1b9b9c9d440000a1b2c3";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate = mock(ReactiveMongoTemplate.class);
+    private final MovieInfoCache movieInfoCache = mock(MovieInfoCache.class);
+    private final MovieInfoFacets movieInfoFacets = mock(MovieInfoFacets.class);
+    private final ReviewSnapshotProperties properties = new ReviewSnapshotProperties();
+    private final ReviewSnapshotService reviewSnapshotService = new ReviewSnapshotService(reactiveMongoTemplate, properties,
+            movieInfoCache, movieInfoFacets);
+
+    @BeforeEach
+    void setUp() {
+        properties.setSize(2);
+        when(reactiveMongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(MovieInfo.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(movieInfoCache.invalidate(anyString())).thenReturn(Mono.empty());
+        when(movieInfoFacets.refresh(anyString())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void eventOnlyUpdatesSnapshotsThatHaveNotSeenIt() {
+
+        ReviewEvent event = ReviewEvent.builder().type(ReviewEvent.Type.CREATED).reviewId("r1").movieInfoId(MOVIE_INFO_ID)
+                .rating(8.0).sequence(7L).build();
+
+        StepVerifier.create(reviewSnapshotService.apply(event)).verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(reactiveMongoTemplate).updateFirst(query.capture(), update.capture(), eq(MovieInfo.class));
+        assertThat(query.getValue().getQueryObject().get("topReviews.sequence"))
+                .isEqualTo(new Document("$not", new Document("$gte", 7L)));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class).get("topReviews.sequence")).isEqualTo(7L);
+    }
+
+    @Test
+    void rebuildReplacesSnapshotAsOfSequence() {
+
+        List<ReviewRecord> reviews = List.of(
+                review("r1", 6.0, Instant.parse("2022-01-01T00:00:00Z")),
+                review("r2", 8.0, Instant.parse("2022-03-01T00:00:00Z")),
+                review("r3", 10.0, Instant.parse("2022-02-01T00:00:00Z")));
+
+        StepVerifier.create(reviewSnapshotService.rebuild(MOVIE_INFO_ID, reviews, 42L)).verifyComplete();
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(reactiveMongoTemplate).updateFirst(any(Query.class), update.capture(), eq(MovieInfo.class));
+        ReviewSnapshot snapshot = (ReviewSnapshot) update.getValue().getUpdateObject().get("$set", Document.class).get("topReviews");
+        assertThat(snapshot.getCount()).isEqualTo(3L);
+        assertThat(snapshot.getRatingSum()).isEqualTo(24.0);
+        assertThat(snapshot.getSequence()).isEqualTo(42L);
+        assertThat(snapshot.getLatest()).extracting("reviewId").containsExactly("r2", "r3");
+        verify(movieInfoCache).invalidate(MOVIE_INFO_ID);
+    }
+
+    private static ReviewRecord review(String reviewId, double rating, Instant createdAt) {
+        return ReviewRecord.builder().reviewId(reviewId).movieInfoId(MOVIE_INFO_ID).rating(rating).createdAt(createdAt).build();
+    }
+}
@@ -0,0 +1,136 @@
+package com.reactive.test.unit;
+
+import com.reactive.sse.OverflowPolicy;
+import com.reactive.sse.SseBroadcaster;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseBroadcasterTest {
+
+    @Test
+    void coalescesBufferedEventsByKey() {
+
+        SseBroadcaster<String> broadcaster = broadcaster(OverflowPolicy.COALESCE, 10);
+
+        StepVerifier.create(broadcaster.connect(null), 0)
+                .then(() -> {
+                    broadcaster.publish("a:1");
+                    broadcaster.publish("b:1");
+                    broadcaster.publish("a:2");
+                })
+                .thenRequest(2)
+                .assertNext(event -> assertThat(event.data()).isEqualTo("b:1"))
+                .assertNext(event -> {
+                    assertThat(event.data()).isEqualTo("a:2");
+                    assertThat(event.id()).isEqualTo("3");
+                })
+                .then(() -> assertThat(broadcaster.connections().get(0).getCoalesced()).isEqualTo(1))
+                .thenCancel()
+                .verify();
+
+        assertThat(broadcaster.connections()).isEmpty();
+    }
+
+    @Test
+    void dropPolicyKeepsOldestEvents() {
+
+        SseBroadcaster<String> broadcaster = broadcaster(OverflowPolicy.DROP, 2);
+
+        StepVerifier.create(broadcaster.connect(null), 0)
+                .then(() -> {
+                    broadcaster.publish("a:1");
+                    broadcaster.publish("b:1");
+                    broadcaster.publish("c:1");
+                })
+                .then(() -> {
+                    assertThat(broadcaster.connections().get(0).getDropped()).isEqualTo(1);
+                    assertThat(broadcaster.connections().get(0).getLagEvents()).isEqualTo(3);
+                })
+                .thenRequest(3)
+                .assertNext(event -> assertThat(event.data()).isEqualTo("a:1"))
+                .assertNext(event -> assertThat(event.data()).isEqualTo("b:1"))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void latestPolicyKeepsNewestEvents() {
+
+        SseBroadcaster<String> broadcaster = broadcaster(OverflowPolicy.LATEST, 2);
+
+        StepVerifier.create(broadcaster.connect(null), 0)
+                .then(() -> {
+                    broadcaster.publish("a:1");
+                    broadcaster.publish("b:1");
+                    broadcaster.publish("c:1");
+                })
+                .thenRequest(3)
+                .assertNext(event -> assertThat(event.data()).isEqualTo("b:1"))
+                .assertNext(event -> assertThat(event.data()).isEqualTo("c:1"))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void resumesFromLastEventId() {
+
+        SseBroadcaster<String> broadcaster = broadcaster(OverflowPolicy.COALESCE, 10);
+        broadcaster.publish("a:1");
+        broadcaster.publish("b:1");
+        broadcaster.publish("c:1");
+
+        StepVerifier.create(broadcaster.connect("1"))
+                .assertNext(event -> assertThat(event.id()).isEqualTo("2"))
+                .assertNext(event -> assertThat(event.id()).isEqualTo("3"))
+                .then(() -> broadcaster.publish("d:1"))
+                .assertNext(event -> assertThat(event.id()).isEqualTo("4"))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void sendsResetWhenMissedEventsLeftTheReplayBuffer() {
+
+        SseBroadcaster<String> broadcaster = new SseBroadcaster<>("test", SseBroadcasterTest::key, 10,
+                OverflowPolicy.COALESCE, Duration.ZERO, 2);
+        broadcaster.publish("a:1");
+        broadcaster.publish("b:1");
+        broadcaster.publish("c:1");
+        broadcaster.publish("d:1");
+
+        StepVerifier.create(broadcaster.connect("1"))
+                .assertNext(event -> assertThat(event.event()).isEqualTo(SseBroadcaster.RESET_EVENT))
+                .assertNext(event -> assertThat(event.id()).isEqualTo("3"))
+                .assertNext(event -> assertThat(event.id()).isEqualTo("4"))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void sendsHeartbeatsWhileIdle() {
+
+        SseBroadcaster<String> broadcaster = new SseBroadcaster<>("test", SseBroadcasterTest::key, 10,
+                OverflowPolicy.COALESCE, Duration.ofSeconds(15), 10);
+
+        StepVerifier.withVirtualTime(() -> broadcaster.connect(null))
+                .thenAwait(Duration.ofSeconds(15))
+                .assertNext(event -> {
+                    assertThat(event.comment()).isEqualTo("heartbeat");
+                    assertThat(event.data()).isNull();
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    private static SseBroadcaster<String> broadcaster(OverflowPolicy policy, int bufferSize) {
+        return new SseBroadcaster<>("test", SseBroadcasterTest::key, bufferSize, policy, Duration.ZERO, 100);
+    }
+
+    private static String key(String value) {
+        return value.substring(0, value.indexOf(':'));
+    }
+}
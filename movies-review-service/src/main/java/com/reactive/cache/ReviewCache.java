@@ -0,0 +1,90 @@
+package com.reactive.cache;
+
+import com.reactive.config.CacheProperties;
+import com.reactive.dao.model.Review;
+import com.reactive.service.ReviewCommentStore;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Caches reviews by id, and the review ids of each movie for the by-movie listing. Without a {@link DistributedCache}
+ * bean ({@code movies-review.cache.enabled=false}) every call goes straight to the loader. With split comments the
+ * cached reviews are stored without them.
+ */
+@Component
+public class ReviewCache implements DisposableBean {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ReviewCommentStore commentStore;
+    private final EntityCache<Review> entityCache;
+
+    public ReviewCache(ReactiveMongoTemplate reactiveMongoTemplate, ObjectProvider<DistributedCache> distributedCache,
+                       CacheProperties cacheProperties, ReviewCommentStore commentStore) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.commentStore = commentStore;
+        DistributedCache cache = distributedCache.getIfAvailable();
+        this.entityCache = cache == null ? null : new EntityCache<>("movies-review:review:", cache, new ReviewCodec(),
+                Review::getReviewId, cacheProperties.getTtl(), cacheProperties.getNearCacheSize(),
+                cacheProperties.getNearCacheTtl());
+    }
+
+    public Mono<Review> findById(String reviewId, Function<String, Mono<Review>> loader) {
+        return entityCache == null ? loader.apply(reviewId) : entityCache.get(reviewId, loader);
+    }
+
+    public Flux<Review> findByMovieInfoId(String movieInfoId, Function<String, Flux<Review>> loader) {
+
+        if (entityCache == null) {
+            return loader.apply(movieInfoId);
+        }
+
+        Query ids = Query.query(Criteria.where("movieInfoId").is(movieInfoId));
+        ids.fields().include("reviewId");
+
+        return entityCache.getIds(movieKey(movieInfoId), () -> reactiveMongoTemplate.find(ids, Review.class).map(Review::getReviewId))
+                .flatMapMany(reviewIds -> entityCache.getAll(reviewIds, missing -> findAllById(movieInfoId, missing)));
+    }
+
+    /**
+     * Drops the review, and the listing of its movie, on every instance.
+     */
+    public Mono<Void> invalidate(Review review) {
+        if (entityCache == null) {
+            return Mono.empty();
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(review.getReviewId());
+        if (review.getMovieInfoId() != null) {
+            keys.add(movieKey(review.getMovieInfoId()));
+        }
+        return entityCache.invalidate(keys);
+    }
+
+    @Override
+    public void destroy() {
+        if (entityCache != null) {
+            entityCache.dispose();
+        }
+    }
+
+    // The movie id keeps the lookup on the movie's shard
+    private Flux<Review> findAllById(String movieInfoId, Collection<String> reviewIds) {
+        Query query = Query.query(Criteria.where("movieInfoId").is(movieInfoId).and("reviewId").in(reviewIds));
+        return reactiveMongoTemplate.find(commentStore.withoutComment(query), Review.class);
+    }
+
+    private static String movieKey(String movieInfoId) {
+        return "movie:" + movieInfoId;
+    }
+}
@@ -0,0 +1,40 @@
+package com.reactive.cache;
+
+import com.reactive.dao.model.Review;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+
+public class ReviewCodec extends BinaryCodec<Review> {
+
+    @Override
+    protected int version() {
+        return 2;
+    }
+
+    @Override
+    protected void write(DataOutputStream out, Review review) throws IOException {
+        writeString(out, review.getReviewId());
+        writeString(out, review.getMovieInfoId());
+        writeString(out, review.getComment());
+        writeDouble(out, review.getRating());
+        out.writeBoolean(review.getCreatedAt() != null);
+        if (review.getCreatedAt() != null) {
+            out.writeLong(review.getCreatedAt().getEpochSecond());
+            out.writeInt(review.getCreatedAt().getNano());
+        }
+    }
+
+    @Override
+    protected Review read(DataInputStream in) throws IOException {
+        return Review.builder()
+                .reviewId(readString(in))
+                .movieInfoId(readString(in))
+                .comment(readString(in))
+                .rating(readDouble(in))
+                .createdAt(in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null)
+                .build();
+    }
+}
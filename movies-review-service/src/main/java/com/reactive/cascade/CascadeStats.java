@@ -0,0 +1,18 @@
+package com.reactive.cascade;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class CascadeStats {
+
+    private int pendingMovies;
+    private long purgedMovies;
+    private long purgedReviews;
+    private long sweeps;
+    private long orphansFound;
+    private Instant lastSweep;
+}
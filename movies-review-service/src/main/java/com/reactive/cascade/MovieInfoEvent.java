@@ -0,0 +1,20 @@
+package com.reactive.cascade;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The part of a movies-info-service change event the cascade needs; the movie info itself is ignored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieInfoEvent {
+
+    public static final String DELETED = "DELETED";
+
+    private String type;
+    private String movieInfoId;
+    private Long sequence;
+}
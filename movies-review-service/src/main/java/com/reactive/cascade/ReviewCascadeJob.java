@@ -0,0 +1,283 @@
+package com.reactive.cascade;
+
+import com.reactive.cache.ReviewCache;
+import com.reactive.config.CascadeProperties;
+import com.reactive.dao.model.Review;
+import com.reactive.dao.model.ReviewRatingBucket;
+import com.reactive.event.EventCursorStore;
+import com.reactive.migration.MovieInfoIdMigration;
+import com.reactive.service.ReviewCommentStore;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Removes the reviews and rating buckets of deleted movies in the background ({@code movies-review.cascade.enabled}).
+ * The job tails movies-info-service's change events, and each DELETED movie is queued for a purge. One worker
+ * drains the queue, so purges never run in parallel with each other. A purge removes the movie's reviews
+ * {@code batchSize} at a time, targeting the movie's shard, and sleeps between batches to stay under
+ * {@code maxDeletesPerSecond}. The stream is read from movies-info-service's outbox log after a persisted cursor, so
+ * deletes made while this service is down are picked up when it reconnects. The cursor moves once an event is queued,
+ * so a purge interrupted by a restart is left to the sweep. The sweep also covers a cursor that fell out of the log's
+ * retention, and a first start without a cursor when {@code sweepOnFirstStart} is set: it pages through the movie ids
+ * that still have reviews and looks them up with movies-info-service's multi-get, queueing the ones it doesn't
+ * return. If the lookup fails, nothing is queued. The ids {@link MovieInfoIdMigration} mapped legacy numeric ids to
+ * never had a movie info, so the sweep leaves them alone.
+ */
+@Slf4j
+@Component
+public class ReviewCascadeJob implements DisposableBean {
+
+    private static final String MOVIE_INFO_ID = "movieInfoId";
+    private static final String CURSOR = "review-cascade";
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT = new ParameterizedTypeReference<>() {
+    };
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ReviewCache reviewCache;
+    private final ReviewCommentStore commentStore;
+    private final CascadeProperties properties;
+    private final EventCursorStore eventCursorStore;
+    private final WebClient webClient;
+    private final Sinks.Many<String> queue = Sinks.many().unicast().onBackpressureBuffer();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+    private final AtomicLong purgedMovies = new AtomicLong();
+    private final AtomicLong purgedReviews = new AtomicLong();
+    private final AtomicLong sweeps = new AtomicLong();
+    private final AtomicLong orphansFound = new AtomicLong();
+
+    private volatile Instant lastSweep;
+    // Set when the cursor expired from the log, so the restart from the head sweeps for the deletes it missed
+    private volatile boolean expiredCursor;
+
+    public ReviewCascadeJob(ReactiveMongoTemplate reactiveMongoTemplate, ReviewCache reviewCache, ReviewCommentStore commentStore,
+                            CascadeProperties properties, EventCursorStore eventCursorStore, WebClient.Builder webClientBuilder) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.reviewCache = reviewCache;
+        this.commentStore = commentStore;
+        this.properties = properties;
+        this.eventCursorStore = eventCursorStore;
+        this.webClient = webClientBuilder.baseUrl(properties.getMovieInfoServiceUrl()).build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+
+        if (!properties.isEnabled()) {
+            return;
+        }
+        subscriptions.add(queue.asFlux()
+                .concatMap(movieInfoId -> purge(movieInfoId)
+                        .onErrorResume(ex -> {
+                            log.error("Failed to purge the reviews of movie info {}: {}", movieInfoId, ex.getMessage());
+                            return Mono.empty();
+                        })
+                        .doFinally(signal -> pending.remove(movieInfoId)), 1)
+                .subscribe());
+        subscriptions.add(deleteEvents().subscribe());
+        if (!properties.getSweepInterval().isZero()) {
+            subscriptions.add(Flux.interval(properties.getSweepInterval())
+                    .onBackpressureDrop()
+                    .concatMap(tick -> sweep()
+                            .onErrorResume(ex -> {
+                                log.warn("Orphan review sweep failed: {}", ex.getMessage());
+                                return Mono.empty();
+                            }))
+                    .subscribe());
+        }
+    }
+
+    /**
+     * Queues the purge of a movie's reviews, unless one is already queued.
+     */
+    public void enqueue(String movieInfoId) {
+        if (movieInfoId != null && pending.add(movieInfoId)) {
+            synchronized (queue) {
+                queue.emitNext(movieInfoId, Sinks.EmitFailureHandler.FAIL_FAST);
+            }
+        }
+    }
+
+    /**
+     * Removes every review of the movie, paced by the throughput cap, then its split-out comments and its rating
+     * buckets. Emits the number of reviews removed.
+     */
+    public Mono<Long> purge(String movieInfoId) {
+        return purgeBatches(movieInfoId)
+                .flatMap(removed -> commentStore.deleteAll(movieInfoId)
+                        .then(reactiveMongoTemplate.remove(byMovieInfoId(movieInfoId), ReviewRatingBucket.class))
+                        .thenReturn(removed))
+                .doOnNext(removed -> {
+                    purgedMovies.incrementAndGet();
+                    if (removed > 0) {
+                        log.info("Purged {} reviews of deleted movie info {}", removed, movieInfoId);
+                    }
+                });
+    }
+
+    /**
+     * Queues every movie that has reviews but is unknown to movies-info-service. Emits the number of orphans found.
+     */
+    public Mono<Long> sweep() {
+        return movieInfoIds()
+                .filter(ObjectId::isValid)
+                .filter(movieInfoId -> !MovieInfoIdMigration.isMappedLegacyId(movieInfoId))
+                .buffer(properties.getSweepLookupSize())
+                .concatMap(movieInfoIds -> existing(movieInfoIds)
+                        .map(existing -> movieInfoIds.stream().filter(id -> !existing.contains(id)).collect(Collectors.toList())))
+                .flatMapIterable(orphans -> orphans)
+                .doOnNext(this::enqueue)
+                .count()
+                .doOnNext(orphans -> {
+                    sweeps.incrementAndGet();
+                    orphansFound.addAndGet(orphans);
+                    lastSweep = Instant.now();
+                    log.info("Orphan review sweep queued {} movie infos for purging", orphans);
+                });
+    }
+
+    public CascadeStats stats() {
+        return new CascadeStats(pending.size(), purgedMovies.get(), purgedReviews.get(), sweeps.get(),
+                orphansFound.get(), lastSweep);
+    }
+
+    @Override
+    public void destroy() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * Queues the movie of each DELETED event and moves the cursor past it. The stream is read again after the
+     * cursor whenever it ends or fails. A 410 for an expired cursor drops the cursor, so the next attempt starts over.
+     */
+    private Flux<MovieInfoEvent> deleteEvents() {
+        return Mono.defer(() -> eventCursorStore.get(CURSOR).switchIfEmpty(Mono.defer(this::startFromHead)))
+                .flatMapMany(after -> webClient.get()
+                        .uri(uriBuilder -> uriBuilder.path("/v1/movieinfos/events").queryParam("after", after).build())
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .retrieve()
+                        .bodyToFlux(MovieInfoEvent.class))
+                .concatMap(event -> {
+                    if (MovieInfoEvent.DELETED.equals(event.getType()) && ObjectId.isValid(event.getMovieInfoId())) {
+                        enqueue(event.getMovieInfoId());
+                    }
+                    return event.getSequence() == null ? Mono.just(event)
+                            : eventCursorStore.advance(CURSOR, event.getSequence()).thenReturn(event);
+                })
+                .onErrorResume(WebClientResponseException.Gone.class, ex -> {
+                    log.warn("Missed movie info events expired from the log, sweeping for orphans");
+                    expiredCursor = true;
+                    return eventCursorStore.reset(CURSOR).then(Mono.error(ex));
+                })
+                .doOnError(ex -> log.warn("Movie info event stream failed, reconnecting: {}", ex.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .repeatWhen(completed -> completed.delayElements(Duration.ofSeconds(1)));
+    }
+
+    /**
+     * Without a cursor, the events before the head of the log are unknown: the sweep, if allowed, finds the orphans
+     * they left, and the stream resumes at the head. A cursor that expired from the log always sweeps.
+     */
+    private Mono<Long> startFromHead() {
+        boolean expired = expiredCursor;
+        return webClient.get()
+                .uri("/v1/movieinfos/events/head")
+                .retrieve()
+                .bodyToMono(Long.class)
+                .flatMap(head -> (expired || properties.isSweepOnFirstStart() ? sweep().then() : Mono.<Void>empty())
+                        .then(eventCursorStore.advance(CURSOR, head))
+                        .doOnSuccess(advanced -> expiredCursor = false)
+                        .thenReturn(head));
+    }
+
+    /**
+     * Streams the distinct movie ids that have reviews. The grouping may spill to disk and its results come back in
+     * cursor batches of {@code sweepLookupSize}, so the id list is never held in one response document.
+     */
+    private Flux<String> movieInfoIds() {
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.group(MOVIE_INFO_ID))
+                .withOptions(AggregationOptions.builder()
+                        .allowDiskUse(true)
+                        .cursorBatchSize(properties.getSweepLookupSize())
+                        .build());
+        return reactiveMongoTemplate.aggregate(aggregation, Review.class, Document.class)
+                .mapNotNull(group -> group.get("_id"))
+                .map(String::valueOf);
+    }
+
+    private Mono<Long> purgeBatches(String movieInfoId) {
+        return purgeBatch(movieInfoId).flatMap(removed -> removed < properties.getBatchSize()
+                ? Mono.just(removed)
+                : purgeBatches(movieInfoId).map(rest -> removed + rest));
+    }
+
+    // One targeted delete of at most batchSize reviews, stretched to the cap's share of time for that many deletes
+    private Mono<Long> purgeBatch(String movieInfoId) {
+
+        long start = System.nanoTime();
+        Query batch = byMovieInfoId(movieInfoId).limit(properties.getBatchSize());
+        batch.fields().include("reviewId", MOVIE_INFO_ID);
+
+        return reactiveMongoTemplate.find(batch, Review.class)
+                .collectList()
+                .flatMap(reviews -> reviews.isEmpty() ? Mono.just(0L) : remove(movieInfoId, reviews))
+                .flatMap(removed -> {
+                    purgedReviews.addAndGet(removed);
+                    long budgetNanos = removed * 1_000_000_000L / Math.max(1, properties.getMaxDeletesPerSecond());
+                    long remainingNanos = budgetNanos - (System.nanoTime() - start);
+                    return remainingNanos <= 0 ? Mono.just(removed) : Mono.delay(Duration.ofNanos(remainingNanos)).thenReturn(removed);
+                });
+    }
+
+    private Mono<Long> remove(String movieInfoId, List<Review> reviews) {
+        Query query = byMovieInfoId(movieInfoId)
+                .addCriteria(Criteria.where("reviewId").in(reviews.stream().map(Review::getReviewId).collect(Collectors.toList())));
+        return reactiveMongoTemplate.remove(query, Review.class)
+                .flatMap(result -> Flux.fromIterable(reviews).concatMap(reviewCache::invalidate).then(Mono.just(result.getDeletedCount())));
+    }
+
+    private Mono<Set<String>> existing(List<String> movieInfoIds) {
+        return webClient.post()
+                .uri(uriBuilder -> uriBuilder.path("/v1/movieinfos/lookup").queryParam("fields", MOVIE_INFO_ID).build())
+                .bodyValue(movieInfoIds)
+                .retrieve()
+                .bodyToFlux(JSON_OBJECT)
+                .map(movieInfo -> String.valueOf(movieInfo.get(MOVIE_INFO_ID)))
+                .collect(HashSet::new, Set::add);
+    }
+
+    private static Query byMovieInfoId(String movieInfoId) {
+        // The shard key, so each delete targets the one shard holding the movie's reviews
+        return Query.query(Criteria.where(MOVIE_INFO_ID).is(movieInfoId));
+    }
+}
@@ -0,0 +1,20 @@
+package com.reactive.config;
+
+import com.reactive.cache.DistributedCache;
+import com.reactive.cache.InMemoryDistributedCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "movies-review.cache", name = "enabled")
+public class CacheConfig {
+
+    // A shared (e.g. Redis-backed) DistributedCache bean replaces the embedded one
+    @Bean
+    @ConditionalOnMissingBean(DistributedCache.class)
+    public DistributedCache distributedCache(CacheProperties cacheProperties) {
+        return new InMemoryDistributedCache(cacheProperties.getEmbeddedMaxEntries());
+    }
+}
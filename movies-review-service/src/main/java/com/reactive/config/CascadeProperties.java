@@ -0,0 +1,41 @@
+package com.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "movies-review.cascade")
+public class CascadeProperties {
+
+    private boolean enabled = false;
+    private String movieInfoServiceUrl = "http://localhost:8080";
+
+    /**
+     * Reviews removed by a single delete.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Throughput cap across all purges, so that the cleanup never competes with foreground writes.
+     */
+    private int maxDeletesPerSecond = 2000;
+
+    /**
+     * Periodic search for reviews of movies that no longer exist, e.g. deleted while this service was down;
+     * zero disables it.
+     */
+    private Duration sweepInterval = Duration.ofHours(6);
+
+    /**
+     * Whether a start without a cursor sweeps before following the event stream. Off by default, so that pointing a
+     * fresh service at the wrong movies-info-service can't purge every review.
+     */
+    private boolean sweepOnFirstStart = false;
+
+    /**
+     * Movie ids checked against movies-info-service per lookup; its multi-get accepts at most 500.
+     */
+    private int sweepLookupSize = 500;
+}
@@ -0,0 +1,25 @@
+package com.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "movies-review.comments")
+public class CommentProperties {
+
+    /**
+     * Stores comments in their own collection, leaving the reviews collection with the small fields that listings
+     * and aggregations read.
+     */
+    private boolean split = false;
+
+    /**
+     * Comments of at least this many characters are stored gzip-compressed.
+     */
+    private int compressMinLength = 1024;
+
+    /**
+     * Reviews whose comments are looked up in one query.
+     */
+    private int lookupBatchSize = 256;
+}
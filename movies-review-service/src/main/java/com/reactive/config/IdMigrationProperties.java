@@ -0,0 +1,12 @@
+package com.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "movies-review.id-migration")
+public class IdMigrationProperties {
+
+    private boolean enabled = false;
+    private int concurrency = 8;
+}
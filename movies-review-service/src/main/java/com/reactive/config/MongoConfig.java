@@ -0,0 +1,36 @@
+package com.reactive.config;
+
+import com.reactive.deadline.DeadlineMongoTemplate;
+import com.reactive.sharding.BroadcastQueryDetector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+@Configuration(proxyBeanMethods = false)
+public class MongoConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "movies-review.sharding", name = "detect-broadcasts")
+    public BroadcastQueryDetector broadcastQueryDetector(ShardingProperties shardingProperties) {
+        return new BroadcastQueryDetector(shardingProperties.getShardKeys());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "movies-review.sharding", name = "detect-broadcasts")
+    public MongoClientSettingsBuilderCustomizer broadcastQueryDetectorCustomizer(BroadcastQueryDetector broadcastQueryDetector) {
+        return builder -> builder.addCommandListener(broadcastQueryDetector);
+    }
+
+    /**
+     * Replaces Boot's template, so every query made on behalf of a request with a deadline carries it to Mongo.
+     */
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory,
+                                                       MongoConverter mongoConverter) {
+        return new DeadlineMongoTemplate(reactiveMongoDatabaseFactory, mongoConverter);
+    }
+}
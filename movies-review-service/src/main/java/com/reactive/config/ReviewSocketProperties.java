@@ -0,0 +1,29 @@
+package com.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "movies-review.socket")
+public class ReviewSocketProperties {
+
+    private String path = "/v1/reviews/ws";
+
+    /**
+     * Reviews saved at once per connection.
+     */
+    private int ingestConcurrency = 16;
+
+    /**
+     * Submissions queued per connection behind the ones in flight (rounded up to a power of two). Past that, a
+     * submission is answered with an ERROR frame instead of holding up the SUBSCRIBE and CANCEL frames behind it.
+     */
+    private int submitQueueSize = 256;
+
+    private int maxSubscriptions = 64;
+
+    /**
+     * Events buffered per subscription for a client that reads slower than reviews arrive; the oldest are dropped.
+     */
+    private int subscriptionBufferSize = 256;
+}
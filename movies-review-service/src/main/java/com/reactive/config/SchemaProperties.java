@@ -0,0 +1,17 @@
+package com.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "movies-review.schema")
+public class SchemaProperties {
+
+    /**
+     * Rewrites the stored reviews into the layout of the active field naming strategy, in the background.
+     */
+    private boolean migrate = false;
+
+    private int batchSize = 500;
+    private int concurrency = 8;
+}
@@ -0,0 +1,21 @@
+package com.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "movies-review.sharding")
+public class ShardingProperties {
+
+    /**
+     * Records (and logs) every read or write on a sharded collection whose filter lacks the shard key.
+     */
+    private boolean detectBroadcasts = false;
+
+    /**
+     * Collection name to shard key field; must match the {@code @Sharded} entities.
+     */
+    private Map<String, String> shardKeys = Map.of("review", "movieInfoId");
+}
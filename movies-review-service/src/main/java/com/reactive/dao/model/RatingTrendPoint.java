@@ -0,0 +1,19 @@
+package com.reactive.dao.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingTrendPoint {
+
+    private Instant bucketStart;
+    private Long count;
+    private Double averageRating;
+}
@@ -6,17 +6,42 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+import org.springframework.data.mongodb.core.mapping.ShardingStrategy;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.Instant;
+
+/**
+ * Sharded on a hash of {@code movieInfoId}. All reviews of a movie live on one shard, while new movies spread evenly
+ * across shards. The key never changes after creation, which lets saves target the shard without first reading the
+ * document.
+ */
 @Data
 @Builder
 @Document
+@Sharded(shardKey = "movieInfoId", shardingStrategy = ShardingStrategy.HASH, immutableKey = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Review {
 
     @Id
     private String reviewId;
-    private Long movieInfoId;
+    /**
+     * Hex id of the movie info, stored as a native ObjectId like the movie info's own {@code _id}.
+     */
+    @NotBlank(message = "Review movieInfoId must not be empty")
+    @Field(targetType = FieldType.OBJECT_ID)
+    private String movieInfoId;
     private String comment;
+    @NotNull(message = "Review rating must not be null")
+    @DecimalMin(value = "0.0", message = "Review rating must be between 0 and 10")
+    @DecimalMax(value = "10.0", message = "Review rating must be between 0 and 10")
     private Double rating;
+    private Instant createdAt;
 }
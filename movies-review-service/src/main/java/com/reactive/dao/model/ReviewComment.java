@@ -0,0 +1,33 @@
+package com.reactive.dao.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+import org.springframework.data.mongodb.core.mapping.ShardingStrategy;
+
+/**
+ * The comment of a review, kept apart from the review when comments are split out. It has the same id as its
+ * review and the same shard key, so it lives on the same shard. Long comments are kept gzip-compressed in
+ * {@code compressed} instead of {@code text}.
+ */
+@Data
+@Builder
+@Document("review_comments")
+@Sharded(shardKey = "movieInfoId", shardingStrategy = ShardingStrategy.HASH, immutableKey = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewComment {
+
+    @Id
+    private String reviewId;
+    @Field(targetType = FieldType.OBJECT_ID)
+    private String movieInfoId;
+    private String text;
+    private byte[] compressed;
+}
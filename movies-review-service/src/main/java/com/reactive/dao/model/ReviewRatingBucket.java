@@ -0,0 +1,50 @@
+package com.reactive.dao.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Review count and rating sum of one movie over one hour or day, kept up to date on every review write.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document("review_rating_buckets")
+@CompoundIndex(name = "movie_granularity_start", def = "{ 'movieInfoId': 1, 'granularity': 1, 'bucketStart': 1 }", unique = true)
+public class ReviewRatingBucket {
+
+    public enum Granularity {
+
+        HOUR(ChronoUnit.HOURS), DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public Instant bucketStart(Instant instant) {
+            return instant.truncatedTo(unit);
+        }
+    }
+
+    @Id
+    private String bucketId;
+    @Field(targetType = FieldType.OBJECT_ID)
+    private String movieInfoId;
+    private Granularity granularity;
+    private Instant bucketStart;
+    private Long count;
+    private Double ratingSum;
+}
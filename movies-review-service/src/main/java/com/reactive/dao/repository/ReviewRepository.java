@@ -8,5 +8,5 @@ import reactor.core.publisher.Flux;
 @Repository
 public interface ReviewRepository extends ReactiveMongoRepository<Review, String> {
 
-    Flux<Review> findByMovieInfoId(Long movieInfoId);
+    Flux<Review> findByMovieInfoId(String movieInfoId);
 }
@@ -0,0 +1,52 @@
+package com.reactive.event;
+
+import com.reactive.dao.model.Review;
+import com.reactive.outbox.OutboxEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Optional;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private Type type;
+    private String reviewId;
+    private String movieInfoId;
+    private String comment;
+    private Double rating;
+    private Double previousRating;
+    /**
+     * Position in the outbox log, set on events read back from it. Consumers resume their stream after it.
+     */
+    private Long sequence;
+
+    public static ReviewEvent of(Type type, Review review) {
+        return ReviewEvent.builder()
+                .type(type)
+                .reviewId(review.getReviewId())
+                .movieInfoId(review.getMovieInfoId())
+                .comment(review.getComment())
+                .rating(review.getRating())
+                .build();
+    }
+
+    /**
+     * The review event an outbox log entry carries, with its sequence number.
+     */
+    public static Optional<ReviewEvent> fromLog(OutboxEvent outboxEvent) {
+        if (!(outboxEvent.getPayload() instanceof ReviewEvent)) {
+            return Optional.empty();
+        }
+        ReviewEvent event = (ReviewEvent) outboxEvent.getPayload();
+        event.setSequence(outboxEvent.getSequence());
+        return Optional.of(event);
+    }
+}
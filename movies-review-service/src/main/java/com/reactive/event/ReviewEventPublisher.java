@@ -0,0 +1,34 @@
+package com.reactive.event;
+
+import com.reactive.outbox.OutboxEvent;
+import com.reactive.outbox.OutboxLogListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * In-process fan-out of the review events in the outbox log, fed by this replica's outbox tail. Subscribers that
+ * can't keep up miss events rather than slowing down the tail. Consumers that must not miss any read the log from a
+ * cursor instead, through the {@code after} parameter of the event stream.
+ */
+@Slf4j
+@Component
+public class ReviewEventPublisher implements OutboxLogListener {
+
+    private final Sinks.Many<ReviewEvent> sink = Sinks.many().multicast().directBestEffort();
+
+    @Override
+    public void onRelayed(OutboxEvent outboxEvent) {
+        ReviewEvent.fromLog(outboxEvent).ifPresent(this::publish);
+    }
+
+    public void publish(ReviewEvent event) {
+        sink.emitNext(event, (signalType, emitResult) -> emitResult == Sinks.EmitResult.FAIL_NON_SERIALIZED);
+        log.debug("Published review event: {}", event);
+    }
+
+    public Flux<ReviewEvent> events() {
+        return sink.asFlux();
+    }
+}
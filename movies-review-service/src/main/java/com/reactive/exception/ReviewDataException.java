@@ -1,12 +1,18 @@
 package com.reactive.exception;
 
-import lombok.*;
-
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
+/**
+ * A review request the service can't accept; answered with 400. Like {@link ReviewNotFoundException} it carries no
+ * stack trace: it describes bad input, not a fault in the code, and filling in the trace would make every rejected
+ * request pay for a stack walk. The fixed errors are preallocated.
+ */
 public class ReviewDataException extends RuntimeException {
 
-    private String message;
+    public static final ReviewDataException MISSING_MOVIE_INFO_ID = new ReviewDataException("movieInfoId of the review is required");
+    public static final ReviewDataException INVALID_MOVIE_INFO_ID = new ReviewDataException("movieInfoId must be a 24 character hex ObjectId");
+    public static final ReviewDataException INVALID_GRANULARITY = new ReviewDataException("granularity must be one of hour, day");
+    public static final ReviewDataException MISSING_BODY = new ReviewDataException("Review body must not be empty");
+
+    public ReviewDataException(String message) {
+        super(message, null, false, false);
+    }
 }
@@ -0,0 +1,59 @@
+package com.reactive.exception;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns client errors into plain text responses with the error message as body, the way the handlers answer bad
+ * input themselves. Ordered ahead of Boot's error handler, which would render a JSON error page and log a trace for
+ * each one. Anything that is not a client error is passed on to it unchanged.
+ */
+@Slf4j
+@Component
+@Order(-2)
+public class ReviewErrorHandler implements WebExceptionHandler {
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+
+        HttpStatus status;
+        String message;
+        if (ex instanceof ReviewDataException) {
+            status = HttpStatus.BAD_REQUEST;
+            message = ex.getMessage();
+        } else if (ex instanceof ReviewNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+            message = ex.getMessage();
+        } else if (ex instanceof ResponseStatusException && ((ResponseStatusException) ex).getStatus().is4xxClientError()) {
+            status = ((ResponseStatusException) ex).getStatus();
+            message = ((ResponseStatusException) ex).getReason();
+        } else {
+            return Mono.error(ex);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(ex);
+        }
+        log.debug("{} {} rejected with {}: {}", exchange.getRequest().getMethod(), exchange.getRequest().getPath(),
+                status.value(), message);
+        response.setStatusCode(status);
+        if (message == null) {
+            return response.setComplete();
+        }
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
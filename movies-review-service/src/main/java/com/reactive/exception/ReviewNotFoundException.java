@@ -1,13 +1,13 @@
 package com.reactive.exception;
 
-import lombok.*;
-
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
+/**
+ * A review that doesn't exist; answered with 404. Stackless and preallocated, see {@link ReviewDataException}.
+ */
 public class ReviewNotFoundException extends RuntimeException {
 
-    private String message;
-    private Throwable ex;
+    public static final ReviewNotFoundException INSTANCE = new ReviewNotFoundException("Review not found");
+
+    public ReviewNotFoundException(String message) {
+        super(message, null, false, false);
+    }
 }
@@ -1,64 +1,307 @@
 package com.reactive.handler;
 
+import com.reactive.cache.ReviewCache;
+import com.reactive.dao.model.RatingTrendPoint;
 import com.reactive.dao.model.Review;
+import com.reactive.dao.model.ReviewRatingBucket;
 import com.reactive.dao.repository.ReviewRepository;
+import com.reactive.event.ReviewEvent;
+import com.reactive.event.ReviewEventPublisher;
+import com.reactive.exception.ReviewDataException;
+import com.reactive.exception.ReviewNotFoundException;
+import com.reactive.outbox.OutboxLog;
+import com.reactive.outbox.OutboxService;
+import com.reactive.schema.SchemaMigration;
+import com.reactive.service.ReviewCommentStore;
+import com.reactive.service.ReviewTrendService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.annotation.Configuration;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
-@Configuration
+@Component
 @RequiredArgsConstructor
 public class ReviewHandler {
 
+    private static final int BATCH_WRITE_CONCURRENCY = 16;
+    private static final Duration DEFAULT_TREND_RANGE = Duration.ofDays(30);
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of("comment", "rating", "createdAt");
+
     private final ReviewRepository reviewRepository;
+    private final ReviewEventPublisher reviewEventPublisher;
+    private final OutboxService outboxService;
+    private final OutboxLog outboxLog;
+    private final ReviewTrendService reviewTrendService;
+    private final ReviewCache reviewCache;
+    private final ReviewCommentStore commentStore;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final SchemaMigration schemaMigration;
+    private final Validator validator;
 
     public Mono<ServerResponse> addNewReview(ServerRequest request) {
 
         return request.bodyToMono(Review.class)
-                .flatMap(reviewRepository::save)
+                .switchIfEmpty(Mono.error(ReviewDataException.MISSING_BODY))
+                .flatMap(this::saveNewReview)
                 .flatMap(savedReview -> ServerResponse.status(HttpStatus.CREATED).bodyValue(savedReview));
     }
 
+    public Mono<ServerResponse> addNewReviews(ServerRequest request) {
+
+        // bodyToFlux decodes the reviews one by one as the body streams in, instead of aggregating it first
+        return ServerResponse.status(HttpStatus.CREATED)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(request.bodyToFlux(Review.class).flatMapSequential(this::saveNewReview, BATCH_WRITE_CONCURRENCY),
+                        Review.class);
+    }
+
     public Mono<ServerResponse> getAllReviews(ServerRequest request) {
 
-        return request.queryParam("movieInfoId")
-                .map(s -> ServerResponse.ok().body(reviewRepository.findByMovieInfoId(Long.valueOf(s)), Review.class))
-                .orElseGet(() -> ServerResponse.ok().body(reviewRepository.findAll(), Review.class));
+        List<String> movieInfoIds = request.queryParams().getOrDefault("movieInfoId", List.of());
+        Set<String> fields = request.queryParam("fields")
+                .map(StringUtils::commaDelimitedListToSet)
+                .orElse(Set.of());
+
+        // With split comments, listings read the small fields only; comments are looked up when asked for
+        boolean withComments = fields.isEmpty()
+                ? request.queryParam("include").filter("comments"::equals).isPresent()
+                : fields.contains("comment");
+
+        if (movieInfoIds.isEmpty()) {
+            return ServerResponse.ok().body(withComments(reactiveMongoTemplate.find(commentStore.withoutComment(new Query()), Review.class),
+                    withComments), Review.class);
+        }
+        if (!movieInfoIds.stream().allMatch(ObjectId::isValid)) {
+            return Mono.error(ReviewDataException.INVALID_MOVIE_INFO_ID);
+        }
+        if (movieInfoIds.size() == 1 && fields.isEmpty()) {
+            return ServerResponse.ok().body(withComments(reviewCache.findByMovieInfoId(movieInfoIds.get(0), this::findByMovieInfoId),
+                    withComments), Review.class);
+        }
+        return ServerResponse.ok().body(withComments(findByMovieInfoIds(movieInfoIds, fields), withComments), Review.class);
     }
 
     public Mono<ServerResponse> updateReview(ServerRequest request) {
 
-        return reviewRepository.findById(request.pathVariable("id"))
+        // save() targets the shard by the loaded review's movieInfoId
+        return findReview(request.pathVariable("id"), request)
                 .flatMap(review -> request.bodyToMono(Review.class)
-                .map(updatedReview -> {
+                .switchIfEmpty(Mono.error(ReviewDataException.MISSING_BODY))
+                .flatMap(updatedReview -> {
+
+                    // An update only carries the comment and the rating
+                    Set<ConstraintViolation<Review>> violations = validator.validateProperty(updatedReview, "rating");
+                    if (!violations.isEmpty()) {
+                        return Mono.error(invalid(violations));
+                    }
 
+                    Double previousRating = review.getRating();
                     review.setComment(updatedReview.getComment());
                     review.setRating(updatedReview.getRating());
-                    return review;
+                    return reviewTrendService.createBuckets(review)
+                            .then(outboxService.transactional(commentStore.save(review, reviewRepository::save)
+                                    .flatMap(savedReview -> {
+                                        ReviewEvent event = ReviewEvent.of(ReviewEvent.Type.UPDATED, savedReview);
+                                        event.setPreviousRating(previousRating);
+                                        return reviewTrendService.reviewUpdated(savedReview, previousRating)
+                                                .then(recordEvent(event))
+                                                .thenReturn(savedReview);
+                                    })))
+                            .flatMap(savedReview -> reviewCache.invalidate(savedReview).thenReturn(savedReview));
                 }))
-                .flatMap(reviewRepository::save)
                 .flatMap(review -> ServerResponse.ok().bodyValue(review))
-                .switchIfEmpty(ServerResponse.notFound().build());
+                .switchIfEmpty(Mono.error(ReviewNotFoundException.INSTANCE));
     }
 
     public Mono<ServerResponse> deleteReview(ServerRequest request) {
 
         String reviewId = request.pathVariable("id");
 
-        return reviewRepository.findById(reviewId)
-                .flatMap(review -> reviewRepository.deleteById(reviewId))
+        return findReview(reviewId, request)
+                .flatMap(review -> reviewTrendService.createBuckets(review)
+                        .then(outboxService.transactional(reactiveMongoTemplate.remove(byShardKey(review), Review.class)
+                                .then(commentStore.delete(review))
+                                .then(reviewTrendService.reviewDeleted(review))
+                                .then(recordEvent(ReviewEvent.of(ReviewEvent.Type.DELETED, review)))))
+                        .then(reviewCache.invalidate(review)))
                 .then(ServerResponse.noContent().build());
     }
 
     public Mono<ServerResponse> getReviews(ServerRequest request) {
 
-        return reviewRepository.findById(request.pathVariable("id"))
+        return movieInfoId(request)
+                .flatMap(movieInfoId -> reviewCache.findById(request.pathVariable("id"), reviewId -> findReview(reviewId, request)))
+                .flatMap(commentStore::attach)
                 .flatMap(review -> ServerResponse.ok().bodyValue(review))
-                .switchIfEmpty(ServerResponse.notFound().build());
+                .switchIfEmpty(Mono.error(ReviewNotFoundException.INSTANCE));
+    }
+
+    /**
+     * Live review events. With {@code after}, the stream replays the outbox log from that sequence number before
+     * following it, so a consumer that stores the sequence of the last event it applied misses nothing across
+     * reconnects. It answers 410 once those events have expired from the log.
+     */
+    public Mono<ServerResponse> getReviewEvents(ServerRequest request) {
+
+        Optional<String> after = request.queryParam("after");
+        Flux<ReviewEvent> events;
+        if (after.isEmpty()) {
+            events = reviewEventPublisher.events();
+        } else {
+            long sequence;
+            try {
+                sequence = Long.parseLong(after.get());
+            } catch (NumberFormatException ex) {
+                return Mono.error(new ReviewDataException("after must be an event sequence number"));
+            }
+            events = outboxLog.resume(sequence)
+                    .concatMap(outboxEvent -> Mono.justOrEmpty(ReviewEvent.fromLog(outboxEvent)));
+        }
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(events, ReviewEvent.class);
+    }
+
+    /**
+     * The sequence number of the latest event in the log, where a consumer starting from current state resumes.
+     */
+    public Mono<ServerResponse> getReviewEventsHead(ServerRequest request) {
+        return ServerResponse.ok().body(outboxLog.head(), Long.class);
+    }
+
+    public Mono<ServerResponse> getRatingTrend(ServerRequest request) {
+
+        String movieInfoId = request.pathVariable("movieInfoId");
+        if (!ObjectId.isValid(movieInfoId)) {
+            return Mono.error(ReviewDataException.INVALID_MOVIE_INFO_ID);
+        }
+        Instant to;
+        Instant from;
+        ReviewRatingBucket.Granularity granularity;
+        try {
+            to = request.queryParam("to").map(Instant::parse).orElseGet(Instant::now);
+            from = request.queryParam("from").map(Instant::parse).orElse(to.minus(DEFAULT_TREND_RANGE));
+            granularity = request.queryParam("granularity")
+                    .map(value -> ReviewRatingBucket.Granularity.valueOf(value.toUpperCase()))
+                    .orElse(ReviewRatingBucket.Granularity.DAY);
+        } catch (DateTimeParseException ex) {
+            return Mono.error(new ReviewDataException(ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return Mono.error(ReviewDataException.INVALID_GRANULARITY);
+        }
+
+        return ServerResponse.ok().body(reviewTrendService.getTrend(movieInfoId, from, to, granularity), RatingTrendPoint.class);
+    }
+
+    /**
+     * Looks a review up by id and the review's {@code movieInfoId} query parameter, the shard key, so the lookup goes
+     * to a single shard instead of every one.
+     */
+    private Mono<Review> findReview(String reviewId, ServerRequest request) {
+        return movieInfoId(request).flatMap(movieInfoId -> reactiveMongoTemplate.findOne(commentStore.withoutComment(
+                Query.query(Criteria.where("reviewId").is(reviewId).and("movieInfoId").is(movieInfoId))), Review.class));
+    }
+
+    // Required on every by-id route: a review can only be found without it by asking every shard
+    private static Mono<String> movieInfoId(ServerRequest request) {
+        Optional<String> movieInfoId = request.queryParam("movieInfoId");
+        if (movieInfoId.isEmpty()) {
+            return Mono.error(ReviewDataException.MISSING_MOVIE_INFO_ID);
+        }
+        if (!ObjectId.isValid(movieInfoId.get())) {
+            return Mono.error(ReviewDataException.INVALID_MOVIE_INFO_ID);
+        }
+        return Mono.just(movieInfoId.get());
+    }
+
+    private static Query byShardKey(Review review) {
+        return Query.query(Criteria.where("reviewId").is(review.getReviewId()).and("movieInfoId").is(review.getMovieInfoId()));
+    }
+
+    // Reviews of several movies in one query, reading only the requested fields (unknown names are ignored)
+    private Flux<Review> findByMovieInfoIds(List<String> movieInfoIds, Set<String> fields) {
+        Query query = Query.query(Criteria.where("movieInfoId").in(movieInfoIds));
+        if (!fields.isEmpty() && schemaMigration.isInProgress()) {
+            return reactiveMongoTemplate.find(query, Review.class).map(review -> onlyFields(review, fields));
+        }
+        if (!fields.isEmpty()) {
+            query.fields().include("reviewId", "movieInfoId");
+            fields.stream().filter(PROJECTABLE_FIELDS::contains).forEach(query.fields()::include);
+        } else {
+            commentStore.withoutComment(query);
+        }
+        return reactiveMongoTemplate.find(query, Review.class);
+    }
+
+    // The projection of a whole review, for reads that can't project in the query
+    private static Review onlyFields(Review review, Set<String> fields) {
+        if (!fields.contains("comment")) {
+            review.setComment(null);
+        }
+        if (!fields.contains("rating")) {
+            review.setRating(null);
+        }
+        if (!fields.contains("createdAt")) {
+            review.setCreatedAt(null);
+        }
+        return review;
+    }
+
+    private Flux<Review> findByMovieInfoId(String movieInfoId) {
+        return reactiveMongoTemplate.find(commentStore.withoutComment(Query.query(Criteria.where("movieInfoId").is(movieInfoId))),
+                Review.class);
+    }
+
+    private Flux<Review> withComments(Flux<Review> reviews, boolean withComments) {
+        return withComments ? commentStore.attach(reviews) : reviews;
+    }
+
+    Mono<Review> saveNewReview(Review review) {
+
+        Set<ConstraintViolation<Review>> violations = validator.validate(review);
+        if (!violations.isEmpty()) {
+            return Mono.error(invalid(violations));
+        }
+        if (!ObjectId.isValid(review.getMovieInfoId())) {
+            return Mono.error(ReviewDataException.INVALID_MOVIE_INFO_ID);
+        }
+        // A client can't backdate its review into an earlier trend bucket
+        review.setCreatedAt(Instant.now());
+        return reviewTrendService.createBuckets(review)
+                .then(outboxService.transactional(commentStore.save(review, reviewRepository::save)
+                        .flatMap(savedReview -> reviewTrendService.reviewCreated(savedReview)
+                                .then(recordEvent(ReviewEvent.of(ReviewEvent.Type.CREATED, savedReview)))
+                                .thenReturn(savedReview))))
+                .flatMap(savedReview -> reviewCache.invalidate(savedReview).thenReturn(savedReview));
+    }
+
+    private static ReviewDataException invalid(Set<ConstraintViolation<Review>> violations) {
+        return new ReviewDataException(violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", ")));
+    }
+
+    private Mono<Void> recordEvent(ReviewEvent event) {
+        return outboxService.record(Review.class.getSimpleName(), event.getReviewId(), event.getType().name(), event).then();
     }
 }
@@ -0,0 +1,155 @@
+package com.reactive.handler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.config.ReviewSocketProperties;
+import com.reactive.event.ReviewEventPublisher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Review ingestion and live review events, multiplexed over one WebSocket connection (see
+ * {@link ReviewSocketMessage} for the frames). A high-volume client pays for the handshake once instead of once per
+ * review.
+ * <p>
+ * The socket is always read, so SUBSCRIBE and CANCEL frames take effect as they arrive instead of waiting behind
+ * submissions. Submissions go through their own queue: at most {@code ingestConcurrency} are saved at once per
+ * connection and up to {@code submitQueueSize} wait behind them. A submission past that is answered with an ERROR
+ * frame, and the client backs off and resends it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReviewSocketHandler implements WebSocketHandler {
+
+    private final ReviewHandler reviewHandler;
+    private final ReviewEventPublisher reviewEventPublisher;
+    private final ObjectMapper objectMapper;
+    private final ReviewSocketProperties properties;
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+
+        Map<String, Sinks.Empty<Void>> subscriptions = new ConcurrentHashMap<>();
+        Sinks.Many<ReviewSocketMessage> submissions = Sinks.many().unicast()
+                .onBackpressureBuffer(Queues.<ReviewSocketMessage>get(properties.getSubmitQueueSize()).get());
+
+        Flux<ReviewSocketMessage> inbound = session.receive()
+                .map(this::decode)
+                .flatMap(frame -> dispatch(frame, submissions, subscriptions), Integer.MAX_VALUE)
+                .doFinally(signal -> submissions.tryEmitComplete());
+
+        Flux<ReviewSocketMessage> replies = Flux.merge(inbound,
+                submissions.asFlux().flatMap(this::submit, properties.getIngestConcurrency()));
+
+        return session.send(replies.map(reply -> session.textMessage(encode(reply))))
+                .doFinally(signal -> subscriptions.values().forEach(Sinks.Empty::tryEmitEmpty));
+    }
+
+    private Flux<ReviewSocketMessage> dispatch(ReviewSocketMessage frame, Sinks.Many<ReviewSocketMessage> submissions,
+                                               Map<String, Sinks.Empty<Void>> subscriptions) {
+
+        switch (frame.getType()) {
+            case SUBMIT:
+                // Frames arrive one at a time per connection, so the sink is never emitted to concurrently
+                if (submissions.tryEmitNext(frame).isSuccess()) {
+                    return Flux.empty();
+                }
+                log.debug("Rejected review submitted over WebSocket, {} already queued", properties.getSubmitQueueSize());
+                return reply(frame, ReviewSocketMessage.error(frame.getId(), "too many submissions in flight")).flux();
+            case SUBSCRIBE:
+                return subscribe(frame, subscriptions);
+            default:
+                return control(frame, subscriptions).flux();
+        }
+    }
+
+    private Mono<ReviewSocketMessage> submit(ReviewSocketMessage frame) {
+
+        if (frame.getReview() == null) {
+            return reply(frame, ReviewSocketMessage.error(frame.getId(), "review is required"));
+        }
+        return reviewHandler.saveNewReview(frame.getReview())
+                .flatMap(saved -> reply(frame, ReviewSocketMessage.builder()
+                        .type(ReviewSocketMessage.Type.ACK).id(frame.getId()).review(saved).build()))
+                .onErrorResume(ex -> {
+                    String error = ex instanceof ResponseStatusException ? ((ResponseStatusException) ex).getReason() : ex.getMessage();
+                    log.debug("Review submitted over WebSocket failed: {}", error);
+                    return reply(frame, ReviewSocketMessage.error(frame.getId(), error));
+                });
+    }
+
+    private Flux<ReviewSocketMessage> subscribe(ReviewSocketMessage frame, Map<String, Sinks.Empty<Void>> subscriptions) {
+
+        String movieInfoId = frame.getMovieInfoId();
+        if (frame.getId() == null || movieInfoId == null || !ObjectId.isValid(movieInfoId)) {
+            return Flux.just(ReviewSocketMessage.error(frame.getId(), "SUBSCRIBE needs an id and a valid movieInfoId"));
+        }
+        if (subscriptions.size() >= properties.getMaxSubscriptions()) {
+            return Flux.just(ReviewSocketMessage.error(frame.getId(), "too many subscriptions on this connection"));
+        }
+        Sinks.Empty<Void> cancel = Sinks.empty();
+        if (subscriptions.putIfAbsent(frame.getId(), cancel) != null) {
+            return Flux.just(ReviewSocketMessage.error(frame.getId(), "subscription id already in use"));
+        }
+        return reviewEventPublisher.events()
+                .filter(event -> movieInfoId.equals(event.getMovieInfoId()))
+                .map(event -> ReviewSocketMessage.builder()
+                        .type(ReviewSocketMessage.Type.EVENT).id(frame.getId()).event(event).build())
+                .onBackpressureBuffer(properties.getSubscriptionBufferSize(),
+                        dropped -> log.debug("Dropped review event for slow subscription {}", frame.getId()),
+                        BufferOverflowStrategy.DROP_OLDEST)
+                .takeUntilOther(cancel.asMono())
+                .doFinally(signal -> subscriptions.remove(frame.getId(), cancel));
+    }
+
+    private Mono<ReviewSocketMessage> control(ReviewSocketMessage frame, Map<String, Sinks.Empty<Void>> subscriptions) {
+
+        if (frame.getType() == ReviewSocketMessage.Type.CANCEL) {
+            Sinks.Empty<Void> cancel = subscriptions.get(frame.getId());
+            if (cancel != null) {
+                cancel.tryEmitEmpty();
+            }
+            return Mono.empty();
+        }
+        // Unreadable frames are decoded as ERROR without an id
+        return Mono.justOrEmpty(frame.getType() == ReviewSocketMessage.Type.ERROR ? frame
+                : ReviewSocketMessage.error(frame.getId(), "unsupported frame type " + frame.getType()));
+    }
+
+    private static Mono<ReviewSocketMessage> reply(ReviewSocketMessage frame, ReviewSocketMessage reply) {
+        // Fire-and-forget: no id, no reply
+        return frame.getId() == null ? Mono.empty() : Mono.just(reply);
+    }
+
+    private ReviewSocketMessage decode(WebSocketMessage message) {
+        try {
+            ReviewSocketMessage frame = objectMapper.readValue(message.getPayloadAsText(), ReviewSocketMessage.class);
+            return frame.getType() == null ? ReviewSocketMessage.error(frame.getId(), "type is required") : frame;
+        } catch (JsonProcessingException ex) {
+            return ReviewSocketMessage.error(null, "unreadable frame: " + ex.getOriginalMessage());
+        }
+    }
+
+    private String encode(ReviewSocketMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not encode " + message.getType() + " frame", ex);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.reactive.handler;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.reactive.dao.model.Review;
+import com.reactive.event.ReviewEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One WebSocket frame. Many exchanges share a connection, and the client-chosen {@code id} tells them apart. The
+ * server copies it onto each reply.
+ * <ul>
+ *     <li>{@code SUBMIT} saves {@code review}. With an id the server answers with an {@code ACK} carrying the saved
+ *     review; without one it is fire-and-forget.</li>
+ *     <li>{@code SUBSCRIBE} streams {@code EVENT} frames for {@code movieInfoId} until a {@code CANCEL} with the same
+ *     id.</li>
+ *     <li>{@code ERROR} reports a failed exchange.</li>
+ * </ul>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReviewSocketMessage {
+
+    public enum Type { SUBMIT, SUBSCRIBE, CANCEL, ACK, EVENT, ERROR }
+
+    private Type type;
+    private String id;
+    private String movieInfoId;
+    private Review review;
+    private ReviewEvent event;
+    private String error;
+
+    static ReviewSocketMessage error(String id, String error) {
+        return ReviewSocketMessage.builder().type(Type.ERROR).id(id).error(error).build();
+    }
+}
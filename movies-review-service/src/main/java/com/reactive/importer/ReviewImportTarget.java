@@ -0,0 +1,82 @@
+package com.reactive.importer;
+
+import com.reactive.cache.ReviewCache;
+import com.reactive.config.ImportProperties;
+import com.reactive.dao.model.Review;
+import com.reactive.service.ReviewCommentStore;
+import com.reactive.service.ReviewTrendService;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Gives imported reviews the same preparation as {@code POST /v1/reviews}: the movie info id must be an ObjectId,
+ * {@code createdAt} defaults to the import time, split comments go to the comment store, and the rating trend
+ * buckets and the cached listings of the movies are updated. Unlike the REST path, imports record no outbox events:
+ * movies-info-service's review snapshots don't see imported reviews until they are rebuilt.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReviewImportTarget implements ImportTarget<Review> {
+
+    private final ReviewCommentStore commentStore;
+    private final ReviewTrendService reviewTrendService;
+    private final ReviewCache reviewCache;
+    private final ImportProperties importProperties;
+
+    @Override
+    public Class<Review> entityClass() {
+        return Review.class;
+    }
+
+    @Override
+    public String prepare(Review review) {
+        if (!ObjectId.isValid(review.getMovieInfoId())) {
+            return "movieInfoId must be a 24 character hex ObjectId";
+        }
+        // Set here rather than on insert, so the split comment and the trend bucket know the review's id
+        if (review.getReviewId() == null) {
+            review.setReviewId(new ObjectId().toHexString());
+        }
+        if (review.getCreatedAt() == null) {
+            review.setCreatedAt(Instant.now());
+        }
+        return null;
+    }
+
+    @Override
+    public Review stored(Review review) {
+        if (!commentStore.isSplit()) {
+            return review;
+        }
+        return Review.builder()
+                .reviewId(review.getReviewId())
+                .movieInfoId(review.getMovieInfoId())
+                .rating(review.getRating())
+                .createdAt(review.getCreatedAt())
+                .build();
+    }
+
+    @Override
+    public Mono<Void> inserted(List<Review> reviews) {
+        // The reviews are new, so only the cached listing of each movie is stale
+        Map<String, Review> oneReviewPerMovie = reviews.stream()
+                .collect(Collectors.toMap(Review::getMovieInfoId, Function.identity(), (first, other) -> first));
+        return commentStore.saveComments(reviews)
+                .then(Flux.fromIterable(reviews)
+                        .flatMap(review -> reviewTrendService.createBuckets(review).then(reviewTrendService.reviewCreated(review)),
+                                importProperties.getInsertConcurrency())
+                        .then())
+                .then(Flux.fromIterable(oneReviewPerMovie.values())
+                        .concatMap(reviewCache::invalidate)
+                        .then());
+    }
+}
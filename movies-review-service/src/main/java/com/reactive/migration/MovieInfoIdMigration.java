@@ -0,0 +1,130 @@
+package com.reactive.migration;
+
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.reactive.config.IdMigrationProperties;
+import com.reactive.dao.model.Review;
+import com.reactive.dao.model.ReviewRatingBucket;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rewrites {@code movieInfoId} values stored before it became a native ObjectId. Hex strings become the ObjectId they
+ * spell. Legacy numeric ids never pointed at a real movie info, so they are mapped to the zero-padded ObjectId of the
+ * number (e.g. {@code 2} becomes {@code 000000000000000000000002}), which keeps their reviews and rating buckets grouped
+ * together. Each document is updated only if it still holds the old value, so the migration can safely be re-run.
+ * <p>
+ * A rating bucket written under the old id can collide with one already written under the new id for the same
+ * granularity and start. Their counts are merged into the new bucket and the old one is removed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MovieInfoIdMigration {
+
+    private static final String MOVIE_INFO_ID = "movieInfoId";
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final IdMigrationProperties idMigrationProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+
+        if (!idMigrationProperties.isEnabled()) {
+            return;
+        }
+
+        migrate().subscribe(
+                migrated -> log.info("Migrated movieInfoId of {} documents to ObjectId", migrated),
+                ex -> log.error("movieInfoId migration failed: {}", ex.getMessage(), ex));
+    }
+
+    public Mono<Long> migrate() {
+        return Flux.just(Review.class, ReviewRatingBucket.class)
+                .map(reactiveMongoTemplate::getCollectionName)
+                .concatMap(this::migrate)
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> migrate(String collectionName) {
+        return reactiveMongoTemplate.getCollection(collectionName)
+                .flatMapMany(collection -> Flux.from(collection.find(Filters.and(
+                                Filters.exists(MOVIE_INFO_ID),
+                                Filters.not(Filters.type(MOVIE_INFO_ID, BsonType.OBJECT_ID)),
+                                Filters.not(Filters.type(MOVIE_INFO_ID, BsonType.NULL))))
+                        .projection(new Document(MOVIE_INFO_ID, 1)))
+                        .flatMap(document -> {
+                            Object legacyId = document.get(MOVIE_INFO_ID);
+                            ObjectId movieInfoId = toObjectId(legacyId);
+                            if (movieInfoId == null) {
+                                log.warn("Cannot migrate movieInfoId {} of {} {}", legacyId, collectionName, document.get("_id"));
+                                return Mono.just(0L);
+                            }
+                            Bson legacy = Filters.and(Filters.eq("_id", document.get("_id")), Filters.eq(MOVIE_INFO_ID, legacyId));
+                            return Mono.from(collection.updateOne(legacy, Updates.set(MOVIE_INFO_ID, movieInfoId)))
+                                    .map(result -> result.getModifiedCount())
+                                    .onErrorResume(MongoWriteException.class, ex -> ex.getError().getCode() == DUPLICATE_KEY
+                                            && collectionName.equals(reactiveMongoTemplate.getCollectionName(ReviewRatingBucket.class))
+                                            ? mergeBucket(collection, legacy, movieInfoId) : Mono.error(ex));
+                        }, idMigrationProperties.getConcurrency()))
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Moves the counts of the legacy bucket into the bucket under the new id. The legacy bucket is removed first: a
+     * failure in between loses its counts, but a re-run never counts them twice.
+     */
+    private Mono<Long> mergeBucket(MongoCollection<Document> collection, Bson legacy, ObjectId movieInfoId) {
+        return Mono.from(collection.findOneAndDelete(legacy))
+                .flatMap(bucket -> {
+                    log.info("Merging rating bucket {} into the {} {} bucket of {}", bucket.get("_id"),
+                            bucket.get("granularity"), bucket.get("bucketStart"), movieInfoId);
+                    return Mono.from(collection.updateOne(
+                            Filters.and(Filters.eq(MOVIE_INFO_ID, movieInfoId),
+                                    Filters.eq("granularity", bucket.get("granularity")),
+                                    Filters.eq("bucketStart", bucket.get("bucketStart"))),
+                            Updates.combine(
+                                    Updates.inc("count", number(bucket.get("count")).longValue()),
+                                    Updates.inc("ratingSum", number(bucket.get("ratingSum")).doubleValue())),
+                            new UpdateOptions().upsert(true)));
+                })
+                .thenReturn(1L);
+    }
+
+    private static Number number(Object value) {
+        return value instanceof Number ? (Number) value : 0;
+    }
+
+    /**
+     * Whether the id is one that a legacy numeric id was mapped to. Those never had a movie info, so they must not be
+     * taken for the ids of deleted movies.
+     */
+    public static boolean isMappedLegacyId(String movieInfoId) {
+        return ObjectId.isValid(movieInfoId) && new ObjectId(movieInfoId).getTimestamp() == 0;
+    }
+
+    static ObjectId toObjectId(Object legacyId) {
+        if (legacyId instanceof Number) {
+            long value = ((Number) legacyId).longValue();
+            return value < 0 ? null : new ObjectId(String.format("%024x", value));
+        }
+        if (legacyId instanceof String && ObjectId.isValid((String) legacyId)) {
+            return new ObjectId((String) legacyId);
+        }
+        return null;
+    }
+}
@@ -1,28 +1,94 @@
 package com.reactive.router;
 
+import com.reactive.blocking.BlockingScheduler;
+import com.reactive.cascade.ReviewCascadeJob;
+import com.reactive.config.ReviewSocketProperties;
+import com.reactive.dao.model.Review;
+import com.reactive.export.ExportJob;
+import com.reactive.export.ExportResult;
+import com.reactive.importer.ImportJob;
+import com.reactive.importer.ReviewImportTarget;
+import com.reactive.importer.ImportResult;
 import com.reactive.handler.ReviewHandler;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
+import com.reactive.handler.ReviewSocketHandler;
+import com.reactive.service.ReviewCommentStore;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+
+import java.util.Map;
 
 import static org.springframework.web.reactive.function.server.RequestPredicates.path;
 import static org.springframework.web.reactive.function.server.RouterFunctions.route;
 
-@Configuration
-public class ReviewRouter {
+/**
+ * Registers the review routes functionally (see META-INF/spring.factories) rather than through a scanned
+ * {@code @Configuration} class, so startup needs neither classpath scanning nor a CGLIB proxy for them.
+ */
+public class ReviewRouter implements ApplicationContextInitializer<GenericApplicationContext> {
+
+    @Override
+    public void initialize(GenericApplicationContext context) {
+        context.registerBean("reviewsRoute", RouterFunction.class, () -> reviewsRoute(context.getBean(ReviewHandler.class)));
+        context.registerBean("metricsRoute", RouterFunction.class, () -> metricsRoute(context.getBean(BlockingScheduler.class),
+                context.getBean(ReviewCascadeJob.class)));
+        context.registerBean("exportRoute", RouterFunction.class, () -> exportRoute(context.getBean(ExportJob.class),
+                context.getBean(ReviewCommentStore.class)));
+        context.registerBean("importRoute", RouterFunction.class, () -> importRoute(context.getBean(ImportJob.class),
+                context.getBean(ReviewImportTarget.class)));
+        context.registerBean("reviewSocketMapping", SimpleUrlHandlerMapping.class, () -> reviewSocketMapping(
+                context.getBean(ReviewSocketHandler.class), context.getBean(ReviewSocketProperties.class)));
+    }
 
-    @Bean
-    public RouterFunction<ServerResponse> reviewsRoute(ReviewHandler reviewHandler) {
+    public static RouterFunction<ServerResponse> reviewsRoute(ReviewHandler reviewHandler) {
         return route()
                 .nest(path("/v1/reviews"), builder -> {
                     builder.POST("", reviewHandler::addNewReview)
+                            .POST("/batch", reviewHandler::addNewReviews)
                             .GET("", reviewHandler::getAllReviews)
+                            .GET("/events", reviewHandler::getReviewEvents)
+                            .GET("/events/head", reviewHandler::getReviewEventsHead)
                             .GET("/{id}", reviewHandler::getReviews)
+                            .GET("/{movieInfoId}/trend", reviewHandler::getRatingTrend)
                             .PUT("/{id}", reviewHandler::updateReview)
                             .DELETE("/{id}", reviewHandler::deleteReview);
                 })
                 .GET("/v1/helloworld", request -> ServerResponse.ok().bodyValue("Hello World"))
                 .build();
     }
+
+    public static RouterFunction<ServerResponse> metricsRoute(BlockingScheduler blockingScheduler, ReviewCascadeJob reviewCascadeJob) {
+        return route()
+                .GET("/metrics/blocking", request -> ServerResponse.ok().bodyValue(blockingScheduler.stats()))
+                .GET("/metrics/cascade", request -> ServerResponse.ok().bodyValue(reviewCascadeJob.stats()))
+                .build();
+    }
+
+    public static RouterFunction<ServerResponse> exportRoute(ExportJob exportJob, ReviewCommentStore commentStore) {
+        return route()
+                .POST("/v1/export/reviews", request -> ServerResponse.ok().body(exportJob.export("reviews", Review.class,
+                        "reviewId", Review::getReviewId, commentStore::attach,
+                        request.queryParam("resume").map(Boolean::parseBoolean).orElse(false)),
+                        ExportResult.class))
+                .build();
+    }
+
+    public static RouterFunction<ServerResponse> importRoute(ImportJob importJob, ReviewImportTarget reviewImportTarget) {
+        return route()
+                .POST("/v1/import/reviews", request -> ServerResponse.ok().body(importJob.importFile(
+                        request.queryParam("file").orElse("reviews.ndjson"), reviewImportTarget,
+                        request.queryParam("resume").map(Boolean::parseBoolean).orElse(false)),
+                        ImportResult.class))
+                .build();
+    }
+
+    /**
+     * Ordered ahead of the router functions, which would otherwise take the socket path for {@code GET /v1/reviews/{id}}.
+     */
+    public static SimpleUrlHandlerMapping reviewSocketMapping(ReviewSocketHandler reviewSocketHandler,
+                                                              ReviewSocketProperties properties) {
+        return new SimpleUrlHandlerMapping(Map.of(properties.getPath(), reviewSocketHandler), -2);
+    }
 }
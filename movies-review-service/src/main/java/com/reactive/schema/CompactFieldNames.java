@@ -0,0 +1,65 @@
+package com.reactive.schema;
+
+import com.reactive.dao.model.Review;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The short field names of the compact document layout (version 2), and the rewriting of stored documents between
+ * it and the full layout (version 1), whose field names are the property names. {@code movieInfoId} keeps its name:
+ * it is the shard key, which can't be renamed in place. Never reassign a short name that has been persisted; only
+ * append.
+ */
+public final class CompactFieldNames {
+
+    public static final int FULL = 1;
+    public static final int COMPACT = 2;
+
+    private static final Map<Class<?>, Map<String, String>> NAMES = Map.of(
+            Review.class, Map.of("comment", "c", "rating", "r", "createdAt", "t"));
+
+    private CompactFieldNames() {
+    }
+
+    /**
+     * The stored name of a property in the compact layout.
+     */
+    public static String fieldName(Class<?> type, String property) {
+        return NAMES.getOrDefault(type, Map.of()).getOrDefault(property, property);
+    }
+
+    public static boolean covers(Class<?> type) {
+        return NAMES.containsKey(type);
+    }
+
+    /**
+     * The top-level field names that only a document in the other layout than {@code version} has.
+     */
+    public static List<String> otherLayoutKeys(Class<?> type, int version) {
+        List<String> keys = new ArrayList<>();
+        NAMES.getOrDefault(type, Map.of()).forEach((property, shortName) -> keys.add(version == COMPACT ? property : shortName));
+        return keys;
+    }
+
+    /**
+     * Renames the fields of a stored document into the layout {@code version}. A field already present under its new
+     * name wins over the old one, since it was written later. Returns whether anything changed.
+     */
+    public static boolean rewrite(Document document, Class<?> type, int version) {
+
+        boolean changed = false;
+        for (Map.Entry<String, String> name : NAMES.getOrDefault(type, Map.of()).entrySet()) {
+            String from = version == COMPACT ? name.getKey() : name.getValue();
+            String to = version == COMPACT ? name.getValue() : name.getKey();
+            if (document.containsKey(from)) {
+                Object value = document.remove(from);
+                document.putIfAbsent(to, value);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,18 @@
+package com.reactive.schema;
+
+import org.springframework.data.mapping.PersistentProperty;
+import org.springframework.data.mapping.model.FieldNamingStrategy;
+
+/**
+ * Stores documents in the compact layout. Enable it with
+ * {@code spring.data.mongodb.field-naming-strategy=com.reactive.schema.CompactFieldNamingStrategy}, together with
+ * {@code movies-review.schema.migrate=true} so the stored documents are brought to the new layout. Queries, updates
+ * and projections written against property names are mapped to the short names, so they don't change.
+ */
+public class CompactFieldNamingStrategy implements FieldNamingStrategy {
+
+    @Override
+    public String getFieldName(PersistentProperty<?> property) {
+        return CompactFieldNames.fieldName(property.getOwner().getType(), property.getName());
+    }
+}
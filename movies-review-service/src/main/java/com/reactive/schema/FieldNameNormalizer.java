@@ -0,0 +1,24 @@
+package com.reactive.schema;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterLoadEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rewrites every loaded document into the active layout before it is mapped, so documents the migration hasn't
+ * reached yet still read correctly.
+ */
+@Component
+@RequiredArgsConstructor
+public class FieldNameNormalizer extends AbstractMongoEventListener<Object> {
+
+    private final SchemaLayout schemaLayout;
+
+    @Override
+    public void onAfterLoad(AfterLoadEvent<Object> event) {
+        if (event.getType() != null && CompactFieldNames.covers(event.getType())) {
+            CompactFieldNames.rewrite(event.getDocument(), event.getType(), schemaLayout.version());
+        }
+    }
+}
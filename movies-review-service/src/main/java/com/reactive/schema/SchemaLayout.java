@@ -0,0 +1,24 @@
+package com.reactive.schema;
+
+import com.reactive.dao.model.Review;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * The document layout the mapping writes, as configured through the field naming strategy.
+ */
+@Component
+public class SchemaLayout {
+
+    private final int version;
+
+    public SchemaLayout(MongoMappingContext mappingContext) {
+        String ratingField = mappingContext.getRequiredPersistentEntity(Review.class).getRequiredPersistentProperty("rating").getFieldName();
+        this.version = ratingField.equals(CompactFieldNames.fieldName(Review.class, "rating"))
+                ? CompactFieldNames.COMPACT : CompactFieldNames.FULL;
+    }
+
+    public int version() {
+        return version;
+    }
+}
@@ -0,0 +1,140 @@
+package com.reactive.schema;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.reactive.config.SchemaProperties;
+import com.reactive.dao.model.Review;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.conversions.Bson;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Brings the stored reviews to the active document layout ({@link SchemaLayout}), in either direction, so
+ * switching to compact field names and back are both a restart. The layout of each collection is recorded in
+ * {@code schema_versions}, and a collection already at the target version is left alone.
+ * <p>
+ * Each document is rewritten with a replace that matches the whole document as read, shard key included, so it
+ * targets one shard. A document changed concurrently is skipped and picked up by the next pass. The migration runs
+ * in the background while the service takes traffic. Until it finishes, reads of not yet migrated documents go
+ * through {@link FieldNameNormalizer}. Reviews are only queried by id and {@code movieInfoId}, neither of which is
+ * renamed, and every review write replaces the whole document. A projection on renamed fields, though, can only name
+ * the active layout, so while {@link #isInProgress} holds, projected reads fetch whole documents instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SchemaMigration {
+
+    static final String VERSIONS_COLLECTION = "schema_versions";
+    private static final int MAX_PASSES = 5;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final SchemaLayout schemaLayout;
+    private final SchemaProperties schemaProperties;
+
+    private volatile boolean migrated;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+
+        if (!schemaProperties.isMigrate()) {
+            return;
+        }
+        migrate(Review.class).subscribe(
+                rewritten -> {
+                    migrated = true;
+                    log.info("Reviews are in document layout v{} ({} rewritten)", schemaLayout.version(), rewritten);
+                },
+                ex -> log.error("Review layout migration failed: {}", ex.getMessage(), ex));
+    }
+
+    /**
+     * Whether stored reviews may still be in the other layout: from startup, with the migration on, until it succeeds.
+     */
+    public boolean isInProgress() {
+        return schemaProperties.isMigrate() && !migrated;
+    }
+
+    public Mono<Long> migrate(Class<?> entityClass) {
+
+        String collectionName = reactiveMongoTemplate.getCollectionName(entityClass);
+        int target = schemaLayout.version();
+
+        return storedVersion(collectionName)
+                .flatMap(stored -> stored == target
+                        ? Mono.just(0L)
+                        : reactiveMongoTemplate.getCollection(collectionName)
+                                .flatMap(collection -> rewriteAll(collection, entityClass, target, 1))
+                                .flatMap(rewritten -> saveVersion(collectionName, target).thenReturn(rewritten)));
+    }
+
+    private Mono<Long> rewriteAll(MongoCollection<Document> collection, Class<?> entityClass, int target, int pass) {
+
+        List<Bson> otherLayout = CompactFieldNames.otherLayoutKeys(entityClass, target).stream()
+                .map(Filters::exists)
+                .collect(Collectors.toList());
+        Counts counts = new Counts();
+
+        return Flux.from(collection.find(Filters.or(otherLayout)).batchSize(schemaProperties.getBatchSize()))
+                .flatMap(document -> {
+                    Bson asRead = new RawBsonDocument(document, new DocumentCodec());
+                    CompactFieldNames.rewrite(document, entityClass, target);
+                    return Mono.from(collection.replaceOne(asRead, document, new ReplaceOptions()));
+                }, schemaProperties.getConcurrency())
+                .doOnNext(result -> {
+                    if (result.getMatchedCount() > 0) {
+                        counts.rewritten++;
+                    } else {
+                        counts.skipped++;
+                    }
+                })
+                .then(Mono.defer(() -> {
+                    if (counts.skipped == 0) {
+                        return Mono.just(counts.rewritten);
+                    }
+                    if (pass == MAX_PASSES) {
+                        return Mono.error(new IllegalStateException(counts.skipped + " documents of "
+                                + collection.getNamespace() + " kept changing during the layout migration; run it again"));
+                    }
+                    return rewriteAll(collection, entityClass, target, pass + 1).map(more -> counts.rewritten + more);
+                }));
+    }
+
+    private Mono<Integer> storedVersion(String collectionName) {
+        return reactiveMongoTemplate.getCollection(VERSIONS_COLLECTION)
+                .flatMap(versions -> Mono.from(versions.find(Filters.eq("_id", collectionName)).first()))
+                .map(version -> version.getInteger("version", CompactFieldNames.FULL))
+                .defaultIfEmpty(CompactFieldNames.FULL);
+    }
+
+    private Mono<Void> saveVersion(String collectionName, int version) {
+        return reactiveMongoTemplate.getCollection(VERSIONS_COLLECTION)
+                .flatMap(versions -> Mono.from(versions.updateOne(Filters.eq("_id", collectionName),
+                        Updates.combine(Updates.set("version", version), Updates.set("migratedAt", Instant.now())),
+                        new UpdateOptions().upsert(true))))
+                .then();
+    }
+
+    // Updated from a single flatMap's onNext, which Reactor serializes
+    private static class Counts {
+
+        long rewritten;
+        long skipped;
+    }
+}
@@ -0,0 +1,201 @@
+package com.reactive.service;
+
+import com.reactive.config.CommentProperties;
+import com.reactive.dao.model.Review;
+import com.reactive.dao.model.ReviewComment;
+import com.reactive.schema.SchemaMigration;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps review comments out of the reviews collection when {@code movies-review.comments.split} is on. Reviews are
+ * then written without their comment, which goes to {@link ReviewComment}, and are read without it unless a caller
+ * asks for it. Reviews written before the split still carry the comment inline. {@link #attach} falls back to it,
+ * and the review's next update moves it out. With the split off, every method leaves reviews as they are.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReviewCommentStore {
+
+    private static final String COMMENT = "comment";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final CommentProperties properties;
+    private final SchemaMigration schemaMigration;
+
+    public boolean isSplit() {
+        return properties.isSplit();
+    }
+
+    /**
+     * Leaves the comment out of the reviews a query reads.
+     */
+    public Query withoutComment(Query query) {
+        if (properties.isSplit()) {
+            query.fields().exclude(COMMENT);
+        }
+        return query;
+    }
+
+    /**
+     * Writes the review, and its comment separately, emitting the saved review with the comment set.
+     */
+    public Mono<Review> save(Review review, Function<Review, Mono<Review>> write) {
+        if (!properties.isSplit()) {
+            return write.apply(review);
+        }
+        String comment = review.getComment();
+        review.setComment(null);
+        return write.apply(review)
+                .flatMap(savedReview -> saveComment(savedReview, comment)
+                        .then(Mono.fromSupplier(() -> {
+                            savedReview.setComment(comment);
+                            return savedReview;
+                        })));
+    }
+
+    /**
+     * Writes the comments of reviews that were stored without them in bulk, such as by an import.
+     */
+    public Mono<Void> saveComments(List<Review> reviews) {
+        if (!properties.isSplit()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(reviews)
+                .filter(review -> review.getComment() != null)
+                .concatMap(review -> saveComment(review, review.getComment()))
+                .then();
+    }
+
+    public Mono<Void> delete(Review review) {
+        if (!properties.isSplit()) {
+            return Mono.empty();
+        }
+        return reactiveMongoTemplate.remove(byShardKey(review.getMovieInfoId(), List.of(review.getReviewId())), ReviewComment.class)
+                .then();
+    }
+
+    public Mono<Void> deleteAll(String movieInfoId) {
+        return reactiveMongoTemplate.remove(Query.query(Criteria.where("movieInfoId").is(movieInfoId)), ReviewComment.class)
+                .then();
+    }
+
+    public Mono<Review> attach(Review review) {
+        return attach(List.of(review)).map(reviews -> reviews.get(0));
+    }
+
+    public Flux<Review> attach(Flux<Review> reviews) {
+        if (!properties.isSplit()) {
+            return reviews;
+        }
+        return reviews.buffer(properties.getLookupBatchSize())
+                .concatMap(this::attach)
+                .flatMapIterable(Function.identity());
+    }
+
+    /**
+     * Fills in the comment of every review that has none: from its {@link ReviewComment}, or else from the comment
+     * still stored inline.
+     */
+    public Mono<List<Review>> attach(List<Review> reviews) {
+
+        List<Review> missing = reviews.stream().filter(review -> review.getComment() == null).collect(Collectors.toList());
+        if (!properties.isSplit() || missing.isEmpty()) {
+            return Mono.just(reviews);
+        }
+        return lookup(ReviewComment.class, missing, "text", "compressed")
+                .collectMap(ReviewComment::getReviewId, this::text)
+                .flatMap(comments -> {
+                    List<Review> inline = missing.stream()
+                            .filter(review -> {
+                                review.setComment(comments.get(review.getReviewId()));
+                                return review.getComment() == null;
+                            })
+                            .collect(Collectors.toList());
+                    if (inline.isEmpty()) {
+                        return Mono.just(reviews);
+                    }
+                    return lookup(Review.class, inline, COMMENT)
+                            .filter(review -> review.getComment() != null)
+                            .collectMap(Review::getReviewId, Review::getComment)
+                            .map(inlineComments -> {
+                                inline.forEach(review -> review.setComment(inlineComments.get(review.getReviewId())));
+                                return reviews;
+                            });
+                });
+    }
+
+    private Mono<Void> saveComment(Review review, String comment) {
+        if (comment == null) {
+            return delete(review);
+        }
+        boolean compress = comment.length() >= properties.getCompressMinLength();
+        return reactiveMongoTemplate.save(ReviewComment.builder()
+                        .reviewId(review.getReviewId())
+                        .movieInfoId(review.getMovieInfoId())
+                        .text(compress ? null : comment)
+                        .compressed(compress ? gzip(comment) : null)
+                        .build())
+                .then();
+    }
+
+    // All reviews of a batch usually belong to one movie, so the lookup stays on few shards
+    private <T> Flux<T> lookup(Class<T> entityClass, List<Review> reviews, String... fields) {
+        Map<String, List<String>> byMovie = reviews.stream()
+                .filter(review -> review.getMovieInfoId() != null)
+                .collect(Collectors.groupingBy(Review::getMovieInfoId,
+                        Collectors.mapping(Review::getReviewId, Collectors.toList())));
+        return Flux.fromIterable(byMovie.entrySet())
+                .flatMap(entry -> {
+                    Query query = byShardKey(entry.getKey(), entry.getValue());
+                    // A projection names the active layout only, so it would miss the fields of unmigrated reviews
+                    if (entityClass != Review.class || !schemaMigration.isInProgress()) {
+                        query.fields().include("reviewId").include(fields);
+                    }
+                    return reactiveMongoTemplate.find(query, entityClass);
+                });
+    }
+
+    private String text(ReviewComment comment) {
+        return comment.getCompressed() != null ? gunzip(comment.getCompressed()) : comment.getText();
+    }
+
+    private static Query byShardKey(String movieInfoId, List<String> reviewIds) {
+        return Query.query(Criteria.where("movieInfoId").is(movieInfoId).and("reviewId").in(reviewIds));
+    }
+
+    private static byte[] gzip(String text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(text.length() / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String gunzip(byte[] compressed) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.reactive.service;
+
+import com.reactive.dao.model.RatingTrendPoint;
+import com.reactive.dao.model.Review;
+import com.reactive.dao.model.ReviewRatingBucket;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Instant;
+
+/**
+ * Maintains the hourly and daily rating buckets of every movie and serves rating trends from them, so a trend
+ * query reads one document per bucket instead of every review in the range.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReviewTrendService {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    /**
+     * Creates the buckets {@code review} counts towards, if they don't exist yet. Call it before the outbox
+     * transaction that records the review: two transactions inserting the same new bucket abort instead of letting
+     * one of them retry as an update, so the counters below only ever update buckets that already exist.
+     */
+    public Mono<Void> createBuckets(Review review) {
+
+        if (review.getMovieInfoId() == null || review.getCreatedAt() == null) {
+            return Mono.empty();
+        }
+
+        return Flux.fromArray(ReviewRatingBucket.Granularity.values())
+                .concatMap(granularity -> reactiveMongoTemplate.upsert(bucket(review, granularity),
+                                new Update().setOnInsert("count", 0L).setOnInsert("ratingSum", 0.0),
+                                ReviewRatingBucket.class)
+                        // Two concurrent upserts of a new bucket: the loser hits the unique index and finds it on retry
+                        .retryWhen(Retry.max(1).filter(DuplicateKeyException.class::isInstance)))
+                .then();
+    }
+
+    public Mono<Void> reviewCreated(Review review) {
+        return record(review, 1, rating(review.getRating()));
+    }
+
+    public Mono<Void> reviewUpdated(Review review, Double previousRating) {
+        return record(review, 0, rating(review.getRating()) - rating(previousRating));
+    }
+
+    public Mono<Void> reviewDeleted(Review review) {
+        return record(review, -1, -rating(review.getRating()));
+    }
+
+    public Flux<RatingTrendPoint> getTrend(String movieInfoId, Instant from, Instant to, ReviewRatingBucket.Granularity granularity) {
+
+        Query query = Query.query(Criteria.where("movieInfoId").is(movieInfoId)
+                        .and("granularity").is(granularity)
+                        .and("bucketStart").gte(granularity.bucketStart(from)).lt(to))
+                .with(Sort.by("bucketStart"));
+
+        return reactiveMongoTemplate.find(query, ReviewRatingBucket.class)
+                .filter(bucket -> bucket.getCount() != null && bucket.getCount() > 0)
+                .map(bucket -> RatingTrendPoint.builder()
+                        .bucketStart(bucket.getBucketStart())
+                        .count(bucket.getCount())
+                        .averageRating(bucket.getRatingSum() / bucket.getCount())
+                        .build());
+    }
+
+    // Reviews written before createdAt existed have no bucket to land in, and neither do older reviews whose bucket
+    // was never created
+    private Mono<Void> record(Review review, long countDelta, double ratingDelta) {
+
+        if (review.getMovieInfoId() == null || review.getCreatedAt() == null) {
+            return Mono.empty();
+        }
+
+        return Flux.fromArray(ReviewRatingBucket.Granularity.values())
+                .concatMap(granularity -> reactiveMongoTemplate.updateFirst(bucket(review, granularity),
+                        new Update().inc("count", countDelta).inc("ratingSum", ratingDelta), ReviewRatingBucket.class))
+                .then();
+    }
+
+    private static Query bucket(Review review, ReviewRatingBucket.Granularity granularity) {
+        return Query.query(Criteria.where("movieInfoId").is(review.getMovieInfoId())
+                .and("granularity").is(granularity)
+                .and("bucketStart").is(granularity.bucketStart(review.getCreatedAt())));
+    }
+
+    private static double rating(Double rating) {
+        return rating == null ? 0.0 : rating;
+    }
+}
@@ -0,0 +1,128 @@
+package com.reactive.sharding;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stand-in for a mongos' targeting decision. Once a collection is sharded, mongos can only route a command to the
+ * shard that owns the data if its filter pins the shard key, with an equality or an {@code $in}. Any other command
+ * is broadcast to every shard. This listener watches the commands the driver sends and records those that would be
+ * broadcast. It works the same against a standalone mongod, so tests can assert that the hot paths stay targeted
+ * without a real sharded cluster.
+ */
+@Slf4j
+public class BroadcastQueryDetector implements CommandListener {
+
+    private static final Set<String> FILTERED_COMMANDS = Set.of("find", "update", "delete", "findAndModify", "count",
+            "distinct", "aggregate");
+
+    private final Map<String, String> shardKeys;
+    private final List<String> broadcasts = Collections.synchronizedList(new ArrayList<>());
+
+    public BroadcastQueryDetector(Map<String, String> shardKeys) {
+        this.shardKeys = shardKeys;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+
+        String commandName = event.getCommandName();
+        if (!FILTERED_COMMANDS.contains(commandName)) {
+            return;
+        }
+        BsonValue collection = event.getCommand().get(commandName);
+        String shardKey = collection != null && collection.isString() ? shardKeys.get(collection.asString().getValue()) : null;
+        if (shardKey == null) {
+            return;
+        }
+
+        for (BsonDocument filter : filters(commandName, event.getCommand())) {
+            if (!isTargeted(filter, shardKey)) {
+                String broadcast = commandName + " " + collection.asString().getValue() + " " + filter.toJson();
+                log.warn("Broadcast query on sharded collection: {}", broadcast);
+                broadcasts.add(broadcast);
+            }
+        }
+    }
+
+    public List<String> getBroadcasts() {
+        synchronized (broadcasts) {
+            return new ArrayList<>(broadcasts);
+        }
+    }
+
+    public void reset() {
+        broadcasts.clear();
+    }
+
+    static boolean isTargeted(BsonDocument filter, String shardKey) {
+        BsonValue value = filter.get(shardKey);
+        if (value != null) {
+            if (!value.isDocument()) {
+                return true;
+            }
+            BsonDocument operators = value.asDocument();
+            if (operators.containsKey("$eq") || operators.containsKey("$in")) {
+                return true;
+            }
+        }
+        // Any branch of an $and that targets is enough
+        BsonValue and = filter.get("$and");
+        if (and != null && and.isArray()) {
+            for (BsonValue clause : and.asArray()) {
+                if (clause.isDocument() && isTargeted(clause.asDocument(), shardKey)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<BsonDocument> filters(String commandName, BsonDocument command) {
+        List<BsonDocument> filters = new ArrayList<>();
+        switch (commandName) {
+            case "find":
+                filters.add(command.getDocument("filter", new BsonDocument()));
+                break;
+            case "update":
+                statements(command.getArray("updates", new BsonArray()), filters);
+                break;
+            case "delete":
+                statements(command.getArray("deletes", new BsonArray()), filters);
+                break;
+            case "findAndModify":
+            case "count":
+            case "distinct":
+                filters.add(command.getDocument("query", new BsonDocument()));
+                break;
+            case "aggregate":
+                BsonArray pipeline = command.getArray("pipeline", new BsonArray());
+                BsonValue first = pipeline.isEmpty() ? null : pipeline.get(0);
+                filters.add(first != null && first.isDocument() && first.asDocument().isDocument("$match")
+                        ? first.asDocument().getDocument("$match")
+                        : new BsonDocument());
+                break;
+            default:
+                break;
+        }
+        return filters;
+    }
+
+    private static void statements(BsonArray statements, List<BsonDocument> filters) {
+        for (BsonValue statement : statements) {
+            if (statement.isDocument()) {
+                filters.add(statement.asDocument().getDocument("q", new BsonDocument()));
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+// Run once against the mongos of a sharded cluster, e.g. mongosh "mongodb://mongos:27017/local" shard-reviews.js
+// The key must match the @Sharded annotation on Review.
+sh.enableSharding(db.getName());
+db.review.createIndex({ movieInfoId: "hashed" });
+sh.shardCollection(db.getName() + ".review", { movieInfoId: "hashed" });
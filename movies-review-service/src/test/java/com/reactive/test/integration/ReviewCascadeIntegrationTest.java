@@ -0,0 +1,63 @@
+package com.reactive.test.integration;
+
+import com.reactive.cascade.ReviewCascadeJob;
+import com.reactive.dao.model.Review;
+import com.reactive.dao.model.ReviewRatingBucket;
+import com.reactive.dao.repository.ReviewRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "movies-review.cascade.batch-size=2")
+public class ReviewCascadeIntegrationTest {
+
+    private final static String DELETED_MOVIE_INFO_ID = "631b19fd61b52a21d88c3b01";
+    private final static String OTHER_MOVIE_INFO_ID = "631b19fd61b52a21d88c3b02";
+
+    @Autowired
+    private ReviewCascadeJob reviewCascadeJob;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @AfterEach
+    void tearDown() {
+        reviewRepository.deleteAll().block();
+        reactiveMongoTemplate.dropCollection(ReviewRatingBucket.class).block();
+    }
+
+    @Test
+    void purgeRemovesOnlyTheDeletedMoviesReviewsInBatches() {
+
+        reviewRepository.saveAll(Flux.fromStream(IntStream.range(0, 5).mapToObj(i -> review(DELETED_MOVIE_INFO_ID))))
+                .thenMany(reviewRepository.save(review(OTHER_MOVIE_INFO_ID)))
+                .blockLast();
+        reactiveMongoTemplate.save(ReviewRatingBucket.builder().movieInfoId(DELETED_MOVIE_INFO_ID)
+                .granularity(ReviewRatingBucket.Granularity.DAY).count(5L).ratingSum(40.0).build()).block();
+
+        assertThat(reviewCascadeJob.purge(DELETED_MOVIE_INFO_ID).block()).isEqualTo(5L);
+
+        assertThat(reviewRepository.findAll().map(Review::getMovieInfoId).collectList().block())
+                .containsExactly(OTHER_MOVIE_INFO_ID);
+        assertThat(reactiveMongoTemplate.count(new Query(), ReviewRatingBucket.class)
+                .block()).isZero();
+        assertThat(reviewCascadeJob.stats().getPurgedReviews()).isEqualTo(5L);
+    }
+
+    private static Review review(String movieInfoId) {
+        return Review.builder().movieInfoId(movieInfoId).rating(8.0).comment("Great").build();
+    }
+}
@@ -1,16 +1,25 @@
 package com.reactive.test.integration;
 
+import com.reactive.dao.model.RatingTrendPoint;
 import com.reactive.dao.model.Review;
+import com.reactive.dao.model.ReviewRatingBucket;
 import com.reactive.dao.repository.ReviewRepository;
+import com.reactive.migration.MovieInfoIdMigration;
+import com.reactive.service.ReviewTrendService;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
@@ -30,15 +39,29 @@ public class ReviewIntegrationTest {
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    private MovieInfoIdMigration movieInfoIdMigration;
+
+    @Autowired
+    private ReviewTrendService reviewTrendService;
+
     private final static String REVIEW_URI = "/v1/reviews";
+    private final static String MOVIE_INFO_ID_1 = "631b19fd61b52a21d88c3b01";
+    private final static String MOVIE_INFO_ID_2 = "631b19fd61b52a21d88c3b02";
+    private final static String MOVIE_INFO_ID_4 = "631b19fd61b52a21d88c3b04";
+    private final static String MOVIE_INFO_ID_5 = "631b19fd61b52a21d88c3b05";
+    private final static String MOVIE_INFO_ID_7 = "631b19fd61b52a21d88c3b07";
 
     @BeforeEach
     void setUp() {
 
         reviewRepository.saveAll(List.of(
-                Review.builder().reviewId("631b19fd61b52a21d88c3b54").movieInfoId(1L).rating(9.0).comment("Amazing").build(),
-                Review.builder().reviewId("631b19fd61b52a21d88c3b55").movieInfoId(2L).rating(6.7).comment("Boring").build(),
-                Review.builder().reviewId("631b19fd61b52a21d88c3b56").movieInfoId(2L).rating(8.0).comment("Fun").build()))
+                Review.builder().reviewId("631b19fd61b52a21d88c3b54").movieInfoId(MOVIE_INFO_ID_1).rating(9.0).comment("Amazing").build(),
+                Review.builder().reviewId("631b19fd61b52a21d88c3b55").movieInfoId(MOVIE_INFO_ID_2).rating(6.7).comment("Boring").build(),
+                Review.builder().reviewId("631b19fd61b52a21d88c3b56").movieInfoId(MOVIE_INFO_ID_2).rating(8.0).comment("Fun").build()))
                 .blockLast();
 
     }
@@ -46,12 +69,13 @@ public class ReviewIntegrationTest {
     @AfterEach
     void tearDown() {
         reviewRepository.deleteAll().block();
+        reactiveMongoTemplate.dropCollection(ReviewRatingBucket.class).block();
     }
 
     @Test
     public void createNewReview() throws InterruptedException {
 
-        Review review = Review.builder().movieInfoId(4L).rating(5.0).comment("BAD!").build();
+        Review review = Review.builder().movieInfoId(MOVIE_INFO_ID_4).rating(5.0).comment("BAD!").build();
         CountDownLatch countDownLatch = new CountDownLatch(1);
 
         webTestClient.post()
@@ -71,6 +95,42 @@ public class ReviewIntegrationTest {
         assertThat(countDownLatch.getCount()).isEqualTo(0);
     }
 
+    @Test
+    public void createNewReview_invalid() {
+
+        webTestClient.post()
+                .uri(REVIEW_URI)
+                .bodyValue(Review.builder().rating(11.0).comment("Too good").build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class)
+                .isEqualTo("Review movieInfoId must not be empty, Review rating must be between 0 and 10");
+    }
+
+    @Test
+    public void createNewReviews() {
+
+        List<Review> reviews = List.of(
+                Review.builder().movieInfoId(MOVIE_INFO_ID_5).rating(7.5).comment("Solid").build(),
+                Review.builder().movieInfoId(MOVIE_INFO_ID_5).rating(8.5).comment("Great").build());
+
+        webTestClient.post()
+                .uri(REVIEW_URI + "/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(Flux.fromIterable(reviews), Review.class)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBodyList(Review.class)
+                .hasSize(2)
+                .consumeWith(listEntityExchangeResult -> {
+                    List<Review> createdReviews = listEntityExchangeResult.getResponseBody();
+                    assertThat(createdReviews).isNotNull();
+                    createdReviews.forEach(review -> assertThat(review.getReviewId()).isNotBlank());
+                });
+
+        assertThat(reviewRepository.findByMovieInfoId(MOVIE_INFO_ID_5).count().block()).isEqualTo(2);
+    }
+
     @Test
     public void getAllReviews() throws InterruptedException {
 
@@ -100,7 +160,7 @@ public class ReviewIntegrationTest {
         CountDownLatch countDownLatch = new CountDownLatch(1);
 
         webTestClient.get()
-                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI).queryParamIfPresent("movieInfoId", Optional.of(2)).build())
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI).queryParamIfPresent("movieInfoId", Optional.of(MOVIE_INFO_ID_2)).build())
                 .exchange()
                 .expectStatus().isOk()
                 .expectBodyList(Review.class)
@@ -108,7 +168,7 @@ public class ReviewIntegrationTest {
                     List<Review> reviewList = listEntityExchangeResult.getResponseBody();
                     assertThat(reviewList).isNotNull();
                     assertThat(reviewList.size()).isEqualTo(2);
-                    reviewList.forEach(review -> assertThat(review.getMovieInfoId()).isEqualTo(2));
+                    reviewList.forEach(review -> assertThat(review.getMovieInfoId()).isEqualTo(MOVIE_INFO_ID_2));
                     countDownLatch.countDown();
                 });
 
@@ -122,7 +182,7 @@ public class ReviewIntegrationTest {
         String reviewId = "4";
 
         webTestClient.put()
-                .uri(REVIEW_URI + "/{reviewId}", reviewId)
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI + "/{reviewId}").queryParam("movieInfoId", MOVIE_INFO_ID_1).build(reviewId))
                 .bodyValue(Review.builder()
                         .comment("Movie 1")
                         .rating(3.0)
@@ -138,7 +198,7 @@ public class ReviewIntegrationTest {
         CountDownLatch countDownLatch = new CountDownLatch(1);
 
         webTestClient.put()
-                .uri(REVIEW_URI + "/{reviewId}", reviewId)
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI + "/{reviewId}").queryParam("movieInfoId", MOVIE_INFO_ID_1).build(reviewId))
                 .bodyValue(Review.builder()
                         .comment("Excellent")
                         .rating(10.0)
@@ -151,7 +211,7 @@ public class ReviewIntegrationTest {
                     Review updatedReview = reviewEntityExchangeResult.getResponseBody();
                     assertThat(updatedReview).isNotNull();
                     assertThat(updatedReview.getReviewId()).isEqualTo("631b19fd61b52a21d88c3b54");
-                    assertThat(updatedReview.getMovieInfoId()).isEqualTo(1L);
+                    assertThat(updatedReview.getMovieInfoId()).isEqualTo(MOVIE_INFO_ID_1);
                     assertThat(updatedReview.getComment()).isEqualTo("Excellent");
                     assertThat(updatedReview.getRating()).isEqualTo(10.0);
                     countDownLatch.countDown();
@@ -167,7 +227,7 @@ public class ReviewIntegrationTest {
         String reviewId = "5";
 
         webTestClient.delete()
-                .uri(REVIEW_URI + "/{reviewId}", reviewId)
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI + "/{reviewId}").queryParam("movieInfoId", MOVIE_INFO_ID_2).build(reviewId))
                 .exchange()
                 .expectStatus().isNoContent();
     }
@@ -178,7 +238,7 @@ public class ReviewIntegrationTest {
         String reviewId = "631b19fd61b52a21d88c3b56";
 
         webTestClient.delete()
-                .uri(REVIEW_URI + "/{reviewId}", reviewId)
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI + "/{reviewId}").queryParam("movieInfoId", MOVIE_INFO_ID_2).build(reviewId))
                 .exchange()
                 .expectStatus().isNoContent()
                 .expectBody(Void.class);
@@ -193,7 +253,7 @@ public class ReviewIntegrationTest {
         String reviewId = "123";
 
         webTestClient.get()
-                .uri(REVIEW_URI + "/{id}", reviewId)
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI + "/{id}").queryParam("movieInfoId", MOVIE_INFO_ID_1).build(reviewId))
                 .exchange()
                 .expectStatus().isNotFound();
     }
@@ -205,7 +265,7 @@ public class ReviewIntegrationTest {
         String reviewId = "631b19fd61b52a21d88c3b56";
 
         webTestClient.get()
-                .uri(REVIEW_URI + "/{id}", reviewId)
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI + "/{id}").queryParam("movieInfoId", MOVIE_INFO_ID_2).build(reviewId))
                 .exchange()
                 .expectStatus().isOk()
                 .expectBody(Review.class)
@@ -216,11 +276,93 @@ public class ReviewIntegrationTest {
                     assertThat(review.getReviewId()).isEqualTo("631b19fd61b52a21d88c3b56");
                     assertThat(review.getRating()).isEqualTo(8.0);
                     assertThat(review.getComment()).isEqualTo("Fun");
-                    assertThat(review.getMovieInfoId()).isEqualTo(2L);
+                    assertThat(review.getMovieInfoId()).isEqualTo(MOVIE_INFO_ID_2);
                     countDownLatch.countDown();
                 });
 
         countDownLatch.await(1000, TimeUnit.MILLISECONDS);
         assertThat(countDownLatch.getCount()).isEqualTo(0);
     }
+
+    @Test
+    public void getRatingTrend() {
+
+        // The API stamps createdAt itself, so past reviews are counted directly
+        Instant createdAt = Instant.parse("2022-09-10T10:15:00Z");
+        Flux.just(Review.builder().movieInfoId(MOVIE_INFO_ID_7).rating(6.0).createdAt(createdAt).build(),
+                        Review.builder().movieInfoId(MOVIE_INFO_ID_7).rating(9.0).createdAt(createdAt.plusSeconds(60)).build(),
+                        Review.builder().movieInfoId(MOVIE_INFO_ID_7).rating(3.0).createdAt(createdAt.plusSeconds(86_400)).build())
+                .concatMap(review -> reviewTrendService.createBuckets(review).then(reviewTrendService.reviewCreated(review)))
+                .blockLast();
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI + "/{movieInfoId}/trend")
+                        .queryParam("from", "2022-09-10T00:00:00Z")
+                        .queryParam("to", "2022-09-12T00:00:00Z")
+                        .queryParam("granularity", "day")
+                        .build(MOVIE_INFO_ID_7))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(RatingTrendPoint.class)
+                .consumeWith(listEntityExchangeResult -> {
+                    List<RatingTrendPoint> trend = listEntityExchangeResult.getResponseBody();
+                    assertThat(trend).isNotNull();
+                    assertThat(trend.size()).isEqualTo(2);
+                    assertThat(trend.get(0).getCount()).isEqualTo(2L);
+                    assertThat(trend.get(0).getAverageRating()).isEqualTo(7.5);
+                    assertThat(trend.get(1).getCount()).isEqualTo(1L);
+                    assertThat(trend.get(1).getAverageRating()).isEqualTo(3.0);
+                });
+    }
+
+    @Test
+    public void addReview_ignoresCreatedAt() {
+
+        Instant backdated = Instant.parse("2022-09-10T10:15:00Z");
+
+        webTestClient.post()
+                .uri(REVIEW_URI)
+                .bodyValue(Review.builder().movieInfoId(MOVIE_INFO_ID_7).rating(6.0).comment("Ok").createdAt(backdated).build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Review.class)
+                .consumeWith(reviewEntityExchangeResult -> {
+                    Review savedReview = reviewEntityExchangeResult.getResponseBody();
+                    assertThat(savedReview).isNotNull();
+                    assertThat(savedReview.getCreatedAt()).isAfter(backdated);
+                });
+    }
+
+    @Test
+    public void getRatingTrend_invalidGranularity() {
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI + "/{movieInfoId}/trend")
+                        .queryParam("granularity", "week")
+                        .build(MOVIE_INFO_ID_7))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void getAllReviewsByMovieInfoId_invalidId() {
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI).queryParam("movieInfoId", 2).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void migrateLegacyMovieInfoIds() {
+
+        reactiveMongoTemplate.insert(new Document("movieInfoId", 2L).append("rating", 5.0), "review").block();
+        reactiveMongoTemplate.insert(new Document("movieInfoId", MOVIE_INFO_ID_2).append("rating", 6.0), "review").block();
+
+        assertThat(movieInfoIdMigration.migrate().block()).isEqualTo(2L);
+
+        assertThat(reviewRepository.findByMovieInfoId(MOVIE_INFO_ID_2).count().block()).isEqualTo(3);
+        assertThat(reviewRepository.findByMovieInfoId("000000000000000000000002").count().block()).isEqualTo(1);
+        assertThat(movieInfoIdMigration.migrate().block()).isZero();
+    }
 }
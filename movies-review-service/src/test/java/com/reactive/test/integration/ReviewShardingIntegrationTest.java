@@ -0,0 +1,119 @@
+package com.reactive.test.integration;
+
+import com.reactive.dao.model.Review;
+import com.reactive.dao.model.ReviewRatingBucket;
+import com.reactive.dao.repository.ReviewRepository;
+import com.reactive.sharding.BroadcastQueryDetector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the hot paths against the embedded mongod with the broadcast detector standing in for a mongos, and checks
+ * that every read and write on the reviews collection carries the shard key.
+ */
+@ActiveProfiles("test")
+@AutoConfigureWebTestClient
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReviewShardingIntegrationTest {
+
+    private final static String REVIEW_URI = "/v1/reviews";
+    private final static String MOVIE_INFO_ID = "631b19fd61b52a21d88c3b01";
+    private final static String REVIEW_ID = "631b19fd61b52a21d88c3b54";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    private BroadcastQueryDetector broadcastQueryDetector;
+
+    @BeforeEach
+    void setUp() {
+
+        reviewRepository.saveAll(List.of(
+                Review.builder().reviewId(REVIEW_ID).movieInfoId(MOVIE_INFO_ID).rating(9.0).comment("Amazing").build(),
+                Review.builder().reviewId("631b19fd61b52a21d88c3b55").movieInfoId(MOVIE_INFO_ID).rating(6.7).comment("Boring").build()))
+                .blockLast();
+        broadcastQueryDetector.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reviewRepository.deleteAll().block();
+        reactiveMongoTemplate.dropCollection(ReviewRatingBucket.class).block();
+    }
+
+    @Test
+    void hotPathsAreTargeted() {
+
+        webTestClient.post()
+                .uri(REVIEW_URI)
+                .bodyValue(Review.builder().movieInfoId(MOVIE_INFO_ID).rating(7.0).comment("Good").build())
+                .exchange()
+                .expectStatus().isCreated();
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI).queryParam("movieInfoId", MOVIE_INFO_ID).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Review.class)
+                .hasSize(3);
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI + "/{id}").queryParam("movieInfoId", MOVIE_INFO_ID).build(REVIEW_ID))
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.put()
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI + "/{id}").queryParam("movieInfoId", MOVIE_INFO_ID).build(REVIEW_ID))
+                .bodyValue(Review.builder().comment("Excellent").rating(10.0).build())
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.delete()
+                .uri(uriBuilder -> uriBuilder.path(REVIEW_URI + "/{id}").queryParam("movieInfoId", MOVIE_INFO_ID).build(REVIEW_ID))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        assertThat(broadcastQueryDetector.getBroadcasts()).isEmpty();
+    }
+
+    @Test
+    void byIdRoutesWithoutShardKeyAreRejected() {
+
+        webTestClient.get()
+                .uri(REVIEW_URI + "/{id}", REVIEW_ID)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.put()
+                .uri(REVIEW_URI + "/{id}", REVIEW_ID)
+                .bodyValue(Review.builder().comment("Excellent").rating(10.0).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.delete()
+                .uri(REVIEW_URI + "/{id}", REVIEW_ID)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        assertThat(broadcastQueryDetector.getBroadcasts()).isEmpty();
+        assertThat(reviewRepository.count().block()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,114 @@
+package com.reactive.test.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.dao.model.Review;
+import com.reactive.dao.model.ReviewRatingBucket;
+import com.reactive.dao.repository.ReviewRepository;
+import com.reactive.handler.ReviewSocketMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReviewSocketIntegrationTest {
+
+    private final static String MOVIE_INFO_ID = "631b19fd61b52a21d88c3b01";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @AfterEach
+    void tearDown() {
+        reviewRepository.deleteAll().block();
+        reactiveMongoTemplate.dropCollection(ReviewRatingBucket.class).block();
+    }
+
+    @Test
+    void submitAndSubscribeOverOneConnection() {
+
+        List<ReviewSocketMessage> frames = List.of(
+                ReviewSocketMessage.builder().type(ReviewSocketMessage.Type.SUBSCRIBE).id("s1").movieInfoId(MOVIE_INFO_ID).build(),
+                ReviewSocketMessage.builder().type(ReviewSocketMessage.Type.SUBMIT).id("r1")
+                        .review(Review.builder().movieInfoId(MOVIE_INFO_ID).rating(9.0).comment("Awesome Movie").build()).build(),
+                // Fire-and-forget: saved, but not acknowledged
+                ReviewSocketMessage.builder().type(ReviewSocketMessage.Type.SUBMIT)
+                        .review(Review.builder().movieInfoId(MOVIE_INFO_ID).rating(7.0).comment("Good").build()).build(),
+                ReviewSocketMessage.builder().type(ReviewSocketMessage.Type.SUBMIT).id("r2")
+                        .review(Review.builder().movieInfoId("1").rating(7.0).comment("Bad id").build()).build());
+
+        List<ReviewSocketMessage> replies = exchange(frames, 4);
+
+        assertThat(replies).filteredOn(reply -> reply.getType() == ReviewSocketMessage.Type.ACK)
+                .singleElement()
+                .satisfies(ack -> {
+                    assertThat(ack.getId()).isEqualTo("r1");
+                    assertThat(ack.getReview().getReviewId()).isNotNull();
+                });
+        assertThat(replies).filteredOn(reply -> reply.getType() == ReviewSocketMessage.Type.ERROR)
+                .singleElement()
+                .satisfies(error -> assertThat(error.getId()).isEqualTo("r2"));
+        assertThat(replies).filteredOn(reply -> reply.getType() == ReviewSocketMessage.Type.EVENT)
+                .hasSize(2)
+                .allSatisfy(event -> {
+                    assertThat(event.getId()).isEqualTo("s1");
+                    assertThat(event.getEvent().getMovieInfoId()).isEqualTo(MOVIE_INFO_ID);
+                });
+        assertThat(reviewRepository.count().block()).isEqualTo(2);
+    }
+
+    private List<ReviewSocketMessage> exchange(List<ReviewSocketMessage> frames, int expectedReplies) {
+
+        return Mono.<List<ReviewSocketMessage>>create(result -> new ReactorNettyWebSocketClient()
+                        .execute(URI.create("ws://localhost:" + port + "/v1/reviews/ws"), session -> session
+                                .send(Flux.fromIterable(frames).map(frame -> session.textMessage(encode(frame))))
+                                .thenMany(session.receive()
+                                        .map(WebSocketMessage::getPayloadAsText)
+                                        .map(this::decode)
+                                        .take(expectedReplies)
+                                        .collectList()
+                                        .doOnNext(result::success))
+                                .then())
+                        .subscribe(null, result::error))
+                .block(Duration.ofSeconds(30));
+    }
+
+    private String encode(ReviewSocketMessage frame) {
+        try {
+            return objectMapper.writeValueAsString(frame);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private ReviewSocketMessage decode(String text) {
+        try {
+            return objectMapper.readValue(text, ReviewSocketMessage.class);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.reactive.test.unit;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.reactive.sharding.BroadcastQueryDetector;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BroadcastQueryDetectorTest {
+
+    private static final ConnectionDescription CONNECTION = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private final BroadcastQueryDetector detector = new BroadcastQueryDetector(Map.of("review", "movieInfoId"));
+
+    @Test
+    void queriesPinningTheShardKeyAreTargeted() {
+
+        send("find", "{ find: 'review', filter: { movieInfoId: { $oid: '631b19fd61b52a21d88c3b01' } } }");
+        send("find", "{ find: 'review', filter: { movieInfoId: { $in: [1, 2] }, _id: 'x' } }");
+        send("update", "{ update: 'review', updates: [ { q: { _id: 'x', movieInfoId: 1 }, u: { rating: 1 } } ] }");
+        send("delete", "{ delete: 'review', deletes: [ { q: { $and: [ { _id: 'x' }, { movieInfoId: { $eq: 1 } } ] }, limit: 1 } ] }");
+        send("aggregate", "{ aggregate: 'review', pipeline: [ { $match: { movieInfoId: 1 } }, { $count: 'n' } ] }");
+
+        assertThat(detector.getBroadcasts()).isEmpty();
+    }
+
+    @Test
+    void queriesWithoutTheShardKeyAreBroadcasts() {
+
+        send("find", "{ find: 'review', filter: { _id: 'x' } }");
+        send("delete", "{ delete: 'review', deletes: [ { q: { _id: 'x' }, limit: 1 } ] }");
+        send("find", "{ find: 'review', filter: { movieInfoId: { $gt: 1 } } }");
+
+        assertThat(detector.getBroadcasts()).hasSize(3);
+    }
+
+    @Test
+    void unshardedCollectionsAndOtherCommandsAreIgnored() {
+
+        send("find", "{ find: 'outbox', filter: {} }");
+        send("insert", "{ insert: 'review', documents: [ { _id: 'x' } ] }");
+
+        assertThat(detector.getBroadcasts()).isEmpty();
+    }
+
+    private void send(String commandName, String command) {
+        detector.commandStarted(new CommandStartedEvent(null, 1, CONNECTION, "local", commandName, BsonDocument.parse(command)));
+    }
+}
@@ -0,0 +1,57 @@
+package com.reactive.test.unit;
+
+import com.reactive.dao.model.Review;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import static com.reactive.test.unit.CompactFieldNamesTest.converter;
+import static com.reactive.test.unit.CompactFieldNamesTest.review;
+import static com.reactive.test.unit.CompactFieldNamesTest.write;
+
+/**
+ * Prints the storage and decode deltas of the two layouts. Excluded from the default build; run it with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class CompactFieldNamesBenchmarkTest {
+
+    private static final int DOCUMENTS = 200_000;
+
+    private final MappingMongoConverter full = converter(false);
+    private final MappingMongoConverter compact = converter(true);
+
+    @Test
+    void storageAndReadDeltas() {
+
+        RawBsonDocument fullBson = bson(full);
+        RawBsonDocument compactBson = bson(compact);
+        int fullSize = fullBson.getByteBuffer().remaining();
+        int compactSize = compactBson.getByteBuffer().remaining();
+
+        decode(full, fullBson);
+        decode(compact, compactBson);
+        double fullRate = decode(full, fullBson);
+        double compactRate = decode(compact, compactBson);
+
+        System.out.printf("Review document: %d bytes full, %d bytes compact (%.1f%% smaller, %.1f GB less per 100M reviews)%n",
+                fullSize, compactSize, 100.0 * (fullSize - compactSize) / fullSize, (fullSize - compactSize) * 1e8 / 1e9);
+        System.out.printf("Review decode: %.0f docs/s full, %.0f docs/s compact%n", fullRate, compactRate);
+    }
+
+    // Decodes from BSON bytes and maps, as a driver read does
+    private static double decode(MappingMongoConverter converter, RawBsonDocument bson) {
+        DocumentCodec codec = new DocumentCodec();
+        long start = System.nanoTime();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            converter.read(Review.class, bson.decode(codec));
+        }
+        return DOCUMENTS * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static RawBsonDocument bson(MappingMongoConverter converter) {
+        return new RawBsonDocument(write(converter, review()), new DocumentCodec());
+    }
+}
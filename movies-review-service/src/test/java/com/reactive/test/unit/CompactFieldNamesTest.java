@@ -0,0 +1,79 @@
+package com.reactive.test.unit;
+
+import com.reactive.dao.model.Review;
+import com.reactive.schema.CompactFieldNames;
+import com.reactive.schema.CompactFieldNamingStrategy;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactFieldNamesTest {
+
+    private final MappingMongoConverter full = converter(false);
+    private final MappingMongoConverter compact = converter(true);
+
+    @Test
+    void compactStrategyKeepsTheShardKeyName() {
+
+        Document document = write(compact, review());
+
+        assertThat(document).containsKeys("_id", "movieInfoId", "c", "r", "t").doesNotContainKeys("comment", "rating", "createdAt");
+        assertThat(compact.read(Review.class, document)).isEqualTo(review());
+    }
+
+    @Test
+    void rewriteConvertsStoredDocumentsBothWays() {
+
+        Document document = write(full, review());
+
+        assertThat(CompactFieldNames.rewrite(document, Review.class, CompactFieldNames.COMPACT)).isTrue();
+        assertThat(document).isEqualTo(write(compact, review()));
+        assertThat(CompactFieldNames.rewrite(document, Review.class, CompactFieldNames.FULL)).isTrue();
+        assertThat(full.read(Review.class, document)).isEqualTo(review());
+    }
+
+    @Test
+    void compactLayoutIsSmaller() {
+
+        assertThat(size(write(compact, review()))).isLessThan(size(write(full, review())));
+    }
+
+    private static int size(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().remaining();
+    }
+
+    static Document write(MappingMongoConverter converter, Object entity) {
+        Document document = new Document();
+        converter.write(entity, document);
+        return document;
+    }
+
+    static Review review() {
+        return Review.builder().reviewId("631b19fd61b52a21d88c3b54").movieInfoId("631b19fd61b52a21d88c3b01")
+                .comment("Amazing").rating(9.0).createdAt(Instant.parse("2022-09-09T10:15:30Z")).build();
+    }
+
+    static MappingMongoConverter converter(boolean compactNames) {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        if (compactNames) {
+            mappingContext.setFieldNamingStrategy(new CompactFieldNamingStrategy());
+        }
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -0,0 +1,100 @@
+package com.reactive.test.unit;
+
+import com.reactive.config.CommentProperties;
+import com.reactive.dao.model.Review;
+import com.reactive.dao.model.ReviewComment;
+import com.reactive.schema.SchemaMigration;
+import com.reactive.service.ReviewCommentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ReviewCommentStoreTest {
+
+    private static final String MOVIE_INFO_ID = "631b19fd61b52a21d88c3b01";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate = mock(ReactiveMongoTemplate.class);
+    private final CommentProperties properties = new CommentProperties();
+    private final ReviewCommentStore commentStore = new ReviewCommentStore(reactiveMongoTemplate, properties,
+            mock(SchemaMigration.class));
+
+    @BeforeEach
+    void setUp() {
+        properties.setSplit(true);
+        properties.setCompressMinLength(16);
+        when(reactiveMongoTemplate.save(any(ReviewComment.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    void saveWritesTheReviewWithoutItsComment() {
+
+        String comment = "A long comment that is stored compressed";
+        AtomicReference<String> storedInline = new AtomicReference<>("unset");
+
+        Review saved = commentStore.save(review("r1", comment), review -> {
+            storedInline.set(review.getComment());
+            return Mono.just(review);
+        }).block();
+
+        assertThat(storedInline.get()).isNull();
+        assertThat(saved.getComment()).isEqualTo(comment);
+        ArgumentCaptor<ReviewComment> stored = ArgumentCaptor.forClass(ReviewComment.class);
+        verify(reactiveMongoTemplate).save(stored.capture());
+        assertThat(stored.getValue().getText()).isNull();
+        assertThat(stored.getValue().getCompressed()).isNotEmpty();
+        assertThat(stored.getValue().getMovieInfoId()).isEqualTo(MOVIE_INFO_ID);
+    }
+
+    @Test
+    void attachReadsSplitCommentsAndFallsBackToInlineOnes() {
+
+        String longComment = "Compressed and stored on its own";
+        commentStore.save(review("r1", longComment), Mono::just).block();
+        commentStore.save(review("r2", "Short"), Mono::just).block();
+        ArgumentCaptor<ReviewComment> stored = ArgumentCaptor.forClass(ReviewComment.class);
+        verify(reactiveMongoTemplate, times(2)).save(stored.capture());
+
+        when(reactiveMongoTemplate.find(any(Query.class), eq(ReviewComment.class))).thenReturn(Flux.fromIterable(stored.getAllValues()));
+        when(reactiveMongoTemplate.find(any(Query.class), eq(Review.class))).thenReturn(Flux.just(review("r3", "Written before the split")));
+
+        List<Review> reviews = commentStore.attach(Flux.just(review("r1", null), review("r2", null), review("r3", null), review("r4", "Kept")))
+                .collectList().block();
+
+        assertThat(reviews).extracting(Review::getComment)
+                .containsExactly(longComment, "Short", "Written before the split", "Kept");
+    }
+
+    @Test
+    void leavesReviewsAloneWhenNotSplit() {
+
+        properties.setSplit(false);
+        Query query = new Query();
+
+        Review saved = commentStore.save(review("r1", "Inline"), Mono::just).block();
+
+        assertThat(saved.getComment()).isEqualTo("Inline");
+        assertThat(commentStore.withoutComment(query).getFieldsObject()).isEmpty();
+        assertThat(commentStore.attach(Flux.just(review("r2", null))).blockFirst().getComment()).isNull();
+        verifyNoInteractions(reactiveMongoTemplate);
+    }
+
+    private static Review review(String reviewId, String comment) {
+        return Review.builder().reviewId(reviewId).movieInfoId(MOVIE_INFO_ID).rating(8.0).comment(comment).build();
+    }
+}
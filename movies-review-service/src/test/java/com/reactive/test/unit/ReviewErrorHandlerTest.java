@@ -0,0 +1,63 @@
+package com.reactive.test.unit;
+
+import com.reactive.exception.ReviewDataException;
+import com.reactive.exception.ReviewErrorHandler;
+import com.reactive.exception.ReviewNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReviewErrorHandlerTest {
+
+    private final ReviewErrorHandler errorHandler = new ReviewErrorHandler();
+
+    @Test
+    void dataErrorsBecomeBadRequests() {
+
+        MockServerWebExchange exchange = handle(ReviewDataException.INVALID_MOVIE_INFO_ID);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(exchange.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.TEXT_PLAIN);
+        StepVerifier.create(exchange.getResponse().getBodyAsString())
+                .expectNext("movieInfoId must be a 24 character hex ObjectId")
+                .verifyComplete();
+    }
+
+    @Test
+    void notFoundAndClientStatusErrorsKeepTheirStatus() {
+
+        assertThat(handle(ReviewNotFoundException.INSTANCE).getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(handle(new ResponseStatusException(HttpStatus.NOT_FOUND, "Import file not found: x")).getResponse().getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void otherErrorsArePassedOn() {
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/v1/reviews"));
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        StepVerifier.create(errorHandler.handle(exchange, failure))
+                .expectErrorSatisfies(ex -> assertThat(ex).isSameAs(failure))
+                .verify();
+    }
+
+    @Test
+    void domainErrorsCarryNoStackTrace() {
+
+        assertThat(new ReviewDataException("bad").getStackTrace()).isEmpty();
+        assertThat(ReviewNotFoundException.INSTANCE.getStackTrace()).isEmpty();
+    }
+
+    private MockServerWebExchange handle(Throwable ex) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/v1/reviews"));
+        errorHandler.handle(exchange, ex).block();
+        return exchange;
+    }
+}
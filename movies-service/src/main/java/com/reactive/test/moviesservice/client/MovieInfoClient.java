@@ -0,0 +1,50 @@
+package com.reactive.test.moviesservice.client;
+
+import com.reactive.test.moviesservice.config.MoviesServiceProperties;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads movie infos from movies-info-service. Only the requested {@code fields} are projected downstream, so they
+ * are the only ones read from Mongo and sent back.
+ */
+@Component
+public class MovieInfoClient {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+
+    public MovieInfoClient(WebClient.Builder webClientBuilder, MoviesServiceProperties moviesServiceProperties) {
+        this.webClient = webClientBuilder.baseUrl(moviesServiceProperties.getMovieInfoUrl()).build();
+    }
+
+    public Mono<Map<String, Object>> findById(String movieInfoId, Set<String> fields) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/v1/movieinfos/{movieInfoId}")
+                        .queryParam("fields", String.join(",", fields))
+                        .build(movieInfoId))
+                .retrieve()
+                .onStatus(status -> status == HttpStatus.NOT_FOUND, response -> Mono.empty())
+                .bodyToMono(JSON_OBJECT);
+    }
+
+    public Flux<Map<String, Object>> findAll(Integer year, Set<String> fields) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/v1/movieinfos")
+                        .queryParamIfPresent("year", Optional.ofNullable(year))
+                        .queryParam("fields", String.join(",", fields))
+                        .build())
+                .retrieve()
+                .bodyToFlux(JSON_OBJECT);
+    }
+}
@@ -0,0 +1,50 @@
+package com.reactive.test.moviesservice.client;
+
+import com.reactive.test.moviesservice.config.MoviesServiceProperties;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads reviews from movies-review-service, for many movies per request.
+ */
+@Component
+public class ReviewClient {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+    private final int maxBatchSize;
+
+    public ReviewClient(WebClient.Builder webClientBuilder, MoviesServiceProperties moviesServiceProperties) {
+        this.webClient = webClientBuilder.baseUrl(moviesServiceProperties.getReviewUrl()).build();
+        this.maxBatchSize = moviesServiceProperties.getGraphql().getMaxBatchSize();
+    }
+
+    /**
+     * Splits the ids into requests of at most {@code maxBatchSize} ids, so that the URL length stays bounded.
+     */
+    public Flux<Map<String, Object>> findByMovieInfoIds(Collection<String> movieInfoIds, Set<String> fields) {
+        List<List<String>> batches = new ArrayList<>();
+        List<String> ids = new ArrayList<>(movieInfoIds);
+        for (int i = 0; i < ids.size(); i += maxBatchSize) {
+            batches.add(ids.subList(i, Math.min(i + maxBatchSize, ids.size())));
+        }
+        return Flux.fromIterable(batches)
+                .flatMapSequential(batch -> webClient.get()
+                        .uri(uriBuilder -> uriBuilder.path("/v1/reviews")
+                                .queryParam("movieInfoId", batch.toArray())
+                                .queryParam("fields", String.join(",", fields))
+                                .build())
+                        .retrieve()
+                        .bodyToFlux(JSON_OBJECT));
+    }
+}
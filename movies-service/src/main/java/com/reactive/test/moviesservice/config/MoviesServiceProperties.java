@@ -0,0 +1,27 @@
+package com.reactive.test.moviesservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "movies-service")
+public class MoviesServiceProperties {
+
+    private String movieInfoUrl = "http://localhost:8080";
+    private String reviewUrl = "http://localhost:8081";
+    // The deadline of requests that arrive without one, and the longest one a caller may ask for
+    private Duration requestTimeout = Duration.ofSeconds(5);
+    private Duration maxRequestTimeout = Duration.ofSeconds(30);
+    private GraphQl graphql = new GraphQl();
+
+    @Data
+    public static class GraphQl {
+
+        private long maxComplexity = 1000;
+        private int maxDepth = 5;
+        private int defaultListSize = 10;
+        private int maxBatchSize = 100;
+    }
+}
@@ -0,0 +1,18 @@
+package com.reactive.test.moviesservice.config;
+
+import com.reactive.test.moviesservice.deadline.DeadlineExchangeFilter;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+public class WebClientConfig {
+
+    /**
+     * Applies to every client built from Boot's {@code WebClient.Builder}, so no backend call can drop the deadline.
+     */
+    @Bean
+    public WebClientCustomizer deadlineWebClientCustomizer() {
+        return webClientBuilder -> webClientBuilder.filter(new DeadlineExchangeFilter());
+    }
+}
@@ -0,0 +1,75 @@
+package com.reactive.test.moviesservice.deadline;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The point in time by which the caller needs an answer. It travels between services in the {@link #HEADER} header as
+ * the remaining milliseconds rather than as a timestamp, so clock skew between hosts doesn't shift it. Within a service
+ * it is carried in the Reactor context under this class as key.
+ */
+public final class Deadline {
+
+    public static final String HEADER = "X-Request-Deadline";
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Reads the header value. Anything that isn't a non-negative number of milliseconds is rejected with a 400.
+     */
+    public static Deadline parse(String headerValue) {
+        try {
+            long remainingMillis = Long.parseLong(headerValue.trim());
+            if (remainingMillis >= 0) {
+                return after(Duration.ofMillis(remainingMillis));
+            }
+        } catch (NumberFormatException ex) {
+            // rejected below
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + HEADER + " header: " + headerValue);
+    }
+
+    public static Optional<Deadline> current(ContextView context) {
+        return context.getOrEmpty(Deadline.class);
+    }
+
+    public static ResponseStatusException exceeded() {
+        return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Request deadline exceeded");
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    public Deadline earliest(Deadline other) {
+        return expiresAtNanos - other.expiresAtNanos <= 0 ? this : other;
+    }
+
+    /**
+     * Rounded up, so a deadline that has a fraction of a millisecond left isn't sent as an expired one.
+     */
+    public String toHeaderValue() {
+        return String.valueOf((remaining().toNanos() + 999_999) / 1_000_000);
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[" + remaining().toMillis() + " ms left]";
+    }
+}
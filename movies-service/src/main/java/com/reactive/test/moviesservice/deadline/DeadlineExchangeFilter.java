@@ -0,0 +1,34 @@
+package com.reactive.test.moviesservice.deadline;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Forwards the {@link Deadline} of the current request to the backend as the time it has left. A call made after the
+ * deadline has passed fails straight away instead of being sent, and one still waiting for its response when the
+ * deadline passes is cancelled. Calls without a deadline in their context are sent unchanged.
+ */
+public class DeadlineExchangeFilter implements ExchangeFilterFunction {
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            Optional<Deadline> deadline = Deadline.current(context);
+            if (deadline.isEmpty()) {
+                return next.exchange(request);
+            }
+            if (deadline.get().isExpired()) {
+                return Mono.error(Deadline.exceeded());
+            }
+            return next.exchange(ClientRequest.from(request)
+                            .header(Deadline.HEADER, deadline.get().toHeaderValue())
+                            .build())
+                    .timeout(deadline.get().remaining(), Mono.error(Deadline::exceeded));
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package com.reactive.test.moviesservice.deadline;
+
+import com.reactive.test.moviesservice.config.MoviesServiceProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Gives every request a {@link Deadline}: the caller's, capped at {@code maxRequestTimeout}, or else
+ * {@code requestTimeout}. The deadline is put into the Reactor context, from where {@link DeadlineExchangeFilter}
+ * forwards it to the backends, and the request is cancelled with a 504 once it passes, together with the backend calls
+ * still in flight.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class DeadlineWebFilter implements WebFilter {
+
+    private final MoviesServiceProperties moviesServiceProperties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+        String header = exchange.getRequest().getHeaders().getFirst(Deadline.HEADER);
+        Deadline deadline;
+        try {
+            deadline = header == null ? Deadline.after(moviesServiceProperties.getRequestTimeout())
+                    : Deadline.parse(header).earliest(Deadline.after(moviesServiceProperties.getMaxRequestTimeout()));
+        } catch (ResponseStatusException ex) {
+            return Mono.error(ex);
+        }
+        if (deadline.isExpired()) {
+            return Mono.error(Deadline.exceeded());
+        }
+
+        return chain.filter(exchange)
+                .timeout(deadline.remaining(), Mono.error(Deadline::exceeded))
+                .contextWrite(Context.of(Deadline.class, deadline));
+    }
+}
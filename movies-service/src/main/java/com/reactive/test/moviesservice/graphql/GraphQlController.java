@@ -0,0 +1,22 @@
+package com.reactive.test.moviesservice.graphql;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class GraphQlController {
+
+    private final MoviesQueryExecutor moviesQueryExecutor;
+
+    @PostMapping(value = "/graphql", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Map<String, Object>> query(@RequestBody GraphQlRequest request) {
+        return moviesQueryExecutor.execute(request);
+    }
+}
@@ -0,0 +1,8 @@
+package com.reactive.test.moviesservice.graphql;
+
+public class GraphQlException extends RuntimeException {
+
+    public GraphQlException(String message) {
+        super(message);
+    }
+}
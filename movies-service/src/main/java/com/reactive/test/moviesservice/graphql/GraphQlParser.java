@@ -0,0 +1,297 @@
+package com.reactive.test.moviesservice.graphql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser for the subset of GraphQL this service executes: a single anonymous or named query made of fields,
+ * aliases, arguments and nested selection sets. Argument values may be literals, lists, objects or variables, and
+ * variables may declare defaults. Fragments, directives, mutations and subscriptions are rejected.
+ */
+public class GraphQlParser {
+
+    private final String source;
+    private final Map<String, Object> variables;
+    private int position;
+
+    private GraphQlParser(String source, Map<String, Object> variables) {
+        this.source = source;
+        this.variables = new HashMap<>(variables == null ? Collections.emptyMap() : variables);
+    }
+
+    public static List<Selection> parse(String query, Map<String, Object> variables) {
+        if (query == null || query.isBlank()) {
+            throw new GraphQlException("Query must not be empty");
+        }
+        GraphQlParser parser = new GraphQlParser(query, variables);
+        List<Selection> selections = parser.document();
+        parser.skipIgnored();
+        if (parser.position < parser.source.length()) {
+            throw parser.error("Unexpected content after the query");
+        }
+        return selections;
+    }
+
+    private List<Selection> document() {
+        skipIgnored();
+        if (peek() != '{') {
+            String operation = name();
+            if ("mutation".equals(operation) || "subscription".equals(operation)) {
+                throw new GraphQlException("Only queries are supported, not " + operation + "s");
+            }
+            if (!"query".equals(operation)) {
+                throw error("Expected 'query' or '{'");
+            }
+            skipIgnored();
+            if (isNameStart(peek())) {
+                name();
+            }
+            skipIgnored();
+            if (peek() == '(') {
+                variableDefinitions();
+            }
+        }
+        return selectionSet();
+    }
+
+    private void variableDefinitions() {
+        expect('(');
+        while (!consume(')')) {
+            expect('$');
+            String variable = name();
+            expect(':');
+            type();
+            if (consume('=')) {
+                Object defaultValue = value();
+                variables.putIfAbsent(variable, defaultValue);
+            }
+        }
+    }
+
+    private void type() {
+        if (consume('[')) {
+            type();
+            expect(']');
+        } else {
+            name();
+        }
+        consume('!');
+    }
+
+    private List<Selection> selectionSet() {
+        expect('{');
+        List<Selection> selections = new ArrayList<>();
+        while (!consume('}')) {
+            if (peek() == '.') {
+                throw error("Fragments are not supported");
+            }
+            if (peek() == '@') {
+                throw error("Directives are not supported");
+            }
+            selections.add(selection());
+        }
+        if (selections.isEmpty()) {
+            throw error("Selection set must not be empty");
+        }
+        return selections;
+    }
+
+    private Selection selection() {
+        String alias = null;
+        String name = name();
+        if (consume(':')) {
+            alias = name;
+            name = name();
+        }
+        Map<String, Object> arguments = Collections.emptyMap();
+        if (consume('(')) {
+            arguments = new LinkedHashMap<>();
+            while (!consume(')')) {
+                String argument = name();
+                expect(':');
+                arguments.put(argument, value());
+            }
+        }
+        skipIgnored();
+        List<Selection> selections = peek() == '{' ? selectionSet() : Collections.emptyList();
+        return new Selection(alias, name, arguments, selections);
+    }
+
+    private Object value() {
+        skipIgnored();
+        char c = peek();
+        if (c == '$') {
+            position++;
+            return variables.get(name());
+        }
+        if (c == '"') {
+            return string();
+        }
+        if (c == '-' || Character.isDigit(c)) {
+            return number();
+        }
+        if (c == '[') {
+            position++;
+            List<Object> values = new ArrayList<>();
+            while (!consume(']')) {
+                values.add(value());
+            }
+            return values;
+        }
+        if (c == '{') {
+            position++;
+            Map<String, Object> values = new LinkedHashMap<>();
+            while (!consume('}')) {
+                String field = name();
+                expect(':');
+                values.put(field, value());
+            }
+            return values;
+        }
+        String name = name();
+        switch (name) {
+            case "true":
+                return true;
+            case "false":
+                return false;
+            case "null":
+                return null;
+            default:
+                // Enum values are passed on by name
+                return name;
+        }
+    }
+
+    private String string() {
+        expect('"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            if (position >= source.length()) {
+                throw error("Unterminated string");
+            }
+            char c = source.charAt(position++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (position >= source.length()) {
+                throw error("Unterminated string");
+            }
+            char escaped = source.charAt(position++);
+            switch (escaped) {
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'u':
+                    if (position + 4 > source.length()) {
+                        throw error("Invalid unicode escape");
+                    }
+                    value.append((char) Integer.parseInt(source.substring(position, position + 4), 16));
+                    position += 4;
+                    break;
+                default:
+                    value.append(escaped);
+            }
+        }
+    }
+
+    private Number number() {
+        int start = position;
+        if (peek() == '-') {
+            position++;
+        }
+        boolean decimal = false;
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            if (c == '.' || c == 'e' || c == 'E' || c == '+' || (c == '-' && decimal)) {
+                decimal = true;
+            } else if (!Character.isDigit(c)) {
+                break;
+            }
+            position++;
+        }
+        String literal = source.substring(start, position);
+        try {
+            return decimal ? (Number) Double.valueOf(literal) : (Number) Long.valueOf(literal);
+        } catch (NumberFormatException ex) {
+            throw error("Invalid number '" + literal + "'");
+        }
+    }
+
+    private String name() {
+        skipIgnored();
+        int start = position;
+        if (!isNameStart(peek())) {
+            throw error("Expected a name");
+        }
+        while (position < source.length() && (isNameStart(source.charAt(position)) || Character.isDigit(source.charAt(position)))) {
+            position++;
+        }
+        return source.substring(start, position);
+    }
+
+    private void expect(char expected) {
+        if (!consume(expected)) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private boolean consume(char expected) {
+        skipIgnored();
+        if (peek() == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private char peek() {
+        if (position >= source.length()) {
+            throw error("Unexpected end of query");
+        }
+        return source.charAt(position);
+    }
+
+    // Whitespace, commas and comments are insignificant in GraphQL
+    private void skipIgnored() {
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            if (c == '#') {
+                while (position < source.length() && source.charAt(position) != '\n') {
+                    position++;
+                }
+            } else if (Character.isWhitespace(c) || c == ',' || c == '\uFEFF') {
+                position++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static boolean isNameStart(char c) {
+        return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private GraphQlException error(String message) {
+        return new GraphQlException(message + " at position " + position);
+    }
+}
@@ -0,0 +1,17 @@
+package com.reactive.test.moviesservice.graphql;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GraphQlRequest {
+
+    private String query;
+    private String operationName;
+    private Map<String, Object> variables;
+}
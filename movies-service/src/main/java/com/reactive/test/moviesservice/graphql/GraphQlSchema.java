@@ -0,0 +1,107 @@
+package com.reactive.test.moviesservice.graphql;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Object types and their fields. A field either has a scalar value ({@code type == null}) or points to another
+ * object type, optionally as a list. A query is checked against the schema, and its cost is computed, before
+ * anything is fetched.
+ */
+public class GraphQlSchema {
+
+    public static final String QUERY = "Query";
+
+    @Getter
+    @AllArgsConstructor
+    public static class FieldDefinition {
+
+        private final String type;
+        private final boolean list;
+        private final Set<String> arguments;
+    }
+
+    private final Map<String, Map<String, FieldDefinition>> types = new HashMap<>();
+
+    public GraphQlSchema type(String name, Map<String, FieldDefinition> fields) {
+        types.put(name, new LinkedHashMap<>(fields));
+        return this;
+    }
+
+    public static FieldDefinition scalar() {
+        return new FieldDefinition(null, false, Set.of());
+    }
+
+    public static FieldDefinition object(String type, String... arguments) {
+        return new FieldDefinition(type, false, Set.of(arguments));
+    }
+
+    public static FieldDefinition list(String type, String... arguments) {
+        return new FieldDefinition(type, true, Set.of(arguments));
+    }
+
+    /**
+     * Validates the query and returns its complexity. Each field costs 1. The selections under a list field are
+     * counted once per expected element, which is the {@code first} argument when given and
+     * {@code defaultListSize} otherwise; the executor returns no more elements than that.
+     */
+    public long complexity(List<Selection> selections, int maxDepth, int defaultListSize) {
+        return complexity(QUERY, selections, 1, maxDepth, defaultListSize);
+    }
+
+    private long complexity(String type, List<Selection> selections, int depth, int maxDepth, int defaultListSize) {
+
+        if (depth > maxDepth) {
+            throw new GraphQlException("Query is nested deeper than " + maxDepth + " levels");
+        }
+
+        Map<String, FieldDefinition> fields = types.get(type);
+        long cost = 0;
+        for (Selection selection : selections) {
+            if ("__typename".equals(selection.getName())) {
+                cost++;
+                continue;
+            }
+            FieldDefinition field = fields.get(selection.getName());
+            if (field == null) {
+                throw new GraphQlException("Field '" + selection.getName() + "' does not exist on type '" + type + "'");
+            }
+            for (String argument : selection.getArguments().keySet()) {
+                if (!field.getArguments().contains(argument)) {
+                    throw new GraphQlException("Unknown argument '" + argument + "' on field '" + type + "." + selection.getName() + "'");
+                }
+            }
+            if (field.getType() == null) {
+                if (!selection.getSelections().isEmpty()) {
+                    throw new GraphQlException("Field '" + selection.getName() + "' is a scalar and has no selection set");
+                }
+                cost++;
+                continue;
+            }
+            if (selection.getSelections().isEmpty()) {
+                throw new GraphQlException("Field '" + selection.getName() + "' of type '" + field.getType() + "' needs a selection set");
+            }
+            int elements = 1;
+            if (field.isList()) {
+                Integer first = selection.intArgument("first");
+                elements = first != null ? Math.max(first, 0) : defaultListSize;
+            }
+            cost += 1 + (long) elements * complexity(field.getType(), selection.getSelections(), depth + 1, maxDepth, defaultListSize);
+        }
+        return cost;
+    }
+
+    public static Map<String, FieldDefinition> fields(Object... namesAndDefinitions) {
+        Map<String, FieldDefinition> fields = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndDefinitions.length; i += 2) {
+            fields.put((String) namesAndDefinitions[i], (FieldDefinition) namesAndDefinitions[i + 1]);
+        }
+        return fields;
+    }
+}
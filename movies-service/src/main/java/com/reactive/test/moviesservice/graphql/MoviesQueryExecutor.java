@@ -0,0 +1,236 @@
+package com.reactive.test.moviesservice.graphql;
+
+import com.reactive.test.moviesservice.client.MovieInfoClient;
+import com.reactive.test.moviesservice.client.ReviewClient;
+import com.reactive.test.moviesservice.config.MoviesServiceProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.reactive.test.moviesservice.graphql.GraphQlSchema.fields;
+import static com.reactive.test.moviesservice.graphql.GraphQlSchema.list;
+import static com.reactive.test.moviesservice.graphql.GraphQlSchema.object;
+import static com.reactive.test.moviesservice.graphql.GraphQlSchema.scalar;
+
+/**
+ * Executes queries against this schema:
+ * <pre>
+ * type Query  { movie(id: ID!): Movie  movies(year: Int, first: Int): [Movie] }
+ * type Movie  { id name year cast releaseDate reviews(first: Int): [Review] }
+ * type Review { id movieInfoId comment rating createdAt }
+ * </pre>
+ * Movie fields are fetched with a projection of exactly the selected fields. The reviews of every movie at one level
+ * of the result are fetched together through a {@link ReviewBatchLoader}, with the fields of every review selection
+ * in the query, so movies that appear under several aliases are fetched once with all the fields they need. A query
+ * that is too deep or too complex is rejected before any downstream call.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MoviesQueryExecutor {
+
+    private static final GraphQlSchema SCHEMA = new GraphQlSchema()
+            .type(GraphQlSchema.QUERY, fields(
+                    "movie", object("Movie", "id"),
+                    "movies", list("Movie", "year", "first")))
+            .type("Movie", fields(
+                    "id", scalar(),
+                    "name", scalar(),
+                    "year", scalar(),
+                    "cast", scalar(),
+                    "releaseDate", scalar(),
+                    "reviews", list("Review", "first")))
+            .type("Review", fields(
+                    "id", scalar(),
+                    "movieInfoId", scalar(),
+                    "comment", scalar(),
+                    "rating", scalar(),
+                    "createdAt", scalar()));
+
+    private final MovieInfoClient movieInfoClient;
+    private final ReviewClient reviewClient;
+    private final MoviesServiceProperties moviesServiceProperties;
+
+    public Mono<Map<String, Object>> execute(GraphQlRequest request) {
+
+        List<Selection> selections;
+        try {
+            selections = GraphQlParser.parse(request.getQuery(), request.getVariables());
+            MoviesServiceProperties.GraphQl limits = moviesServiceProperties.getGraphql();
+            long complexity = SCHEMA.complexity(selections, limits.getMaxDepth(), limits.getDefaultListSize());
+            if (complexity > limits.getMaxComplexity()) {
+                throw new GraphQlException("Query complexity " + complexity + " exceeds the limit of " + limits.getMaxComplexity());
+            }
+        } catch (GraphQlException ex) {
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("errors", List.of(Map.of("message", ex.getMessage())));
+            return Mono.just(response);
+        }
+
+        ReviewBatchLoader reviewBatchLoader = new ReviewBatchLoader(reviewClient, reviewFields(reviewSelections(selections)));
+        List<Map<String, Object>> errors = Collections.synchronizedList(new ArrayList<>());
+
+        return Flux.fromIterable(selections)
+                .flatMapSequential(selection -> resolveQueryField(selection, reviewBatchLoader)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .onErrorResume(ex -> {
+                            log.warn("Failed to resolve '{}': {}", selection.getResponseKey(), ex.getMessage());
+                            errors.add(Map.of("message", ex.getMessage() == null ? ex.toString() : ex.getMessage(),
+                                    "path", List.of(selection.getResponseKey())));
+                            return Mono.just(Optional.empty());
+                        })
+                        .map(value -> new Object[]{selection.getResponseKey(), value.orElse(null)}))
+                .collectList()
+                .map(entries -> {
+                    Map<String, Object> data = new LinkedHashMap<>();
+                    entries.forEach(entry -> data.put((String) entry[0], entry[1]));
+                    Map<String, Object> response = new LinkedHashMap<>();
+                    response.put("data", data);
+                    if (!errors.isEmpty()) {
+                        response.put("errors", errors);
+                    }
+                    return response;
+                });
+    }
+
+    private Mono<Object> resolveQueryField(Selection selection, ReviewBatchLoader reviewBatchLoader) {
+        switch (selection.getName()) {
+            case "__typename":
+                return Mono.just(GraphQlSchema.QUERY);
+            case "movie":
+                String movieInfoId = selection.stringArgument("id");
+                if (movieInfoId == null) {
+                    return Mono.error(new GraphQlException("Argument 'id' of 'movie' is required"));
+                }
+                return movieInfoClient.findById(movieInfoId, movieFields(selection.getSelections()))
+                        .flatMap(movie -> resolveMovies(List.of(movie), selection.getSelections(), reviewBatchLoader))
+                        .map(movies -> movies.get(0));
+            case "movies":
+                Integer year = selection.intArgument("year");
+                return movieInfoClient.findAll(year, movieFields(selection.getSelections()))
+                        .take(listSize(selection))
+                        .collectList()
+                        .flatMap(list -> resolveMovies(list, selection.getSelections(), reviewBatchLoader))
+                        .map(Object.class::cast);
+            default:
+                return Mono.error(new GraphQlException("Unknown query field '" + selection.getName() + "'"));
+        }
+    }
+
+    private Mono<List<Map<String, Object>>> resolveMovies(List<Map<String, Object>> movies, List<Selection> selections,
+                                       ReviewBatchLoader reviewBatchLoader) {
+
+        List<Selection> reviewSelections = selections.stream()
+                .filter(selection -> "reviews".equals(selection.getName()))
+                .collect(Collectors.toList());
+
+        Mono<Map<String, List<Map<String, Object>>>> reviewsByMovie = reviewSelections.isEmpty()
+                ? Mono.just(Collections.emptyMap())
+                : reviewBatchLoader.load(movies.stream().map(movie -> (String) movie.get("movieInfoId")).collect(Collectors.toList()));
+
+        return reviewsByMovie.map(reviews -> movies.stream()
+                .map(movie -> {
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    for (Selection selection : selections) {
+                        result.put(selection.getResponseKey(), movieField(movie, selection, reviews));
+                    }
+                    return result;
+                })
+                .collect(Collectors.toList()));
+    }
+
+    private Object movieField(Map<String, Object> movie, Selection selection, Map<String, List<Map<String, Object>>> reviews) {
+        switch (selection.getName()) {
+            case "__typename":
+                return "Movie";
+            case "id":
+                return movie.get("movieInfoId");
+            case "reviews":
+                List<Map<String, Object>> movieReviews = reviews.getOrDefault((String) movie.get("movieInfoId"), List.of());
+                return movieReviews.stream()
+                        .limit(listSize(selection))
+                        .map(review -> reviewFields(review, selection.getSelections()))
+                        .collect(Collectors.toList());
+            default:
+                return movie.get(selection.getName());
+        }
+    }
+
+    // A list returns as many elements as the complexity check counted for it: first, or defaultListSize without it
+    private int listSize(Selection selection) {
+        Integer first = selection.intArgument("first");
+        return first != null ? Math.max(first, 0) : moviesServiceProperties.getGraphql().getDefaultListSize();
+    }
+
+    private static Map<String, Object> reviewFields(Map<String, Object> review, List<Selection> selections) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Selection selection : selections) {
+            Object value;
+            switch (selection.getName()) {
+                case "__typename":
+                    value = "Review";
+                    break;
+                case "id":
+                    value = review.get("reviewId");
+                    break;
+                default:
+                    value = review.get(selection.getName());
+            }
+            result.put(selection.getResponseKey(), value);
+        }
+        return result;
+    }
+
+    // Downstream names of the selected movie fields; the id is always needed to load the reviews
+    private static Set<String> movieFields(List<Selection> selections) {
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add("movieInfoId");
+        for (Selection selection : selections) {
+            if (!"id".equals(selection.getName()) && !"reviews".equals(selection.getName()) && !"__typename".equals(selection.getName())) {
+                fields.add(selection.getName());
+            }
+        }
+        return fields;
+    }
+
+    // Every 'reviews' selection anywhere in the query
+    private static List<Selection> reviewSelections(List<Selection> selections) {
+        List<Selection> reviewSelections = new ArrayList<>();
+        for (Selection selection : selections) {
+            if ("reviews".equals(selection.getName())) {
+                reviewSelections.add(selection);
+            } else {
+                reviewSelections.addAll(reviewSelections(selection.getSelections()));
+            }
+        }
+        return reviewSelections;
+    }
+
+    private static Set<String> reviewFields(List<Selection> reviewSelections) {
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add("movieInfoId");
+        for (Selection reviews : reviewSelections) {
+            for (Selection selection : reviews.getSelections()) {
+                if ("id".equals(selection.getName())) {
+                    fields.add("reviewId");
+                } else if (!"__typename".equals(selection.getName())) {
+                    fields.add(selection.getName());
+                }
+            }
+        }
+        return fields;
+    }
+}
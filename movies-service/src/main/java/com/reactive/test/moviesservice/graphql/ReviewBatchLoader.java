@@ -0,0 +1,59 @@
+package com.reactive.test.moviesservice.graphql;
+
+import com.reactive.test.moviesservice.client.ReviewClient;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-request DataLoader for the reviews of movies. All the movies of one list are resolved with one downstream call
+ * instead of one call per movie. Ids are de-duplicated, and ids already loaded during the request are not fetched
+ * again. Reviews are always fetched with the same {@code fields}, which the executor computes over the whole query,
+ * so a cached row has every field any review selection asks for.
+ */
+public class ReviewBatchLoader {
+
+    private final ReviewClient reviewClient;
+    private final Set<String> fields;
+    private final Map<String, List<Map<String, Object>>> loaded = new ConcurrentHashMap<>();
+
+    public ReviewBatchLoader(ReviewClient reviewClient, Set<String> fields) {
+        this.reviewClient = reviewClient;
+        this.fields = fields;
+    }
+
+    public Mono<Map<String, List<Map<String, Object>>>> load(Collection<String> movieInfoIds) {
+
+        Set<String> missing = new LinkedHashSet<>();
+        for (String movieInfoId : movieInfoIds) {
+            if (movieInfoId != null && !loaded.containsKey(movieInfoId)) {
+                missing.add(movieInfoId);
+            }
+        }
+
+        Mono<Void> fetch = missing.isEmpty()
+                ? Mono.empty()
+                : reviewClient.findByMovieInfoIds(missing, fields)
+                .collectMultimap(review -> String.valueOf(review.get("movieInfoId")))
+                .doOnNext(reviewsByMovie -> missing.forEach(movieInfoId ->
+                        loaded.put(movieInfoId, new ArrayList<>(reviewsByMovie.getOrDefault(movieInfoId, List.of())))))
+                .then();
+
+        return fetch.then(Mono.fromSupplier(() -> {
+            Map<String, List<Map<String, Object>>> result = new HashMap<>();
+            for (String movieInfoId : movieInfoIds) {
+                if (movieInfoId != null) {
+                    result.put(movieInfoId, loaded.getOrDefault(movieInfoId, List.of()));
+                }
+            }
+            return result;
+        }));
+    }
+}
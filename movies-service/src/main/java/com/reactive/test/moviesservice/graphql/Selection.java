@@ -0,0 +1,40 @@
+package com.reactive.test.moviesservice.graphql;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One field of a selection set, e.g. {@code top: reviews(first: 3) { rating }}.
+ */
+@Data
+@AllArgsConstructor
+public class Selection {
+
+    private String alias;
+    private String name;
+    private Map<String, Object> arguments;
+    private List<Selection> selections;
+
+    public String getResponseKey() {
+        return alias != null ? alias : name;
+    }
+
+    public Integer intArgument(String argument) {
+        Object value = arguments.get(argument);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Number)) {
+            throw new GraphQlException("Argument '" + argument + "' of '" + name + "' must be an Int");
+        }
+        return ((Number) value).intValue();
+    }
+
+    public String stringArgument(String argument) {
+        Object value = arguments.get(argument);
+        return value == null ? null : value.toString();
+    }
+}
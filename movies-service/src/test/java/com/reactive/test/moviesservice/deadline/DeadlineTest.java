@@ -0,0 +1,89 @@
+package com.reactive.test.moviesservice.deadline;
+
+import com.reactive.test.moviesservice.config.MoviesServiceProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.handler.ResponseStatusExceptionHandler;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeadlineTest {
+
+    // Renders the status of a ResponseStatusException, as the WebFlux exception handlers do in the application
+    private static final WebFilter ERROR_STATUS = (exchange, chain) -> chain.filter(exchange)
+            .onErrorResume(ex -> new ResponseStatusExceptionHandler().handle(exchange, ex));
+
+    private final MoviesServiceProperties properties = new MoviesServiceProperties();
+    private final DeadlineExchangeFilter exchangeFilter = new DeadlineExchangeFilter();
+    private final List<ClientRequest> sent = new ArrayList<>();
+
+    @Test
+    void remainingTimeIsForwarded() {
+
+        exchange(Context.of(Deadline.class, Deadline.after(Duration.ofSeconds(2)))).block();
+
+        long forwarded = Long.parseLong(sent.get(0).headers().getFirst(Deadline.HEADER));
+        assertThat(forwarded).isBetween(1L, 2000L);
+    }
+
+    @Test
+    void callsAfterTheDeadlineAreNotSent() {
+
+        assertThatThrownBy(() -> exchange(Context.of(Deadline.class, Deadline.after(Duration.ZERO))).block())
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(ex -> ((ResponseStatusException) ex).getStatus())
+                .isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(sent).isEmpty();
+    }
+
+    @Test
+    void callsWithoutADeadlineAreSentUnchanged() {
+
+        exchange(Context.empty()).block();
+
+        assertThat(sent.get(0).headers()).doesNotContainKey(Deadline.HEADER);
+    }
+
+    @Test
+    void requestsAreCancelledAtTheirDeadline() {
+
+        properties.setRequestTimeout(Duration.ofMillis(100));
+        List<Deadline> seen = new ArrayList<>();
+        WebTestClient webTestClient = WebTestClient
+                .bindToWebHandler(exchange -> Mono.deferContextual(context -> {
+                    Deadline.current(context).ifPresent(seen::add);
+                    return Mono.delay(Duration.ofSeconds(5)).then();
+                }))
+                .webFilter(ERROR_STATUS, new DeadlineWebFilter(properties))
+                .build();
+
+        webTestClient.get().uri("/graphql").exchange().expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        webTestClient.get().uri("/graphql").header(Deadline.HEADER, "0").exchange().expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        webTestClient.get().uri("/graphql").header(Deadline.HEADER, "soon").exchange().expectStatus().isBadRequest();
+
+        assertThat(seen).hasSize(1);
+    }
+
+    private Mono<ClientResponse> exchange(Context context) {
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/v1/movieinfos")).build();
+        return exchangeFilter.filter(request, filtered -> {
+                    sent.add(filtered);
+                    return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+                })
+                .contextWrite(context);
+    }
+}
@@ -0,0 +1,108 @@
+package com.reactive.test.moviesservice.graphql;
+
+import com.reactive.test.moviesservice.client.MovieInfoClient;
+import com.reactive.test.moviesservice.client.ReviewClient;
+import com.reactive.test.moviesservice.config.MoviesServiceProperties;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MoviesQueryExecutorTest {
+
+    private final MovieInfoClient movieInfoClient = mock(MovieInfoClient.class);
+    private final ReviewClient reviewClient = mock(ReviewClient.class);
+    private final MoviesServiceProperties properties = new MoviesServiceProperties();
+    private final MoviesQueryExecutor executor = new MoviesQueryExecutor(movieInfoClient, reviewClient, properties);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reviewsOfAListAreLoadedInOneBatch() {
+
+        when(movieInfoClient.findAll(eq(2005), eq(Set.of("movieInfoId", "name"))))
+                .thenReturn(Flux.just(Map.of("movieInfoId", "m1", "name", "Batman Begins"),
+                        Map.of("movieInfoId", "m2", "name", "Sin City")));
+        when(reviewClient.findByMovieInfoIds(anyCollection(), eq(Set.of("movieInfoId", "rating"))))
+                .thenReturn(Flux.just(Map.of("movieInfoId", "m1", "rating", 9.0),
+                        Map.of("movieInfoId", "m1", "rating", 7.0),
+                        Map.of("movieInfoId", "m2", "rating", 8.0)));
+
+        Map<String, Object> response = executor.execute(new GraphQlRequest(
+                "query ($year: Int = 2005) { movies(year: $year) { title: name reviews(first: 1) { rating } } }", null, null)).block();
+
+        assertThat(response).doesNotContainKey("errors");
+        List<Map<String, Object>> movies = (List<Map<String, Object>>) ((Map<String, Object>) response.get("data")).get("movies");
+        assertThat(movies).containsExactly(
+                Map.of("title", "Batman Begins", "reviews", List.of(Map.of("rating", 9.0))),
+                Map.of("title", "Sin City", "reviews", List.of(Map.of("rating", 8.0))));
+        verify(reviewClient, times(1)).findByMovieInfoIds(anyCollection(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reviewsAreLoadedWithTheFieldsOfEveryAlias() {
+
+        when(movieInfoClient.findAll(any(), eq(Set.of("movieInfoId"))))
+                .thenReturn(Flux.just(Map.of("movieInfoId", "m1")));
+        when(reviewClient.findByMovieInfoIds(anyCollection(), eq(Set.of("movieInfoId", "rating", "comment"))))
+                .thenReturn(Flux.just(Map.of("movieInfoId", "m1", "rating", 9.0, "comment", "Great")));
+
+        Map<String, Object> response = executor.execute(new GraphQlRequest(
+                "{ a: movies { reviews { rating } } b: movies { reviews { comment } } }", null, null)).block();
+
+        assertThat(response).doesNotContainKey("errors");
+        Map<String, Object> data = (Map<String, Object>) response.get("data");
+        assertThat(data.get("a")).isEqualTo(List.of(Map.of("reviews", List.of(Map.of("rating", 9.0)))));
+        assertThat(data.get("b")).isEqualTo(List.of(Map.of("reviews", List.of(Map.of("comment", "Great")))));
+        verify(reviewClient, times(1)).findByMovieInfoIds(anyCollection(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listsWithoutFirstReturnTheDefaultListSize() {
+
+        properties.getGraphql().setDefaultListSize(1);
+        when(movieInfoClient.findAll(any(), eq(Set.of("movieInfoId"))))
+                .thenReturn(Flux.just(Map.of("movieInfoId", "m1"), Map.of("movieInfoId", "m2")));
+        when(reviewClient.findByMovieInfoIds(anyCollection(), eq(Set.of("movieInfoId", "rating"))))
+                .thenReturn(Flux.just(Map.of("movieInfoId", "m1", "rating", 9.0), Map.of("movieInfoId", "m1", "rating", 7.0)));
+
+        Map<String, Object> response = executor.execute(new GraphQlRequest("{ movies { reviews { rating } } }", null, null)).block();
+
+        assertThat(response).doesNotContainKey("errors");
+        assertThat(((Map<String, Object>) response.get("data")).get("movies"))
+                .isEqualTo(List.of(Map.of("reviews", List.of(Map.of("rating", 9.0)))));
+    }
+
+    @Test
+    void tooComplexQueriesAreRejectedBeforeFetching() {
+
+        properties.getGraphql().setMaxComplexity(50);
+
+        Map<String, Object> response = executor.execute(new GraphQlRequest(
+                "{ movies(first: 100) { name reviews { comment } } }", null, null)).block();
+
+        assertThat(response).containsKey("errors").doesNotContainKey("data");
+        verify(movieInfoClient, times(0)).findAll(any(), any());
+    }
+
+    @Test
+    void unknownFieldsAreRejected() {
+
+        Map<String, Object> response = executor.execute(new GraphQlRequest("{ movie(id: \"m1\") { budget } }", null, null)).block();
+
+        assertThat(response.get("errors").toString()).contains("Field 'budget' does not exist on type 'Movie'");
+    }
+}
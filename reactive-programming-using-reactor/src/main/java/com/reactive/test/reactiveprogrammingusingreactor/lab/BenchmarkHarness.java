@@ -0,0 +1,90 @@
+package com.reactive.test.reactiveprogrammingusingreactor.lab;
+
+import reactor.core.publisher.Flux;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Runs a scenario for a warm-up period and then a measurement period, one operation at a time. It reports element
+ * throughput, operation latency percentiles, and heap allocated per element.
+ * <p>
+ * Allocation is read from the per-thread counters of the HotSpot {@code ThreadMXBean}, summed over the live threads.
+ * Threads that exit during the measurement are not counted. This fits Reactor's long-lived scheduler workers, but
+ * treat the figures as relative between scenarios rather than absolute.
+ */
+public class BenchmarkHarness {
+
+	private static final int MAX_SAMPLES = 1 << 20;
+
+	private final Duration warmUp;
+	private final Duration measurement;
+
+	public BenchmarkHarness(Duration warmUp, Duration measurement) {
+		this.warmUp = warmUp;
+		this.measurement = measurement;
+	}
+
+	public ScenarioResult run(Scenario scenario) {
+
+		long warmUpEnd = System.nanoTime() + warmUp.toNanos();
+		while (System.nanoTime() < warmUpEnd) {
+			runOnce(scenario);
+		}
+
+		long[] samples = new long[1024];
+		int operations = 0;
+		long emitted = 0;
+		long allocatedBefore = allocatedBytes();
+		long start = System.nanoTime();
+		long end = start + measurement.toNanos();
+		long now = start;
+		do {
+			emitted = runOnce(scenario);
+			long finished = System.nanoTime();
+			if (operations == samples.length) {
+				samples = Arrays.copyOf(samples, operations * 2);
+			}
+			samples[operations++] = finished - now;
+			now = finished;
+		} while (now < end && operations < MAX_SAMPLES);
+		long elapsed = now - start;
+		long allocatedAfter = allocatedBytes();
+
+		long[] sorted = Arrays.copyOf(samples, operations);
+		Arrays.sort(sorted);
+		long elements = (long) operations * scenario.getElements();
+		double bytesPerElement = allocatedBefore < 0 || elements == 0 ? -1 : (double) (allocatedAfter - allocatedBefore) / elements;
+		return new ScenarioResult(scenario.getGroup(), scenario.getName(), operations,
+				elements * 1e9 / Math.max(1, elapsed),
+				percentile(sorted, 0.50) / 1000, percentile(sorted, 0.99) / 1000, sorted[operations - 1] / 1000,
+				bytesPerElement, emitted);
+	}
+
+	/**
+	 * Runs one operation and returns the number of elements that reached its end.
+	 */
+	public static long runOnce(Scenario scenario) {
+		Long count = Flux.from(scenario.getPipeline().get()).count().block();
+		return count == null ? 0 : count;
+	}
+
+	private static long percentile(long[] sorted, double percentile) {
+		return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+	}
+
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+			return -1;
+		}
+		com.sun.management.ThreadMXBean hotSpotThreads = (com.sun.management.ThreadMXBean) threads;
+		if (!hotSpotThreads.isThreadAllocatedMemorySupported() || !hotSpotThreads.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		return Arrays.stream(hotSpotThreads.getThreadAllocatedBytes(hotSpotThreads.getAllThreadIds()))
+				.filter(bytes -> bytes > 0)
+				.sum();
+	}
+}
@@ -0,0 +1,41 @@
+package com.reactive.test.reactiveprogrammingusingreactor.lab;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "reactor-lab")
+public class ReactorLabProperties {
+
+	private boolean enabled = false;
+
+	/**
+	 * Regular expression matched against {@code group/name}; only matching scenarios run.
+	 */
+	private String include = ".*";
+
+	private Duration warmUp = Duration.ofSeconds(2);
+	private Duration measurement = Duration.ofSeconds(5);
+
+	/**
+	 * Elements per operation for CPU-bound scenarios.
+	 */
+	private int elements = 10_000;
+
+	/**
+	 * Elements per operation for scenarios whose inner publishers simulate a remote call.
+	 */
+	private int ioElements = 256;
+	private Duration ioLatency = Duration.ofMillis(1);
+
+	private List<Integer> concurrencies = List.of(1, 16, 256);
+	private List<Integer> prefetches = List.of(1, 32);
+	private List<Integer> batchSizes = List.of(16, 256);
+	private int subscribers = 4;
+
+	private Path report = Path.of("target", "reactor-lab.csv");
+}
@@ -0,0 +1,67 @@
+package com.reactive.test.reactiveprogrammingusingreactor.lab;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the scenarios on startup, logs each result, writes them all to a CSV report and then shuts the application
+ * down. For example:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.arguments="--reactor-lab.enabled=true --reactor-lab.include=flatmap/.*"
+ * </pre>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "reactor-lab", name = "enabled", havingValue = "true")
+public class ReactorLabRunner implements ApplicationRunner {
+
+	private final ReactorLabProperties properties;
+	private final ConfigurableApplicationContext context;
+
+	@Override
+	public void run(ApplicationArguments args) {
+
+		Pattern include = Pattern.compile(properties.getInclude());
+		List<Scenario> scenarios = ReactorLabScenarios.all(properties).stream()
+				.filter(scenario -> include.matcher(scenario.getId()).matches())
+				.collect(Collectors.toList());
+		log.info("Running {} scenarios, {} warm-up and {} measurement each", scenarios.size(),
+				properties.getWarmUp(), properties.getMeasurement());
+
+		BenchmarkHarness harness = new BenchmarkHarness(properties.getWarmUp(), properties.getMeasurement());
+		List<String> report = new ArrayList<>();
+		report.add(ScenarioResult.CSV_HEADER);
+		for (Scenario scenario : scenarios) {
+			ScenarioResult result = harness.run(scenario);
+			log.info("{}: {} elements/s, p50 {}us, p99 {}us, {} B/element", scenario.getId(),
+					String.format("%.0f", result.getElementsPerSecond()), result.getP50Micros(), result.getP99Micros(),
+					String.format("%.1f", result.getBytesPerElement()));
+			report.add(result.toCsv());
+		}
+
+		try {
+			if (properties.getReport().getParent() != null) {
+				Files.createDirectories(properties.getReport().getParent());
+			}
+			Files.write(properties.getReport(), report);
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Could not write " + properties.getReport(), ex);
+		}
+		log.info("Wrote {}", properties.getReport().toAbsolutePath());
+		context.close();
+	}
+}
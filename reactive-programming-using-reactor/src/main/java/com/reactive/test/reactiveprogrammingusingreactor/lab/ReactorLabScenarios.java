@@ -0,0 +1,198 @@
+package com.reactive.test.reactiveprogrammingusingreactor.lab;
+
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The scenarios, grouped after the patterns the services use:
+ * <ul>
+ *     <li>{@code flatmap}: {@code flatMap} vs {@code flatMapSequential} vs {@code concatMap} over simulated remote
+ *     calls, as in the batch endpoints and the review snapshot refresh.</li>
+ *     <li>{@code scheduling}: where {@code publishOn}/{@code subscribeOn} go around CPU-bound work.</li>
+ *     <li>{@code source}: in-memory collections vs pull-based cursors vs push sources.</li>
+ *     <li>{@code batching}: per-element writes vs {@code buffer}/{@code bufferTimeout}/{@code window} batches.</li>
+ *     <li>{@code sinks}: the {@code Sinks.many()} flavours behind the event publishers, fanned out to several
+ *     subscribers.</li>
+ * </ul>
+ */
+public final class ReactorLabScenarios {
+
+	private ReactorLabScenarios() {
+	}
+
+	public static List<Scenario> all(ReactorLabProperties properties) {
+		List<Scenario> scenarios = new ArrayList<>();
+		scenarios.addAll(flatMap(properties));
+		scenarios.addAll(scheduling(properties));
+		scenarios.addAll(sources(properties));
+		scenarios.addAll(batching(properties));
+		scenarios.addAll(sinks(properties));
+		return scenarios;
+	}
+
+	static List<Scenario> flatMap(ReactorLabProperties properties) {
+
+		int elements = properties.getIoElements();
+		Function<Integer, Mono<Integer>> remoteCall = remoteCall(properties.getIoLatency());
+		List<Scenario> scenarios = new ArrayList<>();
+		for (int prefetch : properties.getPrefetches()) {
+			scenarios.add(new Scenario("flatmap", "concatMap(prefetch=" + prefetch + ")", elements,
+					() -> Flux.range(0, elements).concatMap(remoteCall, prefetch)));
+			for (int concurrency : properties.getConcurrencies()) {
+				String parameters = "(concurrency=" + concurrency + ",prefetch=" + prefetch + ")";
+				scenarios.add(new Scenario("flatmap", "flatMap" + parameters, elements,
+						() -> Flux.range(0, elements).flatMap(remoteCall, concurrency, prefetch)));
+				scenarios.add(new Scenario("flatmap", "flatMapSequential" + parameters, elements,
+						() -> Flux.range(0, elements).flatMapSequential(remoteCall, concurrency, prefetch)));
+			}
+		}
+		return scenarios;
+	}
+
+	static List<Scenario> scheduling(ReactorLabProperties properties) {
+
+		int elements = properties.getElements();
+		int parallelism = Schedulers.DEFAULT_POOL_SIZE;
+		return List.of(
+				new Scenario("scheduling", "none", elements,
+						() -> Flux.range(0, elements).map(ReactorLabScenarios::work)),
+				new Scenario("scheduling", "subscribeOn(boundedElastic)", elements,
+						() -> Flux.range(0, elements).map(ReactorLabScenarios::work).subscribeOn(Schedulers.boundedElastic())),
+				new Scenario("scheduling", "publishOn(parallel).map", elements,
+						() -> Flux.range(0, elements).publishOn(Schedulers.parallel()).map(ReactorLabScenarios::work)),
+				new Scenario("scheduling", "map.publishOn(parallel)", elements,
+						() -> Flux.range(0, elements).map(ReactorLabScenarios::work).publishOn(Schedulers.parallel())),
+				new Scenario("scheduling", "publishOn(parallel).map.publishOn(boundedElastic)", elements,
+						() -> Flux.range(0, elements).publishOn(Schedulers.parallel()).map(ReactorLabScenarios::work)
+								.publishOn(Schedulers.boundedElastic())),
+				new Scenario("scheduling", "parallel(" + parallelism + ").runOn(parallel).map", elements,
+						() -> Flux.range(0, elements).parallel(parallelism).runOn(Schedulers.parallel())
+								.map(ReactorLabScenarios::work).sequential()));
+	}
+
+	static List<Scenario> sources(ReactorLabProperties properties) {
+
+		int elements = properties.getElements();
+		List<Integer> list = IntStream.range(0, elements).boxed().collect(Collectors.toList());
+		return List.of(
+				new Scenario("source", "range", elements, () -> Flux.range(0, elements)),
+				new Scenario("source", "fromIterable", elements, () -> Flux.fromIterable(list)),
+				new Scenario("source", "fromStream", elements, () -> Flux.fromStream(list::stream)),
+				// A driver cursor: the next element is pulled only when downstream asks for it
+				new Scenario("source", "generate(cursor)", elements,
+						() -> Flux.<Integer, Iterator<Integer>>generate(list::iterator, (cursor, sink) -> {
+							if (cursor.hasNext()) {
+								sink.next(cursor.next());
+							} else {
+								sink.complete();
+							}
+							return cursor;
+						})),
+				new Scenario("source", "create(push,buffer)", elements, () -> Flux.<Integer>create(sink -> {
+					list.forEach(sink::next);
+					sink.complete();
+				}, FluxSink.OverflowStrategy.BUFFER)),
+				// The same sources behind an async boundary, where request batching matters
+				new Scenario("source", "fromIterable.publishOn(parallel)", elements,
+						() -> Flux.fromIterable(list).publishOn(Schedulers.parallel())),
+				new Scenario("source", "generate(cursor).publishOn(parallel)", elements,
+						() -> Flux.<Integer, Iterator<Integer>>generate(list::iterator, (cursor, sink) -> {
+							if (cursor.hasNext()) {
+								sink.next(cursor.next());
+							} else {
+								sink.complete();
+							}
+							return cursor;
+						}).publishOn(Schedulers.parallel())));
+	}
+
+	static List<Scenario> batching(ReactorLabProperties properties) {
+
+		int elements = properties.getIoElements();
+		Duration latency = properties.getIoLatency();
+		Function<Integer, Mono<Integer>> write = remoteCall(latency);
+		Function<List<Integer>, Mono<Integer>> batchWrite = batch -> Mono.delay(latency).thenReturn(batch.size());
+		List<Scenario> scenarios = new ArrayList<>();
+		scenarios.add(new Scenario("batching", "perElement.concatMap", elements,
+				() -> Flux.range(0, elements).concatMap(write)));
+		scenarios.add(new Scenario("batching", "perElement.flatMap(16)", elements,
+				() -> Flux.range(0, elements).flatMap(write, 16)));
+		for (int size : properties.getBatchSizes()) {
+			scenarios.add(new Scenario("batching", "buffer(" + size + ").concatMap", elements,
+					() -> Flux.range(0, elements).buffer(size).concatMap(batchWrite)));
+			scenarios.add(new Scenario("batching", "bufferTimeout(" + size + ",10ms).concatMap", elements,
+					() -> Flux.range(0, elements).bufferTimeout(size, Duration.ofMillis(10)).concatMap(batchWrite)));
+			scenarios.add(new Scenario("batching", "window(" + size + ").concatMap(collectList)", elements,
+					() -> Flux.range(0, elements).window(size).concatMap(window -> window.collectList().flatMap(batchWrite))));
+		}
+		return scenarios;
+	}
+
+	static List<Scenario> sinks(ReactorLabProperties properties) {
+
+		int elements = properties.getElements();
+		int subscribers = properties.getSubscribers();
+		return List.of(
+				sink("multicast.onBackpressureBuffer", elements, subscribers, () -> Sinks.many().multicast().onBackpressureBuffer()),
+				sink("multicast.directBestEffort", elements, subscribers, () -> Sinks.many().multicast().directBestEffort()),
+				sink("multicast.directAllOrNothing", elements, subscribers, () -> Sinks.many().multicast().directAllOrNothing()),
+				sink("replay.limit(256)", elements, subscribers, () -> Sinks.many().replay().limit(256)),
+				sink("unicast.onBackpressureBuffer", elements, 1, () -> Sinks.many().unicast().onBackpressureBuffer()),
+				// What the event publishers pair with a slow subscriber: a bounded buffer that sheds the oldest events
+				new Scenario("sinks", "directBestEffort+onBackpressureBuffer(256,dropOldest)", elements, () -> {
+					Sinks.Many<Integer> sink = Sinks.many().multicast().directBestEffort();
+					return fanOut(sink, elements, subscribers,
+							flux -> flux.onBackpressureBuffer(256, dropped -> { }, BufferOverflowStrategy.DROP_OLDEST));
+				}));
+	}
+
+	private static Scenario sink(String name, int elements, int subscribers, Supplier<Sinks.Many<Integer>> sinkFactory) {
+		return new Scenario("sinks", name + "(subscribers=" + subscribers + ")", elements,
+				() -> fanOut(sinkFactory.get(), elements, subscribers, Function.identity()));
+	}
+
+	/**
+	 * Subscribes {@code subscribers} consumers, each on its own worker, then emits from a separate thread. The
+	 * result emits each element delivered to each subscriber, so dropping sinks show as fewer emitted elements.
+	 */
+	private static Flux<Integer> fanOut(Sinks.Many<Integer> sink, int elements, int subscribers,
+										Function<Flux<Integer>, Flux<Integer>> subscriberSide) {
+		Flux<Integer> consumers = Flux.range(0, subscribers)
+				.flatMap(i -> subscriberSide.apply(sink.asFlux()).publishOn(Schedulers.parallel()), subscribers);
+		Mono<Void> emitter = Mono.<Void>fromRunnable(() -> {
+			for (int i = 0; i < elements; i++) {
+				// A buffering sink refuses elements while its queue is full; retry until the consumers catch up
+				sink.emitNext(i, (signalType, result) -> result == Sinks.EmitResult.FAIL_OVERFLOW
+						|| result == Sinks.EmitResult.FAIL_NON_SERIALIZED);
+			}
+			sink.emitComplete(Sinks.EmitFailureHandler.FAIL_FAST);
+		}).subscribeOn(Schedulers.single());
+		return consumers.mergeWith(emitter.then(Mono.<Integer>empty()));
+	}
+
+	private static Function<Integer, Mono<Integer>> remoteCall(Duration latency) {
+		return value -> Mono.delay(latency).thenReturn(value);
+	}
+
+	// Enough arithmetic that the work, not the operator overhead, dominates a single element
+	private static int work(int value) {
+		int hash = value;
+		for (int i = 0; i < 64; i++) {
+			hash = 31 * hash + i;
+		}
+		return hash;
+	}
+}
@@ -0,0 +1,25 @@
+package com.reactive.test.reactiveprogrammingusingreactor.lab;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+
+import java.util.function.Supplier;
+
+/**
+ * One benchmarked pipeline. An operation assembles a fresh pipeline, subscribes and waits for it to complete;
+ * {@code elements} is the number of source elements it processes.
+ */
+@Data
+@AllArgsConstructor
+public class Scenario {
+
+	private String group;
+	private String name;
+	private int elements;
+	private Supplier<Publisher<?>> pipeline;
+
+	public String getId() {
+		return group + "/" + name;
+	}
+}
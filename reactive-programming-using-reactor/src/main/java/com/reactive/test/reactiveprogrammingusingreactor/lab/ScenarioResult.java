@@ -0,0 +1,35 @@
+package com.reactive.test.reactiveprogrammingusingreactor.lab;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Locale;
+
+@Data
+@AllArgsConstructor
+public class ScenarioResult {
+
+	static final String CSV_HEADER = "group,name,operations,elementsPerSecond,p50Micros,p99Micros,maxMicros,bytesPerElement,emittedPerOperation";
+
+	private String group;
+	private String name;
+	private long operations;
+	private double elementsPerSecond;
+	private long p50Micros;
+	private long p99Micros;
+	private long maxMicros;
+	/**
+	 * Heap allocated by all threads during the measurement, divided by the elements processed; -1 if the JVM
+	 * cannot tell.
+	 */
+	private double bytesPerElement;
+	/**
+	 * Elements that reached the end of the pipeline, which is below the source count for scenarios that drop.
+	 */
+	private long emittedPerOperation;
+
+	String toCsv() {
+		return String.format(Locale.ROOT, "%s,%s,%d,%.0f,%d,%d,%d,%.1f,%d", group, name, operations,
+				elementsPerSecond, p50Micros, p99Micros, maxMicros, bytesPerElement, emittedPerOperation);
+	}
+}
@@ -0,0 +1,56 @@
+package com.reactive.test.reactiveprogrammingusingreactor.lab;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactorLabScenariosTest {
+
+	@Test
+	void everyScenarioProcessesAllElements() {
+
+		ReactorLabProperties properties = new ReactorLabProperties();
+		properties.setElements(500);
+		properties.setIoElements(40);
+		properties.setIoLatency(Duration.ofMillis(1));
+
+		List<Scenario> scenarios = ReactorLabScenarios.all(properties);
+
+		assertThat(scenarios).extracting(Scenario::getGroup).contains("flatmap", "scheduling", "source", "batching", "sinks");
+		for (Scenario scenario : scenarios) {
+			long emitted = BenchmarkHarness.runOnce(scenario);
+			if (scenario.getGroup().equals("batching")) {
+				// Batched writes emit one result per batch
+				assertThat(emitted).as(scenario.getId()).isPositive();
+			} else if (scenario.getGroup().equals("sinks")) {
+				long delivered = (long) scenario.getElements()
+						* (scenario.getName().startsWith("unicast") ? 1 : properties.getSubscribers());
+				if (scenario.getName().contains("direct")) {
+					// The direct sinks drop elements for a subscriber that falls behind, depending on timing
+					assertThat(emitted).as(scenario.getId()).isPositive().isLessThanOrEqualTo(delivered);
+				} else {
+					assertThat(emitted).as(scenario.getId()).isEqualTo(delivered);
+				}
+			} else {
+				assertThat(emitted).as(scenario.getId()).isEqualTo(scenario.getElements());
+			}
+		}
+	}
+
+	@Test
+	void harnessReportsThroughputAndLatency() {
+
+		Scenario scenario = new Scenario("source", "range", 1000, () -> Flux.range(0, 1000));
+
+		ScenarioResult result = new BenchmarkHarness(Duration.ZERO, Duration.ofMillis(50)).run(scenario);
+
+		assertThat(result.getOperations()).isPositive();
+		assertThat(result.getElementsPerSecond()).isPositive();
+		assertThat(result.getP99Micros()).isGreaterThanOrEqualTo(result.getP50Micros());
+		assertThat(result.getEmittedPerOperation()).isEqualTo(1000);
+	}
+}
@@ -0,0 +1,86 @@
+#!/usr/bin/env bash
+#
+# Measures time-to-first-successful-request for each service, with and without the startup optimizations.
+#
+#   ./startup-benchmark.sh [runs]
+#
+# Each module is built with the 'startup' Maven profile (thin jar + target/lib, lazy initialization), an AppCDS
+# archive is recorded in a training run, and then every run launches the JVM and polls one cheap endpoint until it
+# answers. "baseline" runs with the JVM's default flags (so the JDK's own CDS archive stays on) and lazy
+# initialization off; "optimized" adds the application CDS archive and lazy initialization. Needs JDK 13+ for dynamic
+# CDS archives. Set SKIP_BUILD=1 to reuse existing jars.
+
+set -euo pipefail
+
+RUNS=${1:-5}
+ROOT=$(cd "$(dirname "$0")" && pwd)
+
+# module | port | probe path | expected HTTP status
+MODULES=(
+  "movies-info-service|8080|/flux|200"
+  "movies-review-service|8081|/v1/helloworld|200"
+  "movies-service|8080|/|404"
+)
+
+now_ms() {
+  date +%s%3N
+}
+
+# Launches the jar with the given JVM flags and prints the milliseconds until the probe returns the expected status.
+first_request_ms() {
+  local jar=$1 port=$2 probe=$3 expected=$4
+  shift 4
+  local start pid status
+  start=$(now_ms)
+  java "$@" -jar "$jar" > /dev/null 2>&1 &
+  pid=$!
+  until status=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:${port}${probe}") && [ "$status" = "$expected" ]; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "process exited before answering" >&2
+      return 1
+    fi
+    sleep 0.01
+  done
+  echo $(( $(now_ms) - start ))
+  kill -TERM "$pid"
+  wait "$pid" 2> /dev/null || true
+}
+
+average() {
+  local sum=0 count=0
+  for value in "$@"; do
+    sum=$(( sum + value ))
+    count=$(( count + 1 ))
+  done
+  echo $(( sum / count ))
+}
+
+# The backend services depend on the shared module
+if [ -z "${SKIP_BUILD:-}" ]; then
+  (cd "$ROOT/movies-common" && ./mvnw -q -B -DskipTests install)
+fi
+
+for entry in "${MODULES[@]}"; do
+  IFS='|' read -r module port probe expected <<< "$entry"
+  cd "$ROOT/$module"
+
+  if [ -z "${SKIP_BUILD:-}" ]; then
+    ./mvnw -q -B -Pstartup -DskipTests package
+  fi
+  jar=$(ls target/"$module"-*.jar | grep -v -- '-sources' | head -n 1)
+  archive=target/app-cds.jsa
+
+  # Training run: the archive is written when the JVM exits after the first request was served
+  rm -f "$archive"
+  first_request_ms "$jar" "$port" "$probe" "$expected" -XX:ArchiveClassesAtExit="$archive" > /dev/null
+
+  baseline=()
+  optimized=()
+  for _ in $(seq "$RUNS"); do
+    baseline+=("$(first_request_ms "$jar" "$port" "$probe" "$expected" -Dspring.main.lazy-initialization=false)")
+    optimized+=("$(first_request_ms "$jar" "$port" "$probe" "$expected" -XX:SharedArchiveFile="$archive")")
+  done
+
+  printf '%-24s baseline %6s ms   optimized %6s ms   (%s runs)\n' \
+    "$module" "$(average "${baseline[@]}")" "$(average "${optimized[@]}")" "$RUNS"
+done